@@ -32,9 +32,15 @@ android {
         targetCompatibility = JavaVersion.VERSION_11
     }
     
+    // Android calls such as Log are no-ops in local unit tests
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
+
     // Enable view binding for easier UI interactions
     buildFeatures {
         viewBinding = true
+        buildConfig = true
     }
 }
 
@@ -49,6 +55,7 @@ dependencies {
     implementation("androidx.cardview:cardview:1.0.0")
     implementation("androidx.lifecycle:lifecycle-viewmodel:2.6.2")
     implementation("androidx.lifecycle:lifecycle-livedata:2.6.2")
+    implementation("androidx.lifecycle:lifecycle-viewmodel-savedstate:2.6.2")
     implementation("androidx.preference:preference:1.2.1")
     
     // Location services
@@ -58,6 +65,9 @@ dependencies {
     implementation("androidx.room:room-runtime:2.6.1")
     annotationProcessor("androidx.room:room-compiler:2.6.1")
     
+    // WorkManager for background jobs
+    implementation("androidx.work:work-runtime:2.9.1")
+    
     // Retrofit & OkHttp for API calls
     implementation("com.squareup.retrofit2:retrofit:2.9.0")
     implementation("com.squareup.retrofit2:converter-gson:2.9.0")
@@ -0,0 +1,124 @@
+package com.meteo_app_java.data.gazetteer;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.meteo_app_java.utils.TextNormalizer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Measures gazetteer ingest time and prefix lookup latency on a synthetic city
+ * list the size of OpenWeatherMap's. Results are logged under the test's tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GazetteerBenchmark {
+    private static final String TAG = "GazetteerBenchmark";
+
+    private static final int CITY_COUNT = 200_000;
+    private static final int LOOKUPS = 2_000;
+    private static final String[] SYLLABLES = {
+            "ba", "be", "bo", "ca", "ce", "da", "di", "el", "fa", "ga", "ha", "is", "ja", "ka",
+            "la", "le", "li", "ma", "mo", "na", "no", "or", "pa", "po", "ra", "ri", "sa", "se",
+            "ta", "to", "um", "va", "vi", "za", "zü", "é"
+    };
+
+    private Context context;
+    private GazetteerDatabase database;
+    private File cityList;
+    private final List<String> names = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, GazetteerDatabase.class).build();
+        cityList = new File(context.getCacheDir(), "benchmark_city_list.json");
+        writeCityList(cityList, new Random(42));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        cityList.delete();
+    }
+
+    @Test
+    public void ingestAndLookup() throws IOException {
+        long start = System.nanoTime();
+        int loaded = new GazetteerIngest(database).ingest(new FileInputStream(cityList));
+        long ingestMs = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(CITY_COUNT, loaded);
+        Log.i(TAG, "Ingest: " + loaded + " cities in " + ingestMs + " ms");
+
+        GazetteerDao dao = database.gazetteerDao();
+        Random random = new Random(7);
+        long[] latencies = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String name = TextNormalizer.normalize(names.get(random.nextInt(names.size())));
+            // Prefixes from 1 character (many matches) to the full name
+            String prefix = name.substring(0, 1 + random.nextInt(name.length()));
+            long lookupStart = System.nanoTime();
+            List<?> cities = dao.findByPrefix(prefix, prefix + '\uffff', 5);
+            latencies[i] = System.nanoTime() - lookupStart;
+            assertFalse(cities.isEmpty());
+        }
+
+        Arrays.sort(latencies);
+        Log.i(TAG, String.format(Locale.ROOT, "Lookup: p50=%.2f ms, p99=%.2f ms, max=%.2f ms",
+                latencies[LOOKUPS / 2] / 1e6, latencies[LOOKUPS * 99 / 100] / 1e6,
+                latencies[LOOKUPS - 1] / 1e6));
+    }
+
+    /**
+     * Write a city list in the OpenWeatherMap format, with made-up names.
+     */
+    private void writeCityList(File file, Random random) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write('[');
+            for (int id = 1; id <= CITY_COUNT; id++) {
+                StringBuilder name = new StringBuilder();
+                int syllables = 2 + random.nextInt(3);
+                for (int s = 0; s < syllables; s++) {
+                    name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                }
+                name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+                names.add(name.toString());
+
+                if (id > 1) {
+                    writer.write(',');
+                }
+                writer.write(String.format(Locale.ROOT,
+                        "{\"id\":%d,\"name\":\"%s\",\"state\":\"\",\"country\":\"FR\","
+                                + "\"coord\":{\"lon\":%.5f,\"lat\":%.5f},\"stat\":{\"population\":%d}}",
+                        id, name, random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90,
+                        random.nextInt(1_000_000)));
+            }
+            writer.write(']');
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.meteo_app_java.data.local;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.meteo_app_java.models.ForecastLocation;
+import com.meteo_app_java.models.SavedLocation;
+import com.meteo_app_java.models.Weather;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the full-text city queries of the saved location and weather DAOs on an
+ * in-memory database, with expressions built from user input by FtsQuery.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CityMatchQueryTest {
+
+    private MeteoDatabase database;
+    private SavedLocationDao savedLocationDao;
+    private ForecastDao forecastDao;
+    private WeatherDao weatherDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, MeteoDatabase.class).build();
+        savedLocationDao = database.savedLocationDao();
+        forecastDao = database.forecastDao();
+        weatherDao = database.weatherDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void savedLocationMatchesWordPrefixesIgnoringAccents() throws Exception {
+        saveLocation("Saint-Étienne", "FR", false, 1);
+        saveLocation("Paris", "FR", false, 2);
+
+        assertEquals("Saint-Étienne", findLocation("saint-et").getCityName());
+        assertEquals("Saint-Étienne", findLocation("ETIENNE").getCityName());
+        assertNull(findLocation("lyon"));
+    }
+
+    @Test
+    public void savedLocationPrefersFavoritesThenRecentlyUsed() throws Exception {
+        saveLocation("York", "GB", false, 3);
+        saveLocation("New York", "US", true, 1);
+        saveLocation("New York Mills", "US", false, 2);
+
+        assertEquals("New York", findLocation("york").getCityName());
+        savedLocationDao.deleteAll();
+
+        saveLocation("York", "GB", false, 1);
+        saveLocation("New York", "US", false, 2);
+        assertEquals("New York", findLocation("york").getCityName());
+    }
+
+    @Test
+    public void inputWithFtsSyntaxIsSafe() throws Exception {
+        saveLocation("New York", "US", false, 1);
+
+        assertEquals("New York", findLocation("\"new\" -york*").getCityName());
+        assertEquals("New York", findLocation("New York OR").getCityName());
+    }
+
+    @Test
+    public void weatherMatchesTheLocationName() throws Exception {
+        storeWeather("u09tvw:metric", "Saint-Étienne", 1000);
+        storeWeather("u0h0fg:metric", "Paris", 2000);
+
+        Weather weather = getValue(weatherDao.findWeatherByCityMatch(FtsQuery.prefixQuery("saint et")));
+        assertEquals(1000, weather.getTimestamp());
+        assertNull(getValue(weatherDao.findWeatherByCityMatch(FtsQuery.prefixQuery("lyon"))));
+    }
+
+    private void saveLocation(String cityName, String countryCode, boolean favorite, long lastAccessed) {
+        SavedLocation location = new SavedLocation();
+        location.setCityName(cityName);
+        location.setCountryCode(countryCode);
+        location.setFavorite(favorite);
+        location.setLastAccessed(new Date(lastAccessed));
+        savedLocationDao.insert(location);
+    }
+
+    private void storeWeather(String locationKey, String cityName, long timestamp) {
+        ForecastLocation location = new ForecastLocation();
+        location.setLocationKey(locationKey);
+        location.setCityName(cityName);
+        location.setLastUpdated(timestamp);
+
+        Weather weather = new Weather();
+        weather.setCityName(cityName);
+        weather.setTimestamp(timestamp);
+        weather.setLastUpdated(new Date(timestamp));
+        forecastDao.replaceForecastForLocation(location, weather, null, null);
+    }
+
+    private SavedLocation findLocation(String query) throws InterruptedException {
+        return getValue(savedLocationDao.findLocationByCityMatch(FtsQuery.prefixQuery(query)));
+    }
+
+    /**
+     * Wait for the first value of a LiveData, observing it on the main thread.
+     */
+    private static <T> T getValue(LiveData<T> liveData) throws InterruptedException {
+        AtomicReference<T> value = new AtomicReference<>();
+        CountDownLatch received = new CountDownLatch(1);
+        Observer<T> observer = result -> {
+            value.set(result);
+            received.countDown();
+        };
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.observeForever(observer));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.removeObserver(observer));
+        return value.get();
+    }
+}
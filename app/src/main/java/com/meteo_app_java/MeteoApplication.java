@@ -14,6 +14,9 @@ import com.google.firebase.crashlytics.FirebaseCrashlytics;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.meteo_app_java.data.local.MeteoDatabase;
 import com.meteo_app_java.utils.PreferencesManager;
+import com.meteo_app_java.workers.DatabaseMaintenanceWorker;
+import com.meteo_app_java.workers.FavoritePrefetchWorker;
+import com.meteo_app_java.workers.GazetteerIngestWorker;
 
 public class MeteoApplication extends Application {
     private static final String TAG = "MeteoApplication";
@@ -59,11 +62,23 @@ public class MeteoApplication extends Application {
                 getApplicationContext(),
                 MeteoDatabase.class,
                 "meteo_database")
+                .addMigrations(MeteoDatabase.MIGRATION_1_2, MeteoDatabase.MIGRATION_2_3,
+                        MeteoDatabase.MIGRATION_3_4, MeteoDatabase.MIGRATION_4_5,
+                        MeteoDatabase.MIGRATION_5_6)
                 .fallbackToDestructiveMigration()
                 .build();
 
         // Initialize SharedPreferences manager
         preferencesManager = new PreferencesManager(getApplicationContext());
+
+        // Keep the database bounded in the background
+        DatabaseMaintenanceWorker.schedule(getApplicationContext());
+
+        // Keep favorites fresh so they open from local data
+        FavoritePrefetchWorker.schedule(getApplicationContext());
+
+        // Load the offline city search if the APK bundles a city list but no pre-built database
+        GazetteerIngestWorker.enqueue(getApplicationContext());
     }
 
     private boolean checkGooglePlayServices() {
@@ -0,0 +1,9 @@
+package com.meteo_app_java.data;
+
+/**
+ * Work that can be stopped before it completes. Cancelling work that already
+ * completed or was already cancelled does nothing.
+ */
+public interface Cancellable {
+    void cancel();
+}
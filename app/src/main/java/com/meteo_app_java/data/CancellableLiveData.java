@@ -0,0 +1,83 @@
+package com.meteo_app_java.data;
+
+import androidx.lifecycle.MutableLiveData;
+
+import com.meteo_app_java.data.remote.RequestPriority;
+
+/**
+ * LiveData returned by repository requests. Cancelling it stops the network calls
+ * behind it, and it receives no further values afterwards. It may first receive
+ * cached data; it stops loading once the final value has been delivered.
+ *
+ * @param <T> Type of the value
+ */
+public class CancellableLiveData<T> extends MutableLiveData<T> implements Cancellable {
+
+    private final RequestHandle handle;
+    private boolean loading = true;
+
+    public CancellableLiveData() {
+        this(RequestPriority.USER);
+    }
+
+    public CancellableLiveData(RequestPriority priority) {
+        handle = new RequestHandle(priority);
+    }
+
+    /**
+     * Handle collecting the calls made on behalf of this LiveData.
+     */
+    RequestHandle getHandle() {
+        return handle;
+    }
+
+    /**
+     * Post an intermediate value, such as offline data, unless the final value
+     * has already been posted.
+     */
+    synchronized void postIfLoading(T value) {
+        if (loading) {
+            postValue(value);
+        }
+    }
+
+    /**
+     * Post the final value of the request, or null if nothing could be loaded.
+     */
+    synchronized void complete(T value) {
+        loading = false;
+        postValue(value);
+    }
+
+    /**
+     * Set the final value of the request. Main thread only.
+     */
+    synchronized void completeNow(T value) {
+        loading = false;
+        setValue(value);
+    }
+
+    /**
+     * Check if the final value is still to come.
+     */
+    public synchronized boolean isLoading() {
+        return loading && !isCancelled();
+    }
+
+    @Override
+    public void cancel() {
+        handle.cancel();
+    }
+
+    public boolean isCancelled() {
+        return handle.isCancelled();
+    }
+
+    @Override
+    public void postValue(T value) {
+        // Late responses of a superseded request must not overwrite newer data
+        if (!isCancelled()) {
+            super.postValue(value);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.meteo_app_java.data;
+
+import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.HourlyForecast;
+import com.meteo_app_java.models.Weather;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Current weather, hourly and daily forecasts for one location, as derived
+ * from a single OneCall response.
+ */
+public class ForecastBundle {
+    private final Weather weather;
+    private final List<HourlyForecast> hourlyForecasts;
+    private final List<DailyForecast> dailyForecasts;
+
+    public ForecastBundle(Weather weather, List<HourlyForecast> hourlyForecasts,
+            List<DailyForecast> dailyForecasts) {
+        this.weather = weather;
+        this.hourlyForecasts = Collections.unmodifiableList(hourlyForecasts);
+        this.dailyForecasts = Collections.unmodifiableList(dailyForecasts);
+    }
+
+    public Weather getWeather() {
+        return weather;
+    }
+
+    public List<HourlyForecast> getHourlyForecasts() {
+        return hourlyForecasts;
+    }
+
+    public List<DailyForecast> getDailyForecasts() {
+        return dailyForecasts;
+    }
+}
@@ -0,0 +1,111 @@
+package com.meteo_app_java.data;
+
+import android.util.Log;
+
+import com.meteo_app_java.data.local.ForecastDao;
+import com.meteo_app_java.data.local.SavedLocationDao;
+import com.meteo_app_java.models.ForecastLocation;
+import com.meteo_app_java.models.SavedLocation;
+import com.meteo_app_java.utils.SpatialIndex;
+
+import java.util.List;
+
+/**
+ * Spatial indexes of the saved locations and of the locations with stored
+ * forecasts, to find the ones near a position without reading every row. Loaded
+ * from the database on first use, then kept up to date by the writers, which
+ * must update it after their changes are committed. Queries block on the first
+ * load; they must not be called on the main thread.
+ */
+public class LocationIndex {
+    private static final String TAG = "LocationIndex";
+
+    private final SavedLocationDao savedLocationDao;
+    private final ForecastDao forecastDao;
+    private final SpatialIndex<SavedLocation> savedLocations = new SpatialIndex<>();
+    private final SpatialIndex<ForecastLocation> forecastLocations = new SpatialIndex<>();
+    private boolean loaded;
+
+    public LocationIndex(SavedLocationDao savedLocationDao, ForecastDao forecastDao) {
+        this.savedLocationDao = savedLocationDao;
+        this.forecastDao = forecastDao;
+    }
+
+    /**
+     * Find the saved locations nearest to a position, nearest first.
+     */
+    public synchronized List<SpatialIndex.Hit<SavedLocation>> nearestSavedLocations(double lat, double lon,
+            int count) {
+        ensureLoaded();
+        return savedLocations.nearest(lat, lon, count);
+    }
+
+    /**
+     * Find the saved locations within a distance of a position, nearest first.
+     */
+    public synchronized List<SpatialIndex.Hit<SavedLocation>> savedLocationsWithin(double lat, double lon,
+            double radiusKm) {
+        ensureLoaded();
+        return savedLocations.within(lat, lon, radiusKm);
+    }
+
+    /**
+     * Find the locations with stored forecasts nearest to a position, nearest first.
+     */
+    public synchronized List<SpatialIndex.Hit<ForecastLocation>> nearestForecastLocations(double lat,
+            double lon, int count) {
+        ensureLoaded();
+        return forecastLocations.nearest(lat, lon, count);
+    }
+
+    /**
+     * Find the locations with stored forecasts within a distance of a position,
+     * nearest first.
+     */
+    public synchronized List<SpatialIndex.Hit<ForecastLocation>> forecastLocationsWithin(double lat,
+            double lon, double radiusKm) {
+        ensureLoaded();
+        return forecastLocations.within(lat, lon, radiusKm);
+    }
+
+    // Before the first load, changes are skipped: the load reads them from the database
+
+    public synchronized void putSavedLocation(SavedLocation location) {
+        if (loaded) {
+            savedLocations.put(String.valueOf(location.getId()), location.getLatitude(),
+                    location.getLongitude(), location);
+        }
+    }
+
+    public synchronized void removeSavedLocation(SavedLocation location) {
+        savedLocations.remove(String.valueOf(location.getId()));
+    }
+
+    public synchronized void clearSavedLocations() {
+        savedLocations.clear();
+    }
+
+    public synchronized void putForecastLocation(ForecastLocation location) {
+        if (loaded) {
+            forecastLocations.put(location.getLocationKey(), location.getLatitude(),
+                    location.getLongitude(), location);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        for (SavedLocation location : savedLocationDao.loadAllLocations()) {
+            savedLocations.put(String.valueOf(location.getId()), location.getLatitude(),
+                    location.getLongitude(), location);
+        }
+        for (ForecastLocation location : forecastDao.loadAllLocations()) {
+            forecastLocations.put(location.getLocationKey(), location.getLatitude(),
+                    location.getLongitude(), location);
+        }
+        loaded = true;
+        Log.d(TAG, "Indexed " + savedLocations.size() + " saved and "
+                + forecastLocations.size() + " forecast locations");
+    }
+}
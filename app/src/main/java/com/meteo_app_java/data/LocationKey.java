@@ -0,0 +1,99 @@
+package com.meteo_app_java.data;
+
+import androidx.annotation.NonNull;
+
+import com.meteo_app_java.utils.Geohash;
+
+/**
+ * Identifies a location for caching and request sharing: the geohash cell of the
+ * coordinates and the units, since values differ per unit. GPS fixes a few
+ * metres apart fall in the same cell, so they share cache entries, stored rows
+ * and network calls.
+ */
+public final class LocationKey {
+
+    // About 1.2 km by 0.6 km
+    public static final int DEFAULT_PRECISION = 6;
+
+    private static volatile int precision = DEFAULT_PRECISION;
+
+    private final String geohash;
+    private final String units;
+
+    private LocationKey(String geohash, String units) {
+        this.geohash = geohash;
+        this.units = units;
+    }
+
+    /**
+     * Build the key of the cell containing a point, at the current precision.
+     */
+    public static LocationKey of(double lat, double lon, String units) {
+        return new LocationKey(Geohash.encode(lat, lon, precision), units);
+    }
+
+    /**
+     * Change the geohash precision of new keys. Data stored under keys of another
+     * precision is no longer found, so this should be set before any request.
+     */
+    public static void setPrecision(int precision) {
+        if (precision < 1 || precision > Geohash.MAX_PRECISION) {
+            throw new IllegalArgumentException("Invalid geohash precision: " + precision);
+        }
+        LocationKey.precision = precision;
+    }
+
+    public static int getPrecision() {
+        return precision;
+    }
+
+    public String getGeohash() {
+        return geohash;
+    }
+
+    public String getUnits() {
+        return units;
+    }
+
+    /**
+     * Latitude of the cell center. Requests use the center so every point of the
+     * cell gets the same response.
+     */
+    public double getLatitude() {
+        return Geohash.decode(geohash)[0];
+    }
+
+    /**
+     * Longitude of the cell center.
+     */
+    public double getLongitude() {
+        return Geohash.decode(geohash)[1];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LocationKey)) {
+            return false;
+        }
+        LocationKey other = (LocationKey) o;
+        return geohash.equals(other.geohash) && units.equals(other.units);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * geohash.hashCode() + units.hashCode();
+    }
+
+    /**
+     * String form used by the caches and the forecast_location table,
+     * e.g. "u09tvw:metric".
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        return geohash + ":" + units;
+    }
+}
@@ -0,0 +1,141 @@
+package com.meteo_app_java.data;
+
+import com.meteo_app_java.data.remote.response.LocationSearchResponse;
+import com.meteo_app_java.utils.LocationUtils;
+import com.meteo_app_java.utils.PrefixTrie;
+import com.meteo_app_java.utils.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Location suggestions for search-as-you-type. Known locations (saved ones and
+ * cached search results) are indexed in an in-memory trie by every word of their
+ * name, so each keystroke is answered synchronously; network results are merged
+ * in as they arrive. Suggestions are deduplicated by coordinates and, when the
+ * user's position is known, ranked by distance from it; otherwise they keep the
+ * order of their source: local matches, shortest names first, then the remote
+ * results in the API's order. Main thread only.
+ */
+public class LocationSuggester {
+
+    // Locations closer than this are the same place, e.g. a saved city and its search result
+    public static final double DUPLICATE_RADIUS_KM = 2.0;
+
+    // Trie matches ranked per keystroke
+    private static final int MAX_LOCAL_MATCHES = 100;
+
+    private final PrefixTrie<LocationSearchResponse.LocationResult> trie = new PrefixTrie<>();
+
+    /**
+     * Index locations, e.g. when saved locations change or search results arrive.
+     */
+    public void addAll(List<LocationSearchResponse.LocationResult> locations) {
+        for (LocationSearchResponse.LocationResult location : locations) {
+            add(location);
+        }
+    }
+
+    /**
+     * Index a location under its full name and under each later word, so "york"
+     * suggests "New York".
+     */
+    public void add(LocationSearchResponse.LocationResult location) {
+        String name = TextNormalizer.normalize(location.name);
+        if (name.isEmpty()) {
+            return;
+        }
+        trie.put(name, location);
+        for (int space = name.indexOf(' '); space >= 0; space = name.indexOf(' ', space + 1)) {
+            trie.put(name.substring(space + 1), location);
+        }
+    }
+
+    public void clear() {
+        trie.clear();
+    }
+
+    /**
+     * Suggest known locations whose name, or a word of it, starts with the query,
+     * exact names first.
+     */
+    public List<LocationSearchResponse.LocationResult> suggest(String query, int limit) {
+        return limit(findLocal(query), limit);
+    }
+
+    /**
+     * Suggest known locations whose name, or a word of it, starts with the query,
+     * nearest first.
+     *
+     * @param lat Latitude of the user
+     * @param lon Longitude of the user
+     */
+    public List<LocationSearchResponse.LocationResult> suggest(String query, double lat, double lon, int limit) {
+        return limit(sortByDistance(findLocal(query), lat, lon), limit);
+    }
+
+    /**
+     * Merge local and remote suggestions, keeping one per place, local ones first.
+     */
+    public static List<LocationSearchResponse.LocationResult> merge(
+            List<LocationSearchResponse.LocationResult> local,
+            List<LocationSearchResponse.LocationResult> remote, int limit) {
+        List<LocationSearchResponse.LocationResult> merged = new ArrayList<>();
+        addDistinct(merged, local);
+        addDistinct(merged, remote);
+        return limit(merged, limit);
+    }
+
+    /**
+     * Merge local and remote suggestions, keeping one per place (the local one),
+     * and rank them by distance from the user.
+     */
+    public static List<LocationSearchResponse.LocationResult> merge(
+            List<LocationSearchResponse.LocationResult> local,
+            List<LocationSearchResponse.LocationResult> remote,
+            double lat, double lon, int limit) {
+        List<LocationSearchResponse.LocationResult> merged = new ArrayList<>();
+        addDistinct(merged, local);
+        addDistinct(merged, remote);
+        return limit(sortByDistance(merged, lat, lon), limit);
+    }
+
+    private List<LocationSearchResponse.LocationResult> findLocal(String query) {
+        String prefix = TextNormalizer.normalize(query);
+        List<LocationSearchResponse.LocationResult> merged = new ArrayList<>();
+        if (!prefix.isEmpty()) {
+            addDistinct(merged, trie.findByPrefix(prefix, MAX_LOCAL_MATCHES));
+        }
+        return merged;
+    }
+
+    private static List<LocationSearchResponse.LocationResult> sortByDistance(
+            List<LocationSearchResponse.LocationResult> locations, double lat, double lon) {
+        locations.sort(Comparator.comparingDouble(
+                location -> LocationUtils.calculateDistance(lat, lon, location.lat, location.lon)));
+        return locations;
+    }
+
+    private static List<LocationSearchResponse.LocationResult> limit(
+            List<LocationSearchResponse.LocationResult> locations, int limit) {
+        return locations.size() > limit ? new ArrayList<>(locations.subList(0, limit)) : locations;
+    }
+
+    private static void addDistinct(List<LocationSearchResponse.LocationResult> merged,
+            List<LocationSearchResponse.LocationResult> locations) {
+        for (LocationSearchResponse.LocationResult location : locations) {
+            boolean duplicate = false;
+            for (LocationSearchResponse.LocationResult kept : merged) {
+                if (LocationUtils.calculateDistance(kept.lat, kept.lon, location.lat, location.lon)
+                        < DUPLICATE_RADIUS_KM) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                merged.add(location);
+            }
+        }
+    }
+}
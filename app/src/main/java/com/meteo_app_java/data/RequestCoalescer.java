@@ -0,0 +1,145 @@
+package com.meteo_app_java.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of in-flight requests. Concurrent requests for the same key share a
+ * single network call, and every waiting listener receives its result. The call
+ * is cancelled once every waiting listener has cancelled.
+ *
+ * @param <T> Type of the value produced by the request
+ */
+public class RequestCoalescer<T> {
+
+    /**
+     * Receives the result of a request, or null when nothing could be loaded.
+     */
+    public interface Listener<T> {
+        void onComplete(T value);
+    }
+
+    /**
+     * Starts the actual work for a key. Must call the given listener exactly once,
+     * and returns a handle to stop the work, or null if it can't be stopped.
+     */
+    public interface Request<T> {
+        Cancellable start(Listener<T> listener);
+    }
+
+    /**
+     * A running call and the listeners waiting for it.
+     */
+    private static class InFlight<T> {
+        final List<Listener<T>> listeners = new ArrayList<>();
+        Cancellable work;
+        boolean abandoned;
+    }
+
+    private final Map<String, InFlight<T>> inFlight = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong cancellations = new AtomicLong();
+
+    /**
+     * Build a request key from an endpoint and a location key. Location keys name
+     * a geohash cell, so GPS jitter does not defeat sharing.
+     */
+    public static String key(String endpoint, String locationKey) {
+        return endpoint + ":" + locationKey;
+    }
+
+    /**
+     * Join the in-flight request for the key, or start a new one if none is running.
+     *
+     * @param key      Request key
+     * @param request  Work to start when no request is in flight for the key
+     * @param listener Listener notified with the result
+     * @return Handle that stops the listener from being notified, and cancels the
+     *         call if no other listener is waiting for it
+     */
+    public Cancellable execute(String key, Request<T> request, Listener<T> listener) {
+        InFlight<T> call;
+        synchronized (this) {
+            call = inFlight.get(key);
+            if (call != null) {
+                call.listeners.add(listener);
+                hits.incrementAndGet();
+                InFlight<T> joined = call;
+                return () -> leave(key, joined, listener);
+            }
+            call = new InFlight<>();
+            call.listeners.add(listener);
+            inFlight.put(key, call);
+            misses.incrementAndGet();
+        }
+
+        InFlight<T> started = call;
+        Cancellable work = request.start(value -> complete(key, started, value));
+
+        boolean abandoned;
+        synchronized (this) {
+            started.work = work;
+            abandoned = started.abandoned;
+        }
+        // Every listener left while the call was being started
+        if (abandoned && work != null) {
+            work.cancel();
+        }
+        return () -> leave(key, started, listener);
+    }
+
+    private void complete(String key, InFlight<T> call, T value) {
+        List<Listener<T>> listeners;
+        synchronized (this) {
+            // A newer call may already be registered for the key if this one was abandoned
+            inFlight.remove(key, call);
+            listeners = new ArrayList<>(call.listeners);
+            call.listeners.clear();
+        }
+        for (Listener<T> waiting : listeners) {
+            waiting.onComplete(value);
+        }
+    }
+
+    private void leave(String key, InFlight<T> call, Listener<T> listener) {
+        Cancellable work;
+        synchronized (this) {
+            if (!call.listeners.remove(listener) || !call.listeners.isEmpty()) {
+                return;
+            }
+            // Nobody is waiting any more, stop the call and let the next request start a new one
+            inFlight.remove(key, call);
+            call.abandoned = true;
+            work = call.work;
+            cancellations.incrementAndGet();
+        }
+        if (work != null) {
+            work.cancel();
+        }
+    }
+
+    /**
+     * Number of requests that joined a call already in flight.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Number of requests that had to start a new call.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Number of calls cancelled because every listener waiting for them cancelled.
+     */
+    public long getCancelledCount() {
+        return cancellations.get();
+    }
+}
@@ -0,0 +1,68 @@
+package com.meteo_app_java.data;
+
+import com.meteo_app_java.data.remote.RequestPriority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handle on a repository request that may span several network calls (e.g. a
+ * OneCall request followed by its fallback). Cancelling it cancels every call
+ * added so far and any call added later. Its priority is passed to the calls for
+ * the API quota governor.
+ */
+public class RequestHandle implements Cancellable {
+
+    private final RequestPriority priority;
+    private final List<Cancellable> calls = new ArrayList<>();
+    private boolean cancelled;
+
+    public RequestHandle() {
+        this(RequestPriority.USER);
+    }
+
+    public RequestHandle(RequestPriority priority) {
+        this.priority = priority;
+    }
+
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Attach a call to this request. If the request was already cancelled, the
+     * call is cancelled right away.
+     */
+    public void add(Cancellable call) {
+        if (call == null) {
+            return;
+        }
+        synchronized (this) {
+            if (!cancelled) {
+                calls.add(call);
+                return;
+            }
+        }
+        call.cancel();
+    }
+
+    @Override
+    public void cancel() {
+        List<Cancellable> toCancel;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toCancel = new ArrayList<>(calls);
+            calls.clear();
+        }
+        for (Cancellable call : toCancel) {
+            call.cancel();
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
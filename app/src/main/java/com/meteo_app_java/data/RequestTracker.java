@@ -0,0 +1,64 @@
+package com.meteo_app_java.data;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the requests started by a screen, one per slot (e.g. "current",
+ * "hourly"). Starting a request in a slot cancels the previous one, and all
+ * requests are cancelled when the owner is destroyed. Main thread only.
+ */
+public class RequestTracker implements DefaultLifecycleObserver {
+
+    private final Map<String, Cancellable> requests = new HashMap<>();
+
+    public RequestTracker(LifecycleOwner owner) {
+        owner.getLifecycle().addObserver(this);
+    }
+
+    /**
+     * Track a request in a slot, cancelling the request it replaces.
+     *
+     * @return The given request, for chaining
+     */
+    public <R extends Cancellable> R track(String slot, R request) {
+        Cancellable previous = requests.put(slot, request);
+        if (previous != null && previous != request) {
+            previous.cancel();
+        }
+        return request;
+    }
+
+    /**
+     * Cancel the request in a slot, if any.
+     */
+    public void cancel(String slot) {
+        Cancellable request = requests.remove(slot);
+        if (request != null) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Cancel every tracked request.
+     */
+    public void cancelAll() {
+        List<Cancellable> toCancel = new ArrayList<>(requests.values());
+        requests.clear();
+        for (Cancellable request : toCancel) {
+            request.cancel();
+        }
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        cancelAll();
+        owner.getLifecycle().removeObserver(this);
+    }
+}
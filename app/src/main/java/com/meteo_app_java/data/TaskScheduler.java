@@ -0,0 +1,341 @@
+package com.meteo_app_java.data;
+
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import com.meteo_app_java.data.remote.Histogram;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background work split into lanes, so a burst in one kind of work cannot delay
+ * another. Each lane has its own threads, a bounded queue, a rejection policy and
+ * metrics.
+ */
+public class TaskScheduler {
+    private static final String TAG = "TaskScheduler";
+
+    /**
+     * What to do with a task when its lane's queue is full.
+     */
+    public enum RejectionPolicy {
+        // Drop the task that has waited the longest and queue the new one
+        DISCARD_OLDEST,
+        // Run the task on the submitting thread, slowing the producer down. Tasks
+        // submitted from the main thread fall back to DISCARD_OLDEST.
+        CALLER_RUNS,
+        // Never drop a task: the queue grows past its capacity, which only triggers
+        // a warning. For work that must not be lost.
+        GROW
+    }
+
+    /**
+     * Kinds of background work.
+     */
+    public enum Lane {
+        // Reads whose result the user is waiting for, e.g. cache and database fallbacks
+        USER_READ(2, 64, RejectionPolicy.CALLER_RUNS, Process.THREAD_PRIORITY_DEFAULT),
+        // Database writes, serialized on a single writer; user changes must never be lost
+        DB_WRITE(1, 128, RejectionPolicy.GROW, Process.THREAD_PRIORITY_BACKGROUND),
+        // Disk cache writes; only the latest payload per key is written
+        CACHE_WRITE(1, 32, RejectionPolicy.DISCARD_OLDEST, Process.THREAD_PRIORITY_BACKGROUND),
+        // Telemetry, dropped first under load
+        TELEMETRY(1, 64, RejectionPolicy.DISCARD_OLDEST, Process.THREAD_PRIORITY_LOWEST);
+
+        private final int threads;
+        private final int capacity;
+        private final RejectionPolicy rejectionPolicy;
+        private final int threadPriority;
+
+        Lane(int threads, int capacity, RejectionPolicy rejectionPolicy, int threadPriority) {
+            this.threads = threads;
+            this.capacity = capacity;
+            this.rejectionPolicy = rejectionPolicy;
+            this.threadPriority = threadPriority;
+        }
+    }
+
+    /**
+     * Metrics of a lane.
+     */
+    public static class LaneStats {
+        private final ThreadPoolExecutor pool;
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        private final Histogram waitMs = new Histogram(Histogram.LATENCY_BOUNDS_MS);
+
+        LaneStats(ThreadPoolExecutor pool) {
+            this.pool = pool;
+        }
+
+        public int getQueueDepth() {
+            return pool.getQueue().size();
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+
+        public long getSubmittedCount() {
+            return submitted.get();
+        }
+
+        public long getCompletedCount() {
+            return completed.get();
+        }
+
+        /**
+         * Number of tasks dropped or run on the caller because the queue was full, or
+         * queued past the capacity on a growing lane.
+         */
+        public long getRejectedCount() {
+            return rejected.get();
+        }
+
+        /**
+         * Number of keyed tasks replaced by a newer task for the same key before running.
+         */
+        public long getCoalescedCount() {
+            return coalesced.get();
+        }
+
+        /**
+         * Time tasks spent queued before starting, in milliseconds.
+         */
+        public Histogram getWaitMs() {
+            return waitMs;
+        }
+
+        private void recordQueueDepth() {
+            int depth = getQueueDepth();
+            int max;
+            do {
+                max = maxQueueDepth.get();
+            } while (depth > max && !maxQueueDepth.compareAndSet(max, depth));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "depth=%d max=%d submitted=%d completed=%d rejected=%d coalesced=%d wait[%s]",
+                    getQueueDepth(), getMaxQueueDepth(), getSubmittedCount(), getCompletedCount(),
+                    getRejectedCount(), getCoalescedCount(), waitMs);
+        }
+    }
+
+    /**
+     * A queued task, timed from submission.
+     */
+    private class Task implements Runnable {
+        final Lane lane;
+        final long enqueuedAt = System.nanoTime();
+        final Runnable discardHandler;
+        Runnable body;
+
+        Task(Lane lane, Runnable body, Runnable discardHandler) {
+            this.lane = lane;
+            this.body = body;
+            this.discardHandler = discardHandler;
+        }
+
+        @Override
+        public void run() {
+            LaneStats laneStats = stats.get(lane);
+            laneStats.waitMs.record((System.nanoTime() - enqueuedAt) / 1_000_000);
+            try {
+                takeBody().run();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Task failed on lane " + lane, e);
+            } finally {
+                laneStats.completed.incrementAndGet();
+            }
+        }
+
+        Runnable takeBody() {
+            return body;
+        }
+
+        void onDiscarded() {
+            if (discardHandler != null) {
+                discardHandler.run();
+            }
+        }
+    }
+
+    /**
+     * A task that is replaced by newer submissions for the same key until it runs.
+     */
+    private class KeyedTask extends Task {
+        final String key;
+
+        KeyedTask(Lane lane, String key, Runnable body) {
+            super(lane, body, null);
+            this.key = key;
+        }
+
+        @Override
+        Runnable takeBody() {
+            // Later submissions for the key start a new task from here on
+            synchronized (pendingByKey) {
+                pendingByKey.remove(key, this);
+                return body;
+            }
+        }
+
+        @Override
+        void onDiscarded() {
+            synchronized (pendingByKey) {
+                pendingByKey.remove(key, this);
+            }
+            super.onDiscarded();
+        }
+    }
+
+    private static TaskScheduler instance;
+
+    private final Map<Lane, ThreadPoolExecutor> pools = new EnumMap<>(Lane.class);
+    private final Map<Lane, LaneStats> stats = new EnumMap<>(Lane.class);
+    private final Map<String, KeyedTask> pendingByKey = new ConcurrentHashMap<>();
+
+    private TaskScheduler() {
+        for (Lane lane : Lane.values()) {
+            AtomicInteger threadCount = new AtomicInteger();
+            BlockingQueue<Runnable> queue = lane.rejectionPolicy == RejectionPolicy.GROW
+                    ? new LinkedBlockingQueue<>() : new ArrayBlockingQueue<>(lane.capacity);
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(lane.threads, lane.threads,
+                    30, TimeUnit.SECONDS, queue,
+                    runnable -> new Thread(() -> {
+                        Process.setThreadPriority(lane.threadPriority);
+                        runnable.run();
+                    }, "scheduler-" + lane.name().toLowerCase(Locale.US) + "-" + threadCount.incrementAndGet()),
+                    (task, executor) -> reject(lane, task, executor));
+            pool.allowCoreThreadTimeOut(true);
+            pools.put(lane, pool);
+            stats.put(lane, new LaneStats(pool));
+        }
+    }
+
+    public static synchronized TaskScheduler getInstance() {
+        if (instance == null) {
+            instance = new TaskScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Run a task on a lane.
+     */
+    public void execute(Lane lane, Runnable task) {
+        submit(new Task(lane, task, null));
+    }
+
+    /**
+     * Run a task on a lane, or the discard handler instead if the task is dropped
+     * because the lane is full, e.g. to complete the result the task would have
+     * delivered. The handler runs on the thread that caused the drop.
+     *
+     * @param lane           Lane to run on
+     * @param task           The task
+     * @param discardHandler Run if the task is dropped
+     */
+    public void execute(Lane lane, Runnable task, Runnable discardHandler) {
+        submit(new Task(lane, task, discardHandler));
+    }
+
+    /**
+     * Run a task on a lane, replacing any task with the same key that has not
+     * started yet. Use for writes where only the latest payload matters.
+     *
+     * @param lane Lane to run on
+     * @param key  Key identifying what the task writes
+     * @param task The task
+     */
+    public void executeLatest(Lane lane, String key, Runnable task) {
+        String laneKey = lane.name() + ":" + key;
+        synchronized (pendingByKey) {
+            KeyedTask pending = pendingByKey.get(laneKey);
+            if (pending != null) {
+                pending.body = task;
+                stats.get(lane).coalesced.incrementAndGet();
+                return;
+            }
+            KeyedTask keyedTask = new KeyedTask(lane, laneKey, task);
+            pendingByKey.put(laneKey, keyedTask);
+            submit(keyedTask);
+        }
+    }
+
+    /**
+     * Get an executor that submits to a lane, for APIs that take an Executor.
+     */
+    public Executor executor(Lane lane) {
+        return task -> execute(lane, task);
+    }
+
+    /**
+     * Get the metrics of a lane.
+     */
+    public LaneStats getStats(Lane lane) {
+        return stats.get(lane);
+    }
+
+    /**
+     * Human-readable summary of all lanes, one per line.
+     */
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (Lane lane : Lane.values()) {
+            builder.append(lane).append(": ").append(stats.get(lane)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private void submit(Task task) {
+        LaneStats laneStats = stats.get(task.lane);
+        laneStats.submitted.incrementAndGet();
+        pools.get(task.lane).execute(task);
+        laneStats.recordQueueDepth();
+
+        if (task.lane.rejectionPolicy == RejectionPolicy.GROW
+                && laneStats.getQueueDepth() == task.lane.capacity + 1) {
+            laneStats.rejected.incrementAndGet();
+            Log.w(TAG, "Lane " + task.lane + " is over capacity, growing its queue");
+        }
+    }
+
+    private void reject(Lane lane, Runnable task, ThreadPoolExecutor pool) {
+        stats.get(lane).rejected.incrementAndGet();
+        if (pool.isShutdown()) {
+            return;
+        }
+
+        boolean onMainThread = Looper.myLooper() == Looper.getMainLooper();
+        if (lane.rejectionPolicy == RejectionPolicy.CALLER_RUNS && !onMainThread) {
+            Log.w(TAG, "Lane " + lane + " is full, running task on caller");
+            task.run();
+            return;
+        }
+
+        Runnable oldest = pool.getQueue().poll();
+        if (oldest instanceof Task) {
+            ((Task) oldest).onDiscarded();
+        }
+        Log.w(TAG, "Lane " + lane + " is full, dropped oldest task");
+        pool.execute(task);
+    }
+}
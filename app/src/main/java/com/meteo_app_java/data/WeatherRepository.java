@@ -1,43 +1,53 @@
 package com.meteo_app_java.data;
 
 import android.content.Context;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.gson.Gson;
 import com.meteo_app_java.MeteoApplication;
-import com.meteo_app_java.data.local.DailyForecastDao;
-import com.meteo_app_java.data.local.HourlyForecastDao;
+import com.meteo_app_java.data.cache.ForecastDiskCache;
+import com.meteo_app_java.data.cache.ForecastMemoryCache;
+import com.meteo_app_java.data.cache.GeocodingCache;
+import com.meteo_app_java.data.cache.FreshnessPolicy;
+import com.meteo_app_java.data.cache.SnapshotCodec;
+import com.meteo_app_java.data.gazetteer.Gazetteer;
+import com.meteo_app_java.data.local.ForecastDao;
 import com.meteo_app_java.data.local.MeteoDatabase;
 import com.meteo_app_java.data.local.SavedLocationDao;
-import com.meteo_app_java.data.local.WeatherDao;
+import com.meteo_app_java.data.remote.CircuitOpenException;
 import com.meteo_app_java.data.remote.GeoApiService;
+import com.meteo_app_java.data.remote.QuotaExceededException;
+import com.meteo_app_java.data.remote.RequestPriority;
 import com.meteo_app_java.data.remote.WeatherApiClient;
 import com.meteo_app_java.data.remote.WeatherApiService;
 import com.meteo_app_java.data.remote.WeatherApiServiceV3;
-import com.meteo_app_java.data.remote.response.CurrentWeatherResponse;
-import com.meteo_app_java.data.remote.response.DailyForecastResponse;
-import com.meteo_app_java.data.remote.response.HourlyForecastResponse;
 import com.meteo_app_java.data.remote.response.LocationSearchResponse;
+import com.meteo_app_java.data.telemetry.FirestoreTelemetrySink;
+import com.meteo_app_java.data.telemetry.TelemetryPipeline;
+import com.meteo_app_java.data.telemetry.TelemetryQueue;
 import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.ForecastLocation;
 import com.meteo_app_java.models.HourlyForecast;
 import com.meteo_app_java.models.SavedLocation;
 import com.meteo_app_java.models.Weather;
 import com.meteo_app_java.utils.FileUtils;
+import com.meteo_app_java.utils.Geohash;
 import com.meteo_app_java.utils.PreferencesManager;
+import com.meteo_app_java.utils.SpatialIndex;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -45,37 +55,88 @@ import retrofit2.Response;
 
 /**
  * Repository class that manages the data access from different sources.
+ * Network callbacks, caching and storage run on background threads; only the
+ * final results are posted to the returned LiveData.
  */
 public class WeatherRepository {
     private static final String TAG = "WeatherRepository";
 
-    // Cache file names
-    private static final String CURRENT_WEATHER_CACHE = "current_weather_cache.json";
-    private static final String HOURLY_FORECAST_CACHE = "hourly_forecast_cache.json";
-    private static final String DAILY_FORECAST_CACHE = "daily_forecast_cache.json";
+    // Directory of the per-location offline snapshots
+    private static final String DISK_CACHE_DIR = "forecast_cache";
+
+    // Global cache files written by previous versions
+    private static final String[] LEGACY_CACHE_FILES = {
+            "current_weather_cache.json", "hourly_forecast_cache.json", "daily_forecast_cache.json",
+            "current_weather_cache.snap", "hourly_forecast_cache.snap", "daily_forecast_cache.snap"
+    };
+
+    // Telemetry queue file, collection and event type
+    private static final String TELEMETRY_QUEUE_FILE = "telemetry_queue";
+    private static final int TELEMETRY_QUEUE_CAPACITY = 500;
+    private static final String TELEMETRY_COLLECTION = "weather_requests";
+    private static final String TELEMETRY_WEATHER_REQUEST = "weather_request";
+
+    // Number of locations kept in the in-memory cache
+    private static final int MEMORY_CACHE_LOCATIONS = 16;
+
+    // Candidates requested per location search, and searches kept in memory
+    private static final int GEOCODING_RESULT_LIMIT = 5;
+    private static final int GEOCODING_MEMORY_QUERIES = 64;
+
+    // Nearest saved locations checked for one in the cell of an unnamed location
+    private static final int SAVED_LOCATION_NAME_CANDIDATES = 3;
+
+    /**
+     * How a refresh fetches its data.
+     */
+    public enum RefreshMode {
+        // One OneCall v3.0 request for current, hourly and daily data
+        ONE_CALL,
+        // Separate v2.5 weather, v2.5 forecast and v3.0 OneCall requests
+        SEPARATE_CALLS
+    }
 
     private static WeatherRepository instance;
 
     private final WeatherApiService weatherApiService;
     private final WeatherApiServiceV3 weatherApiServiceV3;
     private final GeoApiService geoApiService;
-    private final WeatherDao weatherDao;
-    private final HourlyForecastDao hourlyForecastDao;
-    private final DailyForecastDao dailyForecastDao;
+    private final ForecastDao forecastDao;
     private final SavedLocationDao savedLocationDao;
     private final PreferencesManager preferencesManager;
     private final FirebaseFirestore firestore;
-    private final Executor executor;
+    private final TaskScheduler scheduler;
     private final Context context;
 
+    // In-flight request registries, one per endpoint
+    private final RequestCoalescer<Weather> currentWeatherRequests = new RequestCoalescer<>();
+    private final RequestCoalescer<List<HourlyForecast>> hourlyForecastRequests = new RequestCoalescer<>();
+    private final RequestCoalescer<List<DailyForecast>> dailyForecastRequests = new RequestCoalescer<>();
+    private final RequestCoalescer<ForecastBundle> oneCallRequests = new RequestCoalescer<>();
+
+    private volatile RefreshMode refreshMode = RefreshMode.ONE_CALL;
+    private volatile boolean oneCallUnavailable;
+
+    // In-memory cache of the latest data per location, and when to revalidate it
+    private final ForecastMemoryCache memoryCache = new ForecastMemoryCache(MEMORY_CACHE_LOCATIONS);
+    private final FreshnessPolicy freshnessPolicy = new FreshnessPolicy();
+    private final ForecastDiskCache diskCache;
+    private final WriteBehindBuffer writeBuffer;
+    private final GeocodingCache geocodingCache;
+    private final Gazetteer gazetteer;
+    private final LocationIndex locationIndex;
+    private final TelemetryPipeline telemetry;
+
+    // City name and country per geohash cell, given by callers or found in the database.
+    // OneCall responses have no place name, so they are named from here
+    private final Map<String, String[]> locationNames = new ConcurrentHashMap<>();
+
     private WeatherRepository() {
         weatherApiService = WeatherApiClient.getInstance().getWeatherApiServiceV2_5();
         weatherApiServiceV3 = WeatherApiClient.getInstance().getWeatherApiServiceV3_0();
         geoApiService = WeatherApiClient.getInstance().getGeoApiService();
         MeteoDatabase database = MeteoApplication.getDatabase();
-        weatherDao = database.weatherDao();
-        hourlyForecastDao = database.hourlyForecastDao();
-        dailyForecastDao = database.dailyForecastDao();
+        forecastDao = database.forecastDao();
         savedLocationDao = database.savedLocationDao();
         preferencesManager = MeteoApplication.getPreferencesManager();
 
@@ -87,8 +148,30 @@ public class WeatherRepository {
             Log.w(TAG, "Firebase not available. Firebase features will be disabled.");
         }
 
-        executor = Executors.newFixedThreadPool(3);
+        scheduler = TaskScheduler.getInstance();
         context = MeteoApplication.getAppContext();
+        diskCache = new ForecastDiskCache(new File(context.getFilesDir(), DISK_CACHE_DIR),
+                ForecastDiskCache.DEFAULT_MAX_BYTES);
+        locationIndex = new LocationIndex(savedLocationDao, forecastDao);
+        writeBuffer = new WriteBehindBuffer(database, diskCache, scheduler, locationIndex,
+                WriteBehindBuffer.DEFAULT_WINDOW_MS);
+        geocodingCache = new GeocodingCache(database.geocodingDao(), GEOCODING_MEMORY_QUERIES,
+                GeocodingCache.DEFAULT_HIT_TTL_MS, GeocodingCache.DEFAULT_MISS_TTL_MS);
+        gazetteer = Gazetteer.getInstance(context);
+
+        // Batch request logs instead of one Firestore write per request
+        if (firestore != null) {
+            telemetry = new TelemetryPipeline(
+                    new TelemetryQueue(new File(context.getFilesDir(), TELEMETRY_QUEUE_FILE),
+                            TELEMETRY_QUEUE_CAPACITY),
+                    new FirestoreTelemetrySink(firestore, TELEMETRY_COLLECTION),
+                    scheduler);
+            telemetry.start(TelemetryPipeline.DEFAULT_FLUSH_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        } else {
+            telemetry = null;
+        }
+
+        scheduler.execute(TaskScheduler.Lane.CACHE_WRITE, this::deleteLegacyCacheFiles);
     }
 
     public static synchronized WeatherRepository getInstance() {
@@ -99,256 +182,816 @@ public class WeatherRepository {
     }
 
     /**
-     * Get current weather by coordinates from API.
+     * Get current weather by coordinates, from memory if fresh, otherwise from API.
      */
-    public LiveData<Weather> getCurrentWeatherByCoordinates(double lat, double lon) {
-        MutableLiveData<Weather> result = new MutableLiveData<>();
+    public CancellableLiveData<Weather> getCurrentWeatherByCoordinates(double lat, double lon) {
+        return getCurrentWeatherByCoordinates(lat, lon, false);
+    }
+
+    /**
+     * Get current weather by coordinates. Cached data is delivered immediately; the
+     * same LiveData then receives the network result if the cache was stale, missing
+     * or a refresh was forced, or null if nothing could be loaded. Cancelling the
+     * LiveData cancels the network calls.
+     */
+    public CancellableLiveData<Weather> getCurrentWeatherByCoordinates(double lat, double lon, boolean forceRefresh) {
+        return getCurrentWeatherByCoordinates(lat, lon, forceRefresh, RequestPriority.USER);
+    }
+
+    /**
+     * Get current weather by coordinates on behalf of the given priority, e.g.
+     * BACKGROUND for widget updates, which must not use the quota kept for users.
+     */
+    public CancellableLiveData<Weather> getCurrentWeatherByCoordinates(double lat, double lon,
+            boolean forceRefresh, RequestPriority priority) {
+        CancellableLiveData<Weather> result = new CancellableLiveData<>(priority);
 
         // Get unit preference
         String units = preferencesManager.isUsingMetricUnits() ? "metric" : "imperial";
+        LocationKey key = LocationKey.of(lat, lon, units);
+        String locationKey = key.toString();
+
+        // Serve cached data right away and skip the network while it is fresh
+        ForecastMemoryCache.Entry<Weather> cached = memoryCache.getWeather(locationKey);
+        if (cached != null) {
+            if (!forceRefresh && freshnessPolicy.isFresh(FreshnessPolicy.Endpoint.CURRENT_WEATHER, cached)) {
+                result.completeNow(cached.getValue());
+                return result;
+            }
+            result.setValue(cached.getValue());
+        } else {
+            // Show the offline snapshot (e.g. from a prefetch) while the network loads
+            scheduler.execute(TaskScheduler.Lane.USER_READ, () -> {
+                Weather weather = getWeatherFromCache(lat, lon);
+                if (weather != null) {
+                    result.postIfLoading(weather);
+                }
+            });
+        }
 
-        // Make API call
-        weatherApiService.getCurrentWeatherByCoordinates(lat, lon,
-                WeatherApiClient.getInstance().getApiKey(), units)
-                .enqueue(new Callback<CurrentWeatherResponse>() {
-                    @Override
-                    public void onResponse(Call<CurrentWeatherResponse> call,
-                            Response<CurrentWeatherResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            // Cache response
-                            cacheCurrentWeatherResponse(response.body());
-
-                            // Convert to entity and save to database
-                            Weather weather = convertToWeatherEntity(response.body());
-                            saveWeatherToDatabase(weather);
-
-                            // Log to Firebase if available
-                            if (MeteoApplication.isFirebaseAvailable()) {
-                                logWeatherRequestToFirebase(weather);
-                            }
-
-                            // Update last location in preferences
-                            preferencesManager.saveLastLocation(lat, lon, weather.getCityName());
-
-                            result.setValue(weather);
-                        } else {
-                            Log.e(TAG, "Error fetching current weather: " + response.message());
-                            // Try to get data from cache
-                            Weather cachedWeather = getWeatherFromCache();
-                            if (cachedWeather != null) {
-                                result.setValue(cachedWeather);
-                            }
-                        }
-                    }
+        // Request the cell center, so every point of the cell shares the call and response
+        loadCurrentWeather(key.getLatitude(), key.getLongitude(), units, locationKey,
+                result.getHandle(), result::complete);
+
+        return result;
+    }
+
+    /**
+     * Load current weather from the consolidated OneCall refresh, falling back to
+     * the dedicated v2.5 endpoint when OneCall is disabled or fails.
+     */
+    private void loadCurrentWeather(double lat, double lon, String units, String locationKey,
+            RequestHandle handle, RequestCoalescer.Listener<Weather> listener) {
+        if (!isOneCallEnabled()) {
+            requestCurrentWeather(lat, lon, units, locationKey, handle, listener);
+            return;
+        }
 
-                    @Override
-                    public void onFailure(Call<CurrentWeatherResponse> call, Throwable t) {
-                        Log.e(TAG, "API call failed: " + t.getMessage());
-                        // Try to get data from cache
-                        Weather cachedWeather = getWeatherFromCache();
-                        if (cachedWeather != null) {
-                            result.setValue(cachedWeather);
-                        }
+        loadForecastBundle(lat, lon, units, locationKey, handle, bundle -> {
+            if (bundle != null && bundle.getWeather() != null) {
+                listener.onComplete(bundle.getWeather());
+            } else {
+                requestCurrentWeather(lat, lon, units, locationKey, handle, listener);
+            }
+        });
+    }
+
+    /**
+     * Request current weather from the v2.5 endpoint, sharing the call with any
+     * identical request already in flight.
+     */
+    private void requestCurrentWeather(double lat, double lon, String units, String locationKey,
+            RequestHandle handle, RequestCoalescer.Listener<Weather> listener) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        handle.add(currentWeatherRequests.execute(RequestCoalescer.key("weather", locationKey),
+                request -> fetchCurrentWeather(lat, lon, units, locationKey, handle.getPriority(), request),
+                listener));
+    }
+
+    /**
+     * Fetch current weather from the API, falling back to the cache on failure.
+     */
+    private Cancellable fetchCurrentWeather(double lat, double lon, String units, String locationKey,
+            RequestPriority priority, RequestCoalescer.Listener<Weather> listener) {
+        Call<Weather> call = weatherApiService.getCurrentWeatherByCoordinates(lat, lon,
+                WeatherApiClient.getInstance().getApiKey(), units, priority);
+        call.enqueue(new Callback<Weather>() {
+            @Override
+            public void onResponse(Call<Weather> call, Response<Weather> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    Weather weather = response.body();
+
+                    // Cache response and save to database
+                    cacheCurrentWeatherResponse(locationKey, weather);
+                    saveForecastToDatabase(locationKey, lat, lon, weather, null, null);
+                    memoryCache.putWeather(locationKey, weather);
+
+                    // Log to Firebase if available
+                    if (MeteoApplication.isFirebaseAvailable()) {
+                        logWeatherRequestToFirebase(weather);
                     }
-                });
 
-        return result;
+                    listener.onComplete(weather);
+                } else {
+                    Log.e(TAG, "Error fetching current weather: " + response.message());
+                    // Try to get data from cache
+                    listener.onComplete(getCachedWeather(lat, lon, locationKey));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Weather> call, Throwable t) {
+                if (call.isCanceled()) {
+                    // Nobody is waiting for this call any more, skip the fallback
+                    listener.onComplete(null);
+                    return;
+                }
+                logCallFailure(t);
+                // Try to get data from cache
+                listener.onComplete(getCachedWeather(lat, lon, locationKey));
+            }
+        });
+        return call::cancel;
     }
 
     /**
-     * Get current weather by city name from API.
+     * Get current weather by city name from API. Cancelling the LiveData cancels
+     * the call.
      */
-    public LiveData<Weather> getCurrentWeatherByCity(String cityName) {
-        MutableLiveData<Weather> result = new MutableLiveData<>();
+    public CancellableLiveData<Weather> getCurrentWeatherByCity(String cityName) {
+        CancellableLiveData<Weather> result = new CancellableLiveData<>();
 
         // Get unit preference
         String units = preferencesManager.isUsingMetricUnits() ? "metric" : "imperial";
 
         // Make API call
-        weatherApiService.getCurrentWeatherByCity(cityName,
-                WeatherApiClient.getInstance().getApiKey(), units)
-                .enqueue(new Callback<CurrentWeatherResponse>() {
-                    @Override
-                    public void onResponse(Call<CurrentWeatherResponse> call,
-                            Response<CurrentWeatherResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            // Cache response
-                            cacheCurrentWeatherResponse(response.body());
-
-                            // Convert to entity and save to database
-                            Weather weather = convertToWeatherEntity(response.body());
-                            saveWeatherToDatabase(weather);
-
-                            // Add to saved locations
-                            saveLocation(weather.getCityName(), weather.getCountryCode(),
-                                    weather.getLatitude(), weather.getLongitude());
-
-                            // Log to Firebase if available
-                            if (MeteoApplication.isFirebaseAvailable()) {
-                                logWeatherRequestToFirebase(weather);
-                            }
-
-                            // Update last location in preferences
-                            preferencesManager.saveLastLocation(weather.getLatitude(),
-                                    weather.getLongitude(), weather.getCityName());
-
-                            result.setValue(weather);
-                        } else {
-                            Log.e(TAG, "Error fetching current weather: " + response.message());
-                        }
+        Call<Weather> call = weatherApiService.getCurrentWeatherByCity(cityName,
+                WeatherApiClient.getInstance().getApiKey(), units);
+        result.getHandle().add(call::cancel);
+        call.enqueue(new Callback<Weather>() {
+            @Override
+            public void onResponse(Call<Weather> call, Response<Weather> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    Weather weather = response.body();
+
+                    // Cache response and save to database
+                    String locationKey = LocationKey.of(
+                            weather.getLatitude(), weather.getLongitude(), units).toString();
+                    cacheCurrentWeatherResponse(locationKey, weather);
+                    saveForecastToDatabase(locationKey, weather.getLatitude(),
+                            weather.getLongitude(), weather, null, null);
+
+                    // Add to saved locations
+                    saveLocation(weather.getCityName(), weather.getCountryCode(),
+                            weather.getLatitude(), weather.getLongitude());
+
+                    // Log to Firebase if available
+                    if (MeteoApplication.isFirebaseAvailable()) {
+                        logWeatherRequestToFirebase(weather);
                     }
 
-                    @Override
-                    public void onFailure(Call<CurrentWeatherResponse> call, Throwable t) {
-                        Log.e(TAG, "API call failed: " + t.getMessage());
-                    }
-                });
+                    // Update last location in preferences
+                    preferencesManager.saveLastLocation(weather.getLatitude(),
+                            weather.getLongitude(), weather.getCityName());
+
+                    result.complete(weather);
+                } else {
+                    Log.e(TAG, "Error fetching current weather: " + response.message());
+                    result.complete(null);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Weather> call, Throwable t) {
+                logCallFailure(t);
+                result.complete(null);
+            }
+        });
 
         return result;
     }
 
     /**
-     * Get hourly forecast by coordinates from API.
+     * Get hourly forecast by coordinates, from memory if fresh, otherwise from API.
+     */
+    public CancellableLiveData<List<HourlyForecast>> getHourlyForecast(double lat, double lon) {
+        return getHourlyForecast(lat, lon, false);
+    }
+
+    /**
+     * Get hourly forecast by coordinates, serving cached data first and revalidating
+     * it from the API when stale or when a refresh is forced.
      */
-    public LiveData<List<HourlyForecast>> getHourlyForecast(double lat, double lon) {
-        MutableLiveData<List<HourlyForecast>> result = new MutableLiveData<>();
+    public CancellableLiveData<List<HourlyForecast>> getHourlyForecast(double lat, double lon, boolean forceRefresh) {
+        CancellableLiveData<List<HourlyForecast>> result = new CancellableLiveData<>();
 
         // Get unit preference
         String units = preferencesManager.isUsingMetricUnits() ? "metric" : "imperial";
+        LocationKey key = LocationKey.of(lat, lon, units);
+        String locationKey = key.toString();
+
+        // Serve cached data right away and skip the network while it is fresh
+        ForecastMemoryCache.Entry<List<HourlyForecast>> cached = memoryCache.getHourlyForecasts(locationKey);
+        if (cached != null) {
+            if (!forceRefresh && freshnessPolicy.isFresh(FreshnessPolicy.Endpoint.HOURLY_FORECAST, cached)) {
+                result.completeNow(cached.getValue());
+                return result;
+            }
+            result.setValue(cached.getValue());
+        } else {
+            // Show the offline snapshot (e.g. from a prefetch) while the network loads
+            scheduler.execute(TaskScheduler.Lane.USER_READ, () -> {
+                List<HourlyForecast> forecasts = getHourlyForecastsFromCache(lat, lon);
+                if (!forecasts.isEmpty()) {
+                    result.postIfLoading(forecasts);
+                }
+            });
+        }
 
-        // Make API call
-        weatherApiService.getHourlyForecast(lat, lon,
-                WeatherApiClient.getInstance().getApiKey(), units)
-                .enqueue(new Callback<HourlyForecastResponse>() {
-                    @Override
-                    public void onResponse(Call<HourlyForecastResponse> call,
-                            Response<HourlyForecastResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            // Cache response
-                            cacheHourlyForecastResponse(response.body());
-
-                            // Convert to entities and save to database
-                            List<HourlyForecast> forecasts = convertToHourlyForecastEntities(response.body());
-                            saveHourlyForecastsToDatabase(forecasts);
-
-                            result.setValue(forecasts);
-                        } else {
-                            Log.e(TAG, "Error fetching hourly forecast: " + response.message());
-                            // Try to get data from cache
-                            List<HourlyForecast> cachedForecasts = getHourlyForecastsFromCache();
-                            if (cachedForecasts != null && !cachedForecasts.isEmpty()) {
-                                result.setValue(cachedForecasts);
-                            }
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<HourlyForecastResponse> call, Throwable t) {
-                        Log.e(TAG, "API call failed: " + t.getMessage());
-                        // Try to get data from cache
-                        List<HourlyForecast> cachedForecasts = getHourlyForecastsFromCache();
-                        if (cachedForecasts != null && !cachedForecasts.isEmpty()) {
-                            result.setValue(cachedForecasts);
-                        }
-                    }
-                });
+        // Request the cell center, so every point of the cell shares the call and response
+        loadHourlyForecast(key.getLatitude(), key.getLongitude(), units, locationKey,
+                result.getHandle(), result::complete);
 
         return result;
     }
 
     /**
-     * Get daily forecast by coordinates from API.
+     * Load the hourly forecast from the consolidated OneCall refresh, falling back
+     * to the 3-hour v2.5 forecast when OneCall is disabled or fails.
      */
-    public LiveData<List<DailyForecast>> getDailyForecast(double lat, double lon) {
-        MutableLiveData<List<DailyForecast>> result = new MutableLiveData<>();
+    private void loadHourlyForecast(double lat, double lon, String units, String locationKey,
+            RequestHandle handle, RequestCoalescer.Listener<List<HourlyForecast>> listener) {
+        if (!isOneCallEnabled()) {
+            requestHourlyForecast(lat, lon, units, locationKey, handle, listener);
+            return;
+        }
+
+        loadForecastBundle(lat, lon, units, locationKey, handle, bundle -> {
+            if (bundle != null && !bundle.getHourlyForecasts().isEmpty()) {
+                listener.onComplete(bundle.getHourlyForecasts());
+            } else {
+                requestHourlyForecast(lat, lon, units, locationKey, handle, listener);
+            }
+        });
+    }
+
+    /**
+     * Request the hourly forecast from the v2.5 endpoint, sharing the call with any
+     * identical request already in flight.
+     */
+    private void requestHourlyForecast(double lat, double lon, String units, String locationKey,
+            RequestHandle handle, RequestCoalescer.Listener<List<HourlyForecast>> listener) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        handle.add(hourlyForecastRequests.execute(RequestCoalescer.key("forecast", locationKey),
+                request -> fetchHourlyForecast(lat, lon, units, locationKey, handle.getPriority(), request),
+                listener));
+    }
+
+    /**
+     * Fetch the hourly forecast from the API, falling back to the cache on failure.
+     */
+    private Cancellable fetchHourlyForecast(double lat, double lon, String units, String locationKey,
+            RequestPriority priority, RequestCoalescer.Listener<List<HourlyForecast>> listener) {
+        Call<List<HourlyForecast>> call = weatherApiService.getHourlyForecast(lat, lon,
+                WeatherApiClient.getInstance().getApiKey(), units, priority);
+        call.enqueue(new Callback<List<HourlyForecast>>() {
+            @Override
+            public void onResponse(Call<List<HourlyForecast>> call,
+                    Response<List<HourlyForecast>> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    List<HourlyForecast> forecasts = response.body();
+
+                    // Cache response and save to database
+                    cacheHourlyForecastResponse(locationKey, forecasts);
+                    saveForecastToDatabase(locationKey, lat, lon, null, forecasts, null);
+                    memoryCache.putHourlyForecasts(locationKey, forecasts);
+
+                    listener.onComplete(forecasts);
+                } else {
+                    Log.e(TAG, "Error fetching hourly forecast: " + response.message());
+                    // Try to get data from cache
+                    listener.onComplete(getCachedHourlyForecasts(lat, lon, locationKey));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<List<HourlyForecast>> call, Throwable t) {
+                if (call.isCanceled()) {
+                    // Nobody is waiting for this call any more, skip the fallback
+                    listener.onComplete(null);
+                    return;
+                }
+                logCallFailure(t);
+                // Try to get data from cache
+                listener.onComplete(getCachedHourlyForecasts(lat, lon, locationKey));
+            }
+        });
+        return call::cancel;
+    }
+
+    /**
+     * Get daily forecast by coordinates, from memory if fresh, otherwise from API.
+     */
+    public CancellableLiveData<List<DailyForecast>> getDailyForecast(double lat, double lon) {
+        return getDailyForecast(lat, lon, false);
+    }
+
+    /**
+     * Get daily forecast by coordinates, serving cached data first and revalidating
+     * it from the API when stale or when a refresh is forced.
+     */
+    public CancellableLiveData<List<DailyForecast>> getDailyForecast(double lat, double lon, boolean forceRefresh) {
+        CancellableLiveData<List<DailyForecast>> result = new CancellableLiveData<>();
 
         // Get unit preference
         String units = preferencesManager.isUsingMetricUnits() ? "metric" : "imperial";
+        LocationKey key = LocationKey.of(lat, lon, units);
+        String locationKey = key.toString();
+
+        // Serve cached data right away and skip the network while it is fresh
+        ForecastMemoryCache.Entry<List<DailyForecast>> cached = memoryCache.getDailyForecasts(locationKey);
+        if (cached != null) {
+            if (!forceRefresh && freshnessPolicy.isFresh(FreshnessPolicy.Endpoint.DAILY_FORECAST, cached)) {
+                result.completeNow(cached.getValue());
+                return result;
+            }
+            result.setValue(cached.getValue());
+        } else {
+            // Show the offline snapshot (e.g. from a prefetch) while the network loads
+            scheduler.execute(TaskScheduler.Lane.USER_READ, () -> {
+                List<DailyForecast> forecasts = getDailyForecastsFromCache(lat, lon);
+                if (!forecasts.isEmpty()) {
+                    result.postIfLoading(forecasts);
+                }
+            });
+        }
 
-        // Make API call using v3.0 service
-        weatherApiServiceV3.getDailyForecast(lat, lon,
+        // Request the cell center, so every point of the cell shares the call and response
+        loadDailyForecast(key.getLatitude(), key.getLongitude(), units, locationKey,
+                result.getHandle(), result::complete);
+
+        return result;
+    }
+
+    /**
+     * Load the daily forecast from the consolidated OneCall refresh, or from its own
+     * OneCall request in separate-calls mode.
+     */
+    private void loadDailyForecast(double lat, double lon, String units, String locationKey,
+            RequestHandle handle, RequestCoalescer.Listener<List<DailyForecast>> listener) {
+        if (!isOneCallEnabled()) {
+            handle.add(dailyForecastRequests.execute(RequestCoalescer.key("daily", locationKey),
+                    request -> fetchDailyForecast(lat, lon, units, locationKey, handle.getPriority(), request),
+                    listener));
+            return;
+        }
+
+        loadForecastBundle(lat, lon, units, locationKey, handle, bundle -> {
+            if (bundle != null && !bundle.getDailyForecasts().isEmpty()) {
+                listener.onComplete(bundle.getDailyForecasts());
+            } else if (!handle.isCancelled()) {
+                // The daily forecast only exists on OneCall, so go straight to the cache
+                loadDailyForecastFallback(lat, lon, locationKey, listener);
+            }
+        });
+    }
+
+    /**
+     * Load current weather, hourly and daily forecasts with a single OneCall request,
+     * shared with any identical request already in flight.
+     */
+    private void loadForecastBundle(double lat, double lon, String units, String locationKey,
+            RequestHandle handle, RequestCoalescer.Listener<ForecastBundle> listener) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        handle.add(oneCallRequests.execute(RequestCoalescer.key("onecall", locationKey),
+                request -> fetchForecastBundle(lat, lon, units, locationKey, handle.getPriority(), request),
+                listener));
+    }
+
+    /**
+     * Fetch a OneCall response and derive all three data sets from it. Completes
+     * with null on failure so callers can fall back to the dedicated endpoints.
+     */
+    private Cancellable fetchForecastBundle(double lat, double lon, String units, String locationKey,
+            RequestPriority priority, RequestCoalescer.Listener<ForecastBundle> listener) {
+        Call<ForecastBundle> call = weatherApiServiceV3.getDailyForecast(lat, lon,
                 WeatherApiClient.getInstance().getApiKey(), units,
-                "minutely,alerts")
-                .enqueue(new Callback<DailyForecastResponse>() {
-                    @Override
-                    public void onResponse(Call<DailyForecastResponse> call, Response<DailyForecastResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            // Cache response
-                            cacheDailyForecastResponse(response.body());
-
-                            // Convert to entities and save to database
-                            List<DailyForecast> forecasts = convertToDailyForecastEntities(response.body());
-                            saveDailyForecastsToDatabase(forecasts);
-
-                            result.setValue(forecasts);
-                        } else {
-                            Log.e(TAG, "Error fetching daily forecast: " + response.message());
-                            // Try to get data from cache or database
-                            List<DailyForecast> cachedForecasts = getDailyForecastsFromCache();
-                            if (!cachedForecasts.isEmpty()) {
-                                result.setValue(cachedForecasts);
-                            } else {
-                                // If cache is empty, try to get from database
-                                executor.execute(() -> {
-                                    List<DailyForecast> dbForecasts = dailyForecastDao.getRecentForecasts(10);
-                                    new Handler(Looper.getMainLooper()).post(() -> {
-                                        result.setValue(dbForecasts.isEmpty() ? new ArrayList<>() : dbForecasts);
-                                    });
-                                });
-                            }
-                        }
+                "minutely,alerts", priority);
+        call.enqueue(new Callback<ForecastBundle>() {
+            @Override
+            public void onResponse(Call<ForecastBundle> call, Response<ForecastBundle> response) {
+                if (response.isSuccessful() && response.body() != null
+                        && response.body().getWeather() != null) {
+                    ForecastBundle bundle = response.body();
+                    if (resolveLocationName(bundle.getWeather(), locationKey)) {
+                        onForecastBundle(lat, lon, locationKey, bundle, listener);
+                        return;
                     }
 
-                    @Override
-                    public void onFailure(Call<DailyForecastResponse> call, Throwable t) {
-                        Log.e(TAG, "API call failed: " + t.getMessage());
-                        // Try to get data from cache or database
-                        List<DailyForecast> cachedForecasts = getDailyForecastsFromCache();
-                        if (!cachedForecasts.isEmpty()) {
-                            result.setValue(cachedForecasts);
-                        } else {
-                            // If cache is empty, try to get from database
-                            executor.execute(() -> {
-                                List<DailyForecast> dbForecasts = dailyForecastDao.getRecentForecasts(10);
-                                new Handler(Looper.getMainLooper()).post(() -> {
-                                    result.setValue(dbForecasts.isEmpty() ? new ArrayList<>() : dbForecasts);
-                                });
-                            });
-                        }
+                    // Look the name up in the database, off the main thread; if it is
+                    // not found the name stays unset
+                    scheduler.execute(TaskScheduler.Lane.USER_READ, () -> {
+                        lookUpLocationName(bundle.getWeather(), lat, lon, locationKey);
+                        onForecastBundle(lat, lon, locationKey, bundle, listener);
+                    }, () -> onForecastBundle(lat, lon, locationKey, bundle, listener));
+                } else {
+                    Log.e(TAG, "Error fetching OneCall data: " + response.message());
+                    if (response.code() == 401 || response.code() == 403) {
+                        // No OneCall subscription for this key, stop trying for this session
+                        Log.w(TAG, "OneCall unavailable, using separate requests");
+                        oneCallUnavailable = true;
                     }
-                });
+                    listener.onComplete(null);
+                }
+            }
 
-        return result;
+            @Override
+            public void onFailure(Call<ForecastBundle> call, Throwable t) {
+                if (call.isCanceled()) {
+                    // Nobody is waiting for this call any more, skip the fallback
+                    listener.onComplete(null);
+                    return;
+                }
+                logCallFailure(t);
+                listener.onComplete(null);
+            }
+        });
+        return call::cancel;
     }
 
     /**
-     * Search for a location by name from API.
+     * Store and deliver a OneCall refresh once its location is named.
      */
-    public LiveData<List<LocationSearchResponse.LocationResult>> searchLocationByName(String query) {
-        MutableLiveData<List<LocationSearchResponse.LocationResult>> result = new MutableLiveData<>();
+    private void onForecastBundle(double lat, double lon, String locationKey, ForecastBundle bundle,
+            RequestCoalescer.Listener<ForecastBundle> listener) {
+        // Cache response and save to database
+        cacheDailyForecastResponse(locationKey, bundle);
+        saveForecastToDatabase(locationKey, lat, lon, bundle.getWeather(),
+                bundle.getHourlyForecasts(), bundle.getDailyForecasts());
+
+        memoryCache.putWeather(locationKey, bundle.getWeather());
+        memoryCache.putHourlyForecasts(locationKey, bundle.getHourlyForecasts());
+        memoryCache.putDailyForecasts(locationKey, bundle.getDailyForecasts());
+
+        // Log to Firebase if available
+        if (MeteoApplication.isFirebaseAvailable()) {
+            logWeatherRequestToFirebase(bundle.getWeather());
+        }
 
-        // Make API call using the GeoApiService
-        geoApiService.searchLocationByName(query, 5,
-                WeatherApiClient.getInstance().getApiKey())
-                .enqueue(new Callback<List<LocationSearchResponse.LocationResult>>() {
-                    @Override
-                    public void onResponse(Call<List<LocationSearchResponse.LocationResult>> call,
-                            Response<List<LocationSearchResponse.LocationResult>> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            result.setValue(response.body());
-                        } else {
-                            Log.e(TAG, "Error searching locations: " + response.message());
-                            result.setValue(new ArrayList<>());
-                        }
-                    }
+        listener.onComplete(bundle);
+    }
+
+    /**
+     * Check if refreshes should use the consolidated OneCall request.
+     */
+    private boolean isOneCallEnabled() {
+        return refreshMode == RefreshMode.ONE_CALL && !oneCallUnavailable;
+    }
 
-                    @Override
-                    public void onFailure(Call<List<LocationSearchResponse.LocationResult>> call, Throwable t) {
-                        Log.e(TAG, "API call failed: " + t.getMessage());
-                        result.setValue(new ArrayList<>());
+    /**
+     * Choose between one consolidated OneCall request per refresh and separate
+     * requests per data set. OneCall mode falls back to separate requests on its own
+     * when the API key has no OneCall subscription.
+     */
+    public void setRefreshMode(RefreshMode refreshMode) {
+        this.refreshMode = refreshMode;
+        oneCallUnavailable = false;
+    }
+
+    public RefreshMode getRefreshMode() {
+        return refreshMode;
+    }
+
+    /**
+     * Fetch the daily forecast from the API, falling back to the cache and then
+     * the database on failure.
+     */
+    private Cancellable fetchDailyForecast(double lat, double lon, String units, String locationKey,
+            RequestPriority priority, RequestCoalescer.Listener<List<DailyForecast>> listener) {
+        // Make API call using v3.0 service
+        Call<ForecastBundle> call = weatherApiServiceV3.getDailyForecast(lat, lon,
+                WeatherApiClient.getInstance().getApiKey(), units,
+                "minutely,alerts", priority);
+        call.enqueue(new Callback<ForecastBundle>() {
+            @Override
+            public void onResponse(Call<ForecastBundle> call, Response<ForecastBundle> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    ForecastBundle bundle = response.body();
+                    if (bundle.getWeather() != null) {
+                        resolveLocationName(bundle.getWeather(), locationKey);
                     }
-                });
 
+                    // Cache response and save to database
+                    cacheDailyForecastResponse(locationKey, bundle);
+                    List<DailyForecast> forecasts = bundle.getDailyForecasts();
+                    saveForecastToDatabase(locationKey, lat, lon, null, null, forecasts);
+                    memoryCache.putDailyForecasts(locationKey, forecasts);
+
+                    listener.onComplete(forecasts);
+                } else {
+                    Log.e(TAG, "Error fetching daily forecast: " + response.message());
+                    loadDailyForecastFallback(lat, lon, locationKey, listener);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ForecastBundle> call, Throwable t) {
+                if (call.isCanceled()) {
+                    // Nobody is waiting for this call any more, skip the fallback
+                    listener.onComplete(null);
+                    return;
+                }
+                logCallFailure(t);
+                loadDailyForecastFallback(lat, lon, locationKey, listener);
+            }
+        });
+        return call::cancel;
+    }
+
+    /**
+     * Load daily forecasts from the cache, or from the database if the cache is empty.
+     */
+    private void loadDailyForecastFallback(double lat, double lon, String locationKey,
+            RequestCoalescer.Listener<List<DailyForecast>> listener) {
+        ForecastMemoryCache.Entry<List<DailyForecast>> cached = memoryCache.getDailyForecasts(locationKey);
+        if (cached != null) {
+            listener.onComplete(cached.getValue());
+            return;
+        }
+
+        scheduler.execute(TaskScheduler.Lane.USER_READ, () -> {
+            List<DailyForecast> cachedForecasts = getDailyForecastsFromCache(lat, lon);
+            if (!cachedForecasts.isEmpty()) {
+                listener.onComplete(cachedForecasts);
+                return;
+            }
+
+            // If cache is empty, try to get from database
+            List<DailyForecast> dbForecasts = forecastDao.getDailyForecasts(locationKey);
+            listener.onComplete(dbForecasts.isEmpty() ? new ArrayList<>() : dbForecasts);
+        }, () -> listener.onComplete(new ArrayList<>()));
+    }
+
+    /**
+     * Check if any cached data for a location has outlived its freshness policy.
+     */
+    public boolean needsRefresh(double lat, double lon) {
+        String locationKey = locationKey(lat, lon);
+        return !freshnessPolicy.isFresh(FreshnessPolicy.Endpoint.CURRENT_WEATHER,
+                memoryCache.getWeather(locationKey))
+                || !freshnessPolicy.isFresh(FreshnessPolicy.Endpoint.HOURLY_FORECAST,
+                        memoryCache.getHourlyForecasts(locationKey))
+                || !freshnessPolicy.isFresh(FreshnessPolicy.Endpoint.DAILY_FORECAST,
+                        memoryCache.getDailyForecasts(locationKey));
+    }
+
+    /**
+     * Refresh the data of a location in the background if it is stale, storing it
+     * in the memory cache, the offline snapshots and the database like any refresh.
+     *
+     * @param listener Notified with true once current weather, hourly and daily
+     *                 forecasts are available locally, false if some are missing
+     * @return Handle to cancel the network calls
+     */
+    public Cancellable prefetchForecast(double lat, double lon, RequestCoalescer.Listener<Boolean> listener) {
+        RequestHandle handle = new RequestHandle(RequestPriority.BACKGROUND);
+        if (!needsRefresh(lat, lon)) {
+            listener.onComplete(true);
+            return handle;
+        }
+
+        String units = preferencesManager.isUsingMetricUnits() ? "metric" : "imperial";
+        LocationKey key = LocationKey.of(lat, lon, units);
+        String locationKey = key.toString();
+
+        // In OneCall mode the three loads share a single request
+        AtomicInteger remaining = new AtomicInteger(3);
+        AtomicBoolean complete = new AtomicBoolean(true);
+        RequestCoalescer.Listener<Boolean> done = loaded -> {
+            if (!loaded) {
+                complete.set(false);
+            }
+            if (remaining.decrementAndGet() == 0) {
+                listener.onComplete(complete.get());
+            }
+        };
+        loadCurrentWeather(key.getLatitude(), key.getLongitude(), units, locationKey, handle,
+                weather -> done.onComplete(weather != null));
+        loadHourlyForecast(key.getLatitude(), key.getLongitude(), units, locationKey, handle,
+                forecasts -> done.onComplete(forecasts != null && !forecasts.isEmpty()));
+        loadDailyForecast(key.getLatitude(), key.getLongitude(), units, locationKey, handle,
+                forecasts -> done.onComplete(forecasts != null && !forecasts.isEmpty()));
+        return handle;
+    }
+
+    /**
+     * Write buffered refresh results now, e.g. before a background job ends.
+     */
+    public void flushPendingWrites() {
+        writeBuffer.flushNow();
+    }
+
+    /**
+     * Write buffered refresh results now and wait until they are in the database and
+     * the disk cache, for background jobs whose process may be frozen as soon as they
+     * return. Blocks; must not be called on the main thread.
+     *
+     * @return False if the timeout elapsed first
+     */
+    public boolean flushPendingWritesAndWait(long timeout, TimeUnit unit) throws InterruptedException {
+        return writeBuffer.flushAndWait(timeout, unit);
+    }
+
+    /**
+     * Get the freshness policy, to adjust how long each endpoint's data is served
+     * from memory before being revalidated.
+     */
+    public FreshnessPolicy getFreshnessPolicy() {
+        return freshnessPolicy;
+    }
+
+    /**
+     * Number of requests that were served by joining a call already in flight.
+     */
+    public long getCoalescedRequestCount() {
+        return currentWeatherRequests.getHitCount()
+                + hourlyForecastRequests.getHitCount()
+                + dailyForecastRequests.getHitCount()
+                + oneCallRequests.getHitCount();
+    }
+
+    /**
+     * Number of requests that started their own network call.
+     */
+    public long getNetworkRequestCount() {
+        return currentWeatherRequests.getMissCount()
+                + hourlyForecastRequests.getMissCount()
+                + dailyForecastRequests.getMissCount()
+                + oneCallRequests.getMissCount();
+    }
+
+    /**
+     * Number of network calls cancelled because every request waiting for them was
+     * cancelled.
+     */
+    public long getCancelledRequestCount() {
+        return currentWeatherRequests.getCancelledCount()
+                + hourlyForecastRequests.getCancelledCount()
+                + dailyForecastRequests.getCancelledCount()
+                + oneCallRequests.getCancelledCount();
+    }
+
+    /**
+     * True while API calls are refused because the quota is exhausted, in which
+     * case requests are answered with cached data.
+     */
+    public LiveData<Boolean> getQuotaLimited() {
+        return WeatherApiClient.getInstance().getQuotaGovernor().getQuotaLimited();
+    }
+
+    /**
+     * Search for a location by name. Cities of the offline gazetteer are found
+     * without the network. Otherwise, searches made before, after normalizing case,
+     * accents and whitespace, are answered from the geocoding cache; others go to
+     * the API, and expired cached results are used if it fails. Cancelling the
+     * LiveData cancels the call.
+     */
+    public CancellableLiveData<List<LocationSearchResponse.LocationResult>> searchLocationByName(String query) {
+        CancellableLiveData<List<LocationSearchResponse.LocationResult>> result = new CancellableLiveData<>();
+        String normalizedQuery = GeocodingCache.normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            result.completeNow(new ArrayList<>());
+            return result;
+        }
+
+        // Repeated searches resolve from memory, without a database read
+        GeocodingCache.Entry cached = geocodingCache.getFromMemory(normalizedQuery);
+        if (cached != null) {
+            result.completeNow(cached.getResults());
+            return result;
+        }
+
+        scheduler.execute(TaskScheduler.Lane.USER_READ, () -> {
+            List<LocationSearchResponse.LocationResult> local =
+                    gazetteer.search(query, GEOCODING_RESULT_LIMIT);
+            if (!local.isEmpty()) {
+                result.complete(local);
+                return;
+            }
+
+            GeocodingCache.Entry entry = geocodingCache.get(normalizedQuery);
+            if (entry != null && geocodingCache.isFresh(entry)) {
+                result.complete(entry.getResults());
+            } else if (!result.isCancelled()) {
+                fetchLocations(query.trim(), normalizedQuery, entry, result);
+            }
+        }, () -> result.complete(new ArrayList<>()));
+
+        return result;
+    }
+
+    /**
+     * Search the Geo API and cache the results, including an empty result.
+     *
+     * @param stale Expired cached results to fall back to, or null
+     */
+    private void fetchLocations(String query, String normalizedQuery, GeocodingCache.Entry stale,
+            CancellableLiveData<List<LocationSearchResponse.LocationResult>> result) {
+        // Make API call using the GeoApiService
+        Call<List<LocationSearchResponse.LocationResult>> call = geoApiService.searchLocationByName(query,
+                GEOCODING_RESULT_LIMIT, WeatherApiClient.getInstance().getApiKey());
+        result.getHandle().add(call::cancel);
+        call.enqueue(new Callback<List<LocationSearchResponse.LocationResult>>() {
+            @Override
+            public void onResponse(Call<List<LocationSearchResponse.LocationResult>> call,
+                    Response<List<LocationSearchResponse.LocationResult>> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    List<LocationSearchResponse.LocationResult> locations = response.body();
+                    scheduler.execute(TaskScheduler.Lane.DB_WRITE,
+                            geocodingCache.put(normalizedQuery, locations));
+                    result.complete(locations);
+                } else {
+                    Log.e(TAG, "Error searching locations: " + response.message());
+                    result.complete(stale != null ? stale.getResults() : new ArrayList<>());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<List<LocationSearchResponse.LocationResult>> call, Throwable t) {
+                logCallFailure(t);
+                result.complete(stale != null ? stale.getResults() : new ArrayList<>());
+            }
+        });
+    }
+
+    /**
+     * Get the places known locally, saved locations first, then cached search
+     * results, to index for search suggestions.
+     */
+    public LiveData<List<LocationSearchResponse.LocationResult>> getSuggestionCandidates() {
+        MutableLiveData<List<LocationSearchResponse.LocationResult>> result = new MutableLiveData<>();
+        scheduler.execute(TaskScheduler.Lane.USER_READ, () -> {
+            List<LocationSearchResponse.LocationResult> candidates = new ArrayList<>();
+            for (SavedLocation location : savedLocationDao.loadAllLocations()) {
+                LocationSearchResponse.LocationResult candidate = new LocationSearchResponse.LocationResult();
+                candidate.name = location.getCityName();
+                candidate.country = location.getCountryCode();
+                candidate.lat = location.getLatitude();
+                candidate.lon = location.getLongitude();
+                candidates.add(candidate);
+            }
+            candidates.addAll(geocodingCache.loadAllResults());
+            result.postValue(candidates);
+        }, () -> result.postValue(new ArrayList<>()));
+        return result;
+    }
+
+    /**
+     * Get the stored weather of the nearest location with data in the current
+     * units, within a distance of a position, e.g. to show for a new GPS fix while
+     * its own weather loads. Never uses the network; the LiveData receives null if
+     * no location is close enough.
+     */
+    public LiveData<Weather> getNearestCachedWeather(double lat, double lon, double maxDistanceKm) {
+        MutableLiveData<Weather> result = new MutableLiveData<>();
+        String units = preferencesManager.isUsingMetricUnits() ? "metric" : "imperial";
+        scheduler.execute(TaskScheduler.Lane.USER_READ, () -> {
+            Weather nearest = null;
+            for (SpatialIndex.Hit<ForecastLocation> hit : locationIndex.forecastLocationsWithin(lat, lon,
+                    maxDistanceKm)) {
+                String locationKey = hit.getValue().getLocationKey();
+                if (!locationKey.endsWith(":" + units)) {
+                    continue;
+                }
+                ForecastMemoryCache.Entry<Weather> cached = memoryCache.getWeather(locationKey);
+                nearest = cached != null ? cached.getValue() : forecastDao.getLatestWeather(locationKey);
+                if (nearest != null) {
+                    break;
+                }
+            }
+            result.postValue(nearest);
+        }, () -> result.postValue(null));
+        return result;
+    }
+
+    /**
+     * Get the saved locations nearest to a position, nearest first.
+     */
+    public LiveData<List<SavedLocation>> getNearestSavedLocations(double lat, double lon, int limit) {
+        MutableLiveData<List<SavedLocation>> result = new MutableLiveData<>();
+        scheduler.execute(TaskScheduler.Lane.USER_READ, () -> {
+            List<SavedLocation> locations = new ArrayList<>();
+            for (SpatialIndex.Hit<SavedLocation> hit : locationIndex.nearestSavedLocations(lat, lon, limit)) {
+                locations.add(hit.getValue());
+            }
+            result.postValue(locations);
+        }, () -> result.postValue(new ArrayList<>()));
         return result;
     }
 
@@ -358,7 +1001,7 @@ public class WeatherRepository {
      * Save a location to the database.
      */
     public void saveLocation(String cityName, String countryCode, double latitude, double longitude) {
-        executor.execute(() -> {
+        scheduler.execute(TaskScheduler.Lane.DB_WRITE, () -> {
             SavedLocation location = new SavedLocation();
             location.setCityName(cityName);
             location.setCountryCode(countryCode);
@@ -366,7 +1009,8 @@ public class WeatherRepository {
             location.setLongitude(longitude);
             location.setLastAccessed(new Date());
 
-            savedLocationDao.insert(location);
+            location.setId((int) savedLocationDao.insert(location));
+            locationIndex.putSavedLocation(location);
         });
     }
 
@@ -388,9 +1032,10 @@ public class WeatherRepository {
      * Toggle favorite status for a location.
      */
     public void toggleFavorite(SavedLocation location) {
-        executor.execute(() -> {
+        scheduler.execute(TaskScheduler.Lane.DB_WRITE, () -> {
             location.setFavorite(!location.isFavorite());
             savedLocationDao.update(location);
+            locationIndex.putSavedLocation(location);
         });
     }
 
@@ -398,8 +1043,9 @@ public class WeatherRepository {
      * Delete a location from the database.
      */
     public void deleteLocation(SavedLocation location) {
-        executor.execute(() -> {
+        scheduler.execute(TaskScheduler.Lane.DB_WRITE, () -> {
             savedLocationDao.delete(location);
+            locationIndex.removeSavedLocation(location);
         });
     }
 
@@ -407,264 +1053,259 @@ public class WeatherRepository {
      * Delete all saved locations from the database.
      */
     public void deleteAllLocations() {
-        executor.execute(() -> {
+        scheduler.execute(TaskScheduler.Lane.DB_WRITE, () -> {
             savedLocationDao.deleteAll();
+            locationIndex.clearSavedLocations();
         });
     }
 
     // Conversion methods
 
     /**
-     * Convert API response to Weather entity.
-     */
-    private Weather convertToWeatherEntity(CurrentWeatherResponse response) {
-        Weather weather = new Weather();
-        weather.setCityName(response.name);
-        weather.setCountryCode(response.sys.country);
-        weather.setLatitude(response.coord.lat);
-        weather.setLongitude(response.coord.lon);
-        weather.setTemperature(response.main.temp);
-        weather.setFeelsLike(response.main.feelsLike);
-        weather.setTempMin(response.main.tempMin);
-        weather.setTempMax(response.main.tempMax);
-        weather.setHumidity(response.main.humidity);
-        weather.setPressure(response.main.pressure);
-        weather.setWindSpeed(response.wind.speed);
-        weather.setWindDegree(response.wind.deg);
-
-        if (response.weather != null && !response.weather.isEmpty()) {
-            weather.setWeatherMain(response.weather.get(0).main);
-            weather.setWeatherDescription(response.weather.get(0).description);
-            weather.setWeatherIcon(response.weather.get(0).icon);
+     * Set the name of a location, e.g. the city picked in a search, so weather
+     * from OneCall, which only returns coordinates, is named after it. Applies to
+     * the whole geohash cell of the location.
+     */
+    public void setLocationName(double lat, double lon, String cityName, String countryCode) {
+        if (cityName != null && !cityName.isEmpty()) {
+            locationNames.put(Geohash.encode(lat, lon, LocationKey.getPrecision()),
+                    new String[] { cityName, countryCode });
         }
-
-        weather.setTimestamp(response.dt);
-        weather.setLastUpdated(new Date());
-
-        return weather;
     }
 
     /**
-     * Convert API response to list of HourlyForecast entities.
+     * Fill in the city name and country of weather derived from OneCall from what
+     * is known in memory: the name set for the location, or its cached weather.
+     *
+     * @return False if the name is not known in memory
      */
-    private List<HourlyForecast> convertToHourlyForecastEntities(HourlyForecastResponse response) {
-        List<HourlyForecast> forecasts = new ArrayList<>();
-
-        // Get the location ID (use 1 as default if not available)
-        int locationId = 1;
-
-        // Convert each hourly forecast
-        for (HourlyForecastResponse.HourlyForecast item : response.list) {
-            HourlyForecast forecast = new HourlyForecast();
-            forecast.setLocationId(locationId);
-            forecast.setTimestamp(item.dt);
-            forecast.setTemperature(item.main.temp);
-            forecast.setFeelsLike(item.main.feelsLike);
-            forecast.setHumidity(item.main.humidity);
-            forecast.setPressure(item.main.pressure);
-            forecast.setWindSpeed(item.wind.speed);
-            forecast.setWindDegree(item.wind.deg);
-            forecast.setPop((int) (item.pop * 100)); // Convert to percentage
-
-            if (item.rain != null) {
-                forecast.setRainVolume(item.rain.threeHour);
-            }
-
-            if (item.weather != null && !item.weather.isEmpty()) {
-                forecast.setWeatherMain(item.weather.get(0).main);
-                forecast.setWeatherDescription(item.weather.get(0).description);
-                forecast.setWeatherIcon(item.weather.get(0).icon);
-            }
-
-            forecasts.add(forecast);
+    private boolean resolveLocationName(Weather weather, String locationKey) {
+        String[] name = locationNames.get(geohashOf(locationKey));
+        if (name != null) {
+            weather.setCityName(name[0]);
+            weather.setCountryCode(name[1]);
+            return true;
         }
 
-        return forecasts;
+        ForecastMemoryCache.Entry<Weather> cached = memoryCache.getWeather(locationKey);
+        if (cached != null && cached.getValue().getCityName() != null) {
+            weather.setCityName(cached.getValue().getCityName());
+            weather.setCountryCode(cached.getValue().getCountryCode());
+            return true;
+        }
+        return false;
     }
 
     /**
-     * Convert API response to list of DailyForecast entities.
-     */
-    private List<DailyForecast> convertToDailyForecastEntities(DailyForecastResponse response) {
-        List<DailyForecast> forecasts = new ArrayList<>();
-
-        // Get the location ID (use 1 as default if not available)
-        int locationId = 1;
-
-        // Convert each daily forecast
-        for (DailyForecastResponse.Daily item : response.daily) {
-            DailyForecast forecast = new DailyForecast();
-            forecast.setLocationId(locationId);
-            forecast.setTimestamp(item.dt);
-            forecast.setTempDay(item.temp.day);
-            forecast.setTempNight(item.temp.night);
-            forecast.setTempMin(item.temp.min);
-            forecast.setTempMax(item.temp.max);
-            forecast.setFeelsLikeDay(item.feelsLike.day);
-            forecast.setFeelsLikeNight(item.feelsLike.night);
-            forecast.setHumidity(item.humidity);
-            forecast.setPressure(item.pressure);
-            forecast.setWindSpeed(item.windSpeed);
-            forecast.setWindDegree(item.windDeg);
-            forecast.setPop((int) (item.pop * 100)); // Convert to percentage
-            forecast.setRainVolume(item.rain);
-            forecast.setSunrise(item.sunrise);
-            forecast.setSunset(item.sunset);
-
-            if (item.weather != null && !item.weather.isEmpty()) {
-                forecast.setWeatherMain(item.weather.get(0).main);
-                forecast.setWeatherDescription(item.weather.get(0).description);
-                forecast.setWeatherIcon(item.weather.get(0).icon);
+     * Fill in the city name and country of weather derived from OneCall from the
+     * database: the stored location of the cell, in any units, or a saved location
+     * in the cell. The name is left unset if neither exists. Blocks; must not be
+     * called on the main thread.
+     */
+    private void lookUpLocationName(Weather weather, double lat, double lon, String locationKey) {
+        String geohash = geohashOf(locationKey);
+        String cityName = null;
+        String countryCode = null;
+
+        ForecastLocation stored = forecastDao.getNamedLocationInCell(geohash);
+        if (stored != null) {
+            cityName = stored.getCityName();
+            countryCode = stored.getCountryCode();
+        } else {
+            for (SpatialIndex.Hit<SavedLocation> hit : locationIndex.nearestSavedLocations(lat, lon,
+                    SAVED_LOCATION_NAME_CANDIDATES)) {
+                SavedLocation saved = hit.getValue();
+                if (geohash.equals(Geohash.encode(saved.getLatitude(), saved.getLongitude(),
+                        geohash.length()))) {
+                    cityName = saved.getCityName();
+                    countryCode = saved.getCountryCode();
+                    break;
+                }
             }
+        }
 
-            forecasts.add(forecast);
+        if (cityName != null) {
+            weather.setCityName(cityName);
+            weather.setCountryCode(countryCode);
+            setLocationName(lat, lon, cityName, countryCode);
         }
+    }
 
-        return forecasts;
+    private static String geohashOf(String locationKey) {
+        return locationKey.substring(0, locationKey.indexOf(':'));
     }
 
     // Database save methods
 
     /**
-     * Save weather entity to database.
+     * Save the result of a refresh for a location to the database, replacing the
+     * location's previous forecasts. Null data sets are left untouched. Writes are
+     * buffered briefly so a whole refresh is committed in one transaction.
      */
-    private void saveWeatherToDatabase(Weather weather) {
-        executor.execute(() -> {
-            long id = weatherDao.insert(weather);
-            Log.d(TAG, "Weather saved to database with ID: " + id);
-        });
+    private void saveForecastToDatabase(String locationKey, double lat, double lon, Weather weather,
+            List<HourlyForecast> hourlyForecasts, List<DailyForecast> dailyForecasts) {
+        writeBuffer.saveForecast(locationKey, lat, lon, weather, hourlyForecasts, dailyForecasts);
     }
 
+    // Cache methods
+
     /**
-     * Save hourly forecasts to database.
+     * Cache the current weather response for a location on disk.
      */
-    private void saveHourlyForecastsToDatabase(List<HourlyForecast> forecasts) {
-        executor.execute(() -> {
-            hourlyForecastDao.insertAll(forecasts);
-            Log.d(TAG, "Saved " + forecasts.size() + " hourly forecasts to database");
-        });
+    private void cacheCurrentWeatherResponse(String locationKey, Weather weather) {
+        cacheSnapshot(locationKey, FreshnessPolicy.Endpoint.CURRENT_WEATHER, SnapshotCodec.of(weather));
     }
 
     /**
-     * Save daily forecasts to database.
+     * Cache the hourly forecast response for a location on disk.
      */
-    private void saveDailyForecastsToDatabase(List<DailyForecast> forecasts) {
-        executor.execute(() -> {
-            dailyForecastDao.insertAll(forecasts);
-            Log.d(TAG, "Saved " + forecasts.size() + " daily forecasts to database");
-        });
+    private void cacheHourlyForecastResponse(String locationKey, List<HourlyForecast> forecasts) {
+        cacheSnapshot(locationKey, FreshnessPolicy.Endpoint.HOURLY_FORECAST, SnapshotCodec.ofHourly(forecasts));
     }
 
-    // Cache methods
-
     /**
-     * Cache the current weather response to a file.
+     * Cache the daily forecast response for a location on disk. OneCall bundles
+     * also carry current and hourly data, which the offline fallbacks use too.
      */
-    private void cacheCurrentWeatherResponse(CurrentWeatherResponse response) {
-        executor.execute(() -> {
-            String json = new Gson().toJson(response);
-            boolean success = FileUtils.writeToFile(context, CURRENT_WEATHER_CACHE, json);
-            Log.d(TAG, "Cached current weather to file: " + success);
-        });
+    private void cacheDailyForecastResponse(String locationKey, ForecastBundle bundle) {
+        cacheSnapshot(locationKey, FreshnessPolicy.Endpoint.DAILY_FORECAST, bundle);
     }
 
     /**
-     * Cache the hourly forecast response to a file.
+     * Queue a snapshot write. It is written with the rest of the refresh, and a
+     * newer snapshot for the same location and endpoint replaces one still queued.
      */
-    private void cacheHourlyForecastResponse(HourlyForecastResponse response) {
-        executor.execute(() -> {
-            String json = new Gson().toJson(response);
-            boolean success = FileUtils.writeToFile(context, HOURLY_FORECAST_CACHE, json);
-            Log.d(TAG, "Cached hourly forecast to file: " + success);
-        });
+    private void cacheSnapshot(String locationKey, FreshnessPolicy.Endpoint endpoint, ForecastBundle bundle) {
+        writeBuffer.cacheSnapshot(locationKey, endpoint, bundle);
     }
 
     /**
-     * Cache the daily forecast response to a file.
+     * Set the byte budget of the offline cache. Least recently used locations are
+     * evicted first.
      */
-    private void cacheDailyForecastResponse(DailyForecastResponse response) {
-        executor.execute(() -> {
-            String json = new Gson().toJson(response);
-            boolean success = FileUtils.writeToFile(context, DAILY_FORECAST_CACHE, json);
-            Log.d(TAG, "Cached daily forecast to file: " + success);
-        });
+    public void setDiskCacheMaxBytes(long maxBytes) {
+        scheduler.execute(TaskScheduler.Lane.CACHE_WRITE, () -> diskCache.setMaxBytes(maxBytes));
     }
 
     /**
-     * Get weather from the cache file.
+     * Remove the global cache files of previous versions, which are no longer read.
      */
-    private Weather getWeatherFromCache() {
-        String json = FileUtils.readFromFile(context, CURRENT_WEATHER_CACHE);
-        if (json != null && !json.trim().isEmpty()) {
-            try {
-                CurrentWeatherResponse response = new Gson().fromJson(json, CurrentWeatherResponse.class);
-                if (response != null) {
-                    return convertToWeatherEntity(response);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error parsing weather cache", e);
+    private void deleteLegacyCacheFiles() {
+        for (String fileName : LEGACY_CACHE_FILES) {
+            if (FileUtils.fileExists(context, fileName)) {
+                FileUtils.deleteFile(context, fileName);
             }
         }
-        return null;
     }
 
     /**
-     * Get hourly forecasts from the cache file.
+     * Get the latest cached weather for a location, from memory or disk.
      */
-    private List<HourlyForecast> getHourlyForecastsFromCache() {
-        String json = FileUtils.readFromFile(context, HOURLY_FORECAST_CACHE);
-        if (json != null && !json.trim().isEmpty()) {
-            try {
-                HourlyForecastResponse response = new Gson().fromJson(json, HourlyForecastResponse.class);
-                if (response != null && response.list != null && !response.list.isEmpty()) {
-                    return convertToHourlyForecastEntities(response);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error parsing hourly forecast cache", e);
-            }
+    private Weather getCachedWeather(double lat, double lon, String locationKey) {
+        ForecastMemoryCache.Entry<Weather> cached = memoryCache.getWeather(locationKey);
+        return cached != null ? cached.getValue() : getWeatherFromCache(lat, lon);
+    }
+
+    /**
+     * Get the latest cached hourly forecasts for a location, from memory or disk.
+     */
+    private List<HourlyForecast> getCachedHourlyForecasts(double lat, double lon, String locationKey) {
+        ForecastMemoryCache.Entry<List<HourlyForecast>> cached = memoryCache.getHourlyForecasts(locationKey);
+        return cached != null ? cached.getValue() : getHourlyForecastsFromCache(lat, lon);
+    }
+
+    /**
+     * Get weather for a location from the disk cache, whichever of the current
+     * weather and OneCall snapshots is newer.
+     */
+    private Weather getWeatherFromCache(double lat, double lon) {
+        String locationKey = locationKey(lat, lon);
+        ForecastBundle snapshot = diskCache.get(locationKey, FreshnessPolicy.Endpoint.CURRENT_WEATHER);
+        Weather weather = snapshot != null ? snapshot.getWeather() : null;
+
+        ForecastBundle bundle = diskCache.get(locationKey, FreshnessPolicy.Endpoint.DAILY_FORECAST);
+        if (bundle != null && bundle.getWeather() != null && (weather == null
+                || bundle.getWeather().getTimestamp() > weather.getTimestamp())) {
+            weather = bundle.getWeather();
+        }
+        return weather;
+    }
+
+    /**
+     * Get hourly forecasts for a location from the disk cache, whichever of the
+     * 3-hour forecast and OneCall snapshots is newer.
+     */
+    private List<HourlyForecast> getHourlyForecastsFromCache(double lat, double lon) {
+        String locationKey = locationKey(lat, lon);
+        List<HourlyForecast> forecasts = new ArrayList<>();
+        ForecastBundle snapshot = diskCache.get(locationKey, FreshnessPolicy.Endpoint.HOURLY_FORECAST);
+        if (snapshot != null) {
+            forecasts = new ArrayList<>(snapshot.getHourlyForecasts());
+        }
+
+        ForecastBundle bundle = diskCache.get(locationKey, FreshnessPolicy.Endpoint.DAILY_FORECAST);
+        if (bundle != null && !bundle.getHourlyForecasts().isEmpty() && (forecasts.isEmpty()
+                || bundle.getHourlyForecasts().get(0).getTimestamp() > forecasts.get(0).getTimestamp())) {
+            forecasts = new ArrayList<>(bundle.getHourlyForecasts());
         }
         // Return empty list instead of null
-        return new ArrayList<>();
+        return forecasts;
     }
 
     /**
-     * Get daily forecasts from the cache file.
+     * Get daily forecasts for a location from the disk cache.
      */
-    private List<DailyForecast> getDailyForecastsFromCache() {
-        String json = FileUtils.readFromFile(context, DAILY_FORECAST_CACHE);
-        if (json != null && !json.trim().isEmpty()) {
-            try {
-                DailyForecastResponse response = new Gson().fromJson(json, DailyForecastResponse.class);
-                if (response != null && response.daily != null && !response.daily.isEmpty()) {
-                    return convertToDailyForecastEntities(response);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error parsing daily forecast cache", e);
-            }
+    private List<DailyForecast> getDailyForecastsFromCache(double lat, double lon) {
+        ForecastBundle bundle = diskCache.get(locationKey(lat, lon), FreshnessPolicy.Endpoint.DAILY_FORECAST);
+        if (bundle != null && !bundle.getDailyForecasts().isEmpty()) {
+            return new ArrayList<>(bundle.getDailyForecasts());
         }
         // Return empty list instead of null
         return new ArrayList<>();
     }
 
     /**
-     * Log weather request to Firebase.
+     * Build the cache key of a location for the current unit preference.
      */
-    private void logWeatherRequestToFirebase(Weather weather) {
-        Map<String, Object> log = new HashMap<>();
-        log.put("city", weather.getCityName());
-        log.put("country", weather.getCountryCode());
-        log.put("lat", weather.getLatitude());
-        log.put("lon", weather.getLongitude());
-        log.put("timestamp", new Date());
+    private String locationKey(double lat, double lon) {
+        String units = preferencesManager.isUsingMetricUnits() ? "metric" : "imperial";
+        return LocationKey.of(lat, lon, units).toString();
+    }
 
-        if (firestore != null) {
-            firestore.collection("weather_requests")
-                    .add(log)
-                    .addOnSuccessListener(
-                            documentReference -> Log.d(TAG, "Logged to Firebase: " + documentReference.getId()))
-                    .addOnFailureListener(e -> Log.e(TAG, "Error logging to Firebase", e));
+    /**
+     * Log a failed API call. Calls refused by the quota governor or an open circuit
+     * are expected, and the cache answers them.
+     */
+    private static void logCallFailure(Throwable t) {
+        if (t instanceof QuotaExceededException || t instanceof CircuitOpenException) {
+            Log.w(TAG, "Serving cached data: " + t.getMessage());
         } else {
+            Log.e(TAG, "API call failed: " + t.getMessage());
+        }
+    }
+
+    /**
+     * Log weather request to Firebase, through the sampled telemetry pipeline.
+     */
+    private void logWeatherRequestToFirebase(Weather weather) {
+        if (telemetry == null) {
             Log.w(TAG, "Firebase not available. Weather request not logged to Firebase.");
+            return;
         }
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("city", weather.getCityName());
+        fields.put("country", weather.getCountryCode());
+        fields.put("lat", weather.getLatitude());
+        fields.put("lon", weather.getLongitude());
+        telemetry.record(TELEMETRY_WEATHER_REQUEST, fields);
+    }
+
+    /**
+     * Get the telemetry pipeline, to adjust sampling or flush it, or null when
+     * Firebase is not available.
+     */
+    public TelemetryPipeline getTelemetryPipeline() {
+        return telemetry;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,261 @@
+package com.meteo_app_java.data;
+
+import android.util.Log;
+
+import com.meteo_app_java.data.cache.ForecastDiskCache;
+import com.meteo_app_java.data.cache.FreshnessPolicy;
+import com.meteo_app_java.data.local.ForecastDao;
+import com.meteo_app_java.data.local.MeteoDatabase;
+import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.ForecastLocation;
+import com.meteo_app_java.models.HourlyForecast;
+import com.meteo_app_java.models.Weather;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the results of refreshes for a short window and persists them
+ * together: all database rows in a single Room transaction (one round of
+ * invalidation), then each disk snapshot as the latest write for its file.
+ * Results for the same location within the window are merged, so only the
+ * latest data is written. A snapshot stays queued until it is written, so one
+ * whose cache lane task was dropped is written by the next flush that waits.
+ */
+public class WriteBehindBuffer {
+    private static final String TAG = "WriteBehindBuffer";
+
+    // Default time writes are held to be merged with the rest of the refresh
+    public static final long DEFAULT_WINDOW_MS = 250;
+
+    /**
+     * Everything waiting to be written for one location.
+     */
+    private static class PendingWrite {
+        final String locationKey;
+        double lat;
+        double lon;
+        Weather weather;
+        List<HourlyForecast> hourlyForecasts;
+        List<DailyForecast> dailyForecasts;
+        final Map<FreshnessPolicy.Endpoint, ForecastBundle> snapshots =
+                new EnumMap<>(FreshnessPolicy.Endpoint.class);
+
+        PendingWrite(String locationKey) {
+            this.locationKey = locationKey;
+        }
+
+        boolean hasDatabaseWrite() {
+            return weather != null || hourlyForecasts != null || dailyForecasts != null;
+        }
+    }
+
+    /**
+     * A disk snapshot waiting to be written.
+     */
+    private static class SnapshotWrite {
+        final String locationKey;
+        final FreshnessPolicy.Endpoint endpoint;
+        final ForecastBundle bundle;
+
+        SnapshotWrite(String locationKey, FreshnessPolicy.Endpoint endpoint, ForecastBundle bundle) {
+            this.locationKey = locationKey;
+            this.endpoint = endpoint;
+            this.bundle = bundle;
+        }
+    }
+
+    private final MeteoDatabase database;
+    private final ForecastDao forecastDao;
+    private final ForecastDiskCache diskCache;
+    private final TaskScheduler scheduler;
+    private final LocationIndex locationIndex;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "write-behind-timer"));
+    private final long windowMs;
+
+    private Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    // Latest unwritten snapshot per file, taken by whichever write comes first
+    private final Map<String, SnapshotWrite> queuedSnapshots = new ConcurrentHashMap<>();
+    // Held while taking and writing a snapshot, so an older one never lands last
+    private final Object snapshotLock = new Object();
+
+    public WriteBehindBuffer(MeteoDatabase database, ForecastDiskCache diskCache,
+            TaskScheduler scheduler, LocationIndex locationIndex, long windowMs) {
+        this.database = database;
+        this.forecastDao = database.forecastDao();
+        this.diskCache = diskCache;
+        this.scheduler = scheduler;
+        this.locationIndex = locationIndex;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Queue the result of a refresh for a location. Null data sets leave the
+     * corresponding stored data untouched; non-null ones replace anything queued.
+     */
+    public synchronized void saveForecast(String locationKey, double lat, double lon, Weather weather,
+            List<HourlyForecast> hourlyForecasts, List<DailyForecast> dailyForecasts) {
+        PendingWrite write = pendingFor(locationKey);
+        write.lat = lat;
+        write.lon = lon;
+        if (weather != null) {
+            write.weather = weather;
+        }
+        if (hourlyForecasts != null) {
+            write.hourlyForecasts = hourlyForecasts;
+        }
+        if (dailyForecasts != null) {
+            write.dailyForecasts = dailyForecasts;
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Queue a disk snapshot for a location and endpoint, replacing any queued one.
+     */
+    public synchronized void cacheSnapshot(String locationKey, FreshnessPolicy.Endpoint endpoint,
+            ForecastBundle bundle) {
+        pendingFor(locationKey).snapshots.put(endpoint, bundle);
+        scheduleFlush();
+    }
+
+    /**
+     * Write everything queued now instead of waiting for the window to end.
+     */
+    public void flushNow() {
+        scheduler.execute(TaskScheduler.Lane.DB_WRITE, this::flush);
+    }
+
+    /**
+     * Write everything queued now and wait until it is committed to the database
+     * and every queued snapshot is on disk. Blocks; must not be called on the main
+     * thread.
+     *
+     * @return False if the timeout elapsed first
+     */
+    public boolean flushAndWait(long timeout, TimeUnit unit) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        // The writer lane runs in order, so earlier flushes are done by then too
+        scheduler.execute(TaskScheduler.Lane.DB_WRITE, () -> {
+            try {
+                flush();
+                // Written here rather than waited for, as the cache lane may drop them
+                for (String file : queuedSnapshots.keySet()) {
+                    writeSnapshot(file);
+                }
+            } finally {
+                done.countDown();
+            }
+        });
+        return done.await(timeout, unit);
+    }
+
+    private PendingWrite pendingFor(String locationKey) {
+        PendingWrite write = pending.get(locationKey);
+        if (write == null) {
+            write = new PendingWrite(locationKey);
+            pending.put(locationKey, write);
+        }
+        return write;
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        timer.schedule(this::flushNow, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Take the queued writes and persist them. Runs on the database writer lane.
+     */
+    private void flush() {
+        Map<String, PendingWrite> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int locations = 0;
+        for (PendingWrite write : batch.values()) {
+            if (write.hasDatabaseWrite()) {
+                locations++;
+            }
+        }
+
+        if (locations > 0) {
+            long now = System.currentTimeMillis();
+            List<ForecastLocation> saved = new ArrayList<>(locations);
+            try {
+                database.runInTransaction(() -> {
+                    for (PendingWrite write : batch.values()) {
+                        if (write.hasDatabaseWrite()) {
+                            ForecastLocation location = toLocation(write, now);
+                            forecastDao.replaceForecastForLocation(location, write.weather,
+                                    write.hourlyForecasts, write.dailyForecasts);
+                            saved.add(location);
+                        }
+                    }
+                });
+                Log.d(TAG, "Saved forecasts for " + locations + " locations in one transaction");
+                for (ForecastLocation location : saved) {
+                    locationIndex.putForecastLocation(location);
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error saving forecasts", e);
+            }
+        }
+
+        // Snapshots go to the cache lane, so they don't hold up the writer. One task per
+        // file: a newer snapshot replaces the queued one, and a dropped task leaves its
+        // snapshot queued for the next write of the file
+        for (PendingWrite write : batch.values()) {
+            for (Map.Entry<FreshnessPolicy.Endpoint, ForecastBundle> snapshot : write.snapshots.entrySet()) {
+                String file = write.locationKey + ":" + snapshot.getKey();
+                queuedSnapshots.put(file, new SnapshotWrite(write.locationKey, snapshot.getKey(),
+                        snapshot.getValue()));
+                scheduler.executeLatest(TaskScheduler.Lane.CACHE_WRITE, file, () -> writeSnapshot(file));
+            }
+        }
+    }
+
+    /**
+     * Write the queued snapshot of a file, if it has not been written yet.
+     */
+    private void writeSnapshot(String file) {
+        synchronized (snapshotLock) {
+            SnapshotWrite write = queuedSnapshots.remove(file);
+            if (write != null) {
+                diskCache.put(write.locationKey, write.endpoint, write.bundle);
+            }
+        }
+    }
+
+    private static ForecastLocation toLocation(PendingWrite write, long now) {
+        ForecastLocation location = new ForecastLocation();
+        location.setLocationKey(write.locationKey);
+        location.setLatitude(write.lat);
+        location.setLongitude(write.lon);
+        location.setLastUpdated(now);
+        if (write.weather != null) {
+            location.setCityName(write.weather.getCityName());
+            location.setCountryCode(write.weather.getCountryCode());
+        }
+        return location;
+    }
+}
@@ -0,0 +1,270 @@
+package com.meteo_app_java.data.cache;
+
+import android.util.Log;
+
+import com.meteo_app_java.data.ForecastBundle;
+import com.meteo_app_java.utils.FileUtils;
+import com.meteo_app_java.utils.ThreadUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Offline forecast snapshots, one file per location and endpoint, evicted in
+ * least-recently-used order once the directory exceeds its byte budget.
+ *
+ * <p>An index file records each snapshot's size and last access, so the LRU
+ * order survives restarts. Access times of reads are written with the next
+ * write, or by a read once the index has gone unwritten for a while. All
+ * methods do disk I/O and must not be called on the main thread.
+ */
+public class ForecastDiskCache {
+    private static final String TAG = "ForecastDiskCache";
+
+    private static final String INDEX_FILE = "index";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    // Default byte budget for all snapshots
+    public static final long DEFAULT_MAX_BYTES = 2 * 1024 * 1024; // 2 MB
+
+    // Longest a read's access time waits for the index to be written
+    private static final long INDEX_WRITE_INTERVAL_MS = 60 * 1000;
+
+    /**
+     * Size and last access time of a snapshot file.
+     */
+    private static class IndexEntry {
+        final long size;
+        long lastAccess;
+
+        IndexEntry(long size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final File directory;
+    // Snapshot file names in access order, least recently used first
+    private final LinkedHashMap<String, IndexEntry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes;
+    private long totalBytes;
+    private boolean loaded;
+    private long indexWrittenAt;
+
+    public ForecastDiskCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Write the snapshot of an endpoint for a location, then evict old snapshots
+     * if the budget is exceeded.
+     */
+    public synchronized void put(String locationKey, FreshnessPolicy.Endpoint endpoint,
+            ForecastBundle bundle) {
+        ThreadUtils.assertNotMainThread("Writing forecast snapshot");
+        ensureLoaded();
+
+        String fileName = fileName(locationKey, endpoint);
+        byte[] data;
+        try {
+            data = SnapshotCodec.encode(bundle);
+        } catch (IOException e) {
+            Log.e(TAG, "Error encoding snapshot " + fileName, e);
+            return;
+        }
+        if (!FileUtils.writeAtomically(new File(directory, fileName), data)) {
+            return;
+        }
+
+        IndexEntry previous = index.remove(fileName);
+        if (previous != null) {
+            totalBytes -= previous.size;
+        }
+        index.put(fileName, new IndexEntry(data.length, System.currentTimeMillis()));
+        totalBytes += data.length;
+
+        trimToSize();
+        writeIndex();
+    }
+
+    /**
+     * Read the snapshot of an endpoint for a location.
+     *
+     * @return The cached bundle, or null if there is none or it is unreadable
+     */
+    public synchronized ForecastBundle get(String locationKey, FreshnessPolicy.Endpoint endpoint) {
+        ThreadUtils.assertNotMainThread("Reading forecast snapshot");
+        ensureLoaded();
+
+        String fileName = fileName(locationKey, endpoint);
+        IndexEntry entry = index.get(fileName);
+        if (entry == null) {
+            return null;
+        }
+
+        File file = new File(directory, fileName);
+        ByteBuffer buffer = FileUtils.mapFile(file);
+        if (buffer != null) {
+            try {
+                ForecastBundle bundle = SnapshotCodec.decode(buffer);
+                entry.lastAccess = System.currentTimeMillis();
+                if (entry.lastAccess - indexWrittenAt >= INDEX_WRITE_INTERVAL_MS) {
+                    writeIndex();
+                }
+                return bundle;
+            } catch (IOException e) {
+                Log.e(TAG, "Discarding unreadable snapshot " + fileName, e);
+            }
+        }
+
+        // Missing or corrupt, forget it
+        index.remove(fileName);
+        totalBytes -= entry.size;
+        file.delete();
+        writeIndex();
+        return null;
+    }
+
+    /**
+     * Change the byte budget, evicting snapshots right away if it shrank.
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        ensureLoaded();
+        trimToSize();
+        writeIndex();
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Total size of the cached snapshots, in bytes.
+     */
+    public synchronized long size() {
+        ensureLoaded();
+        return totalBytes;
+    }
+
+    /**
+     * Delete every snapshot.
+     */
+    public synchronized void clear() {
+        ensureLoaded();
+        for (String fileName : index.keySet()) {
+            new File(directory, fileName).delete();
+        }
+        index.clear();
+        totalBytes = 0;
+        writeIndex();
+    }
+
+    /**
+     * Build the snapshot file name for a location and endpoint. The location key
+     * is reduced to characters that are safe in file names.
+     */
+    static String fileName(String locationKey, FreshnessPolicy.Endpoint endpoint) {
+        return locationKey.replaceAll("[^A-Za-z0-9.-]", "_")
+                + "_" + endpoint.name().toLowerCase(Locale.US) + SNAPSHOT_SUFFIX;
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, IndexEntry>> iterator = index.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, IndexEntry> eldest = iterator.next();
+            new File(directory, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue().size;
+            iterator.remove();
+            Log.d(TAG, "Evicted snapshot " + eldest.getKey());
+        }
+    }
+
+    /**
+     * Load the index on first use. Snapshots missing from the index (e.g. after a
+     * crash between writing a snapshot and the index) are added back by their
+     * modification time, and index entries without a file are dropped.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.e(TAG, "Could not create cache directory " + directory);
+            return;
+        }
+
+        Map<String, IndexEntry> stored = readIndex();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SNAPSHOT_SUFFIX));
+        if (files == null) {
+            return;
+        }
+
+        // Rebuild the access order from the recorded access times
+        List<Map.Entry<String, IndexEntry>> entries = new ArrayList<>();
+        for (File file : files) {
+            IndexEntry entry = stored.get(file.getName());
+            long lastAccess = entry != null ? entry.lastAccess : file.lastModified();
+            entries.add(new AbstractMap.SimpleEntry<>(file.getName(),
+                    new IndexEntry(file.length(), lastAccess)));
+        }
+        entries.sort((a, b) -> Long.compare(a.getValue().lastAccess, b.getValue().lastAccess));
+        for (Map.Entry<String, IndexEntry> entry : entries) {
+            index.put(entry.getKey(), entry.getValue());
+            totalBytes += entry.getValue().size;
+        }
+
+        trimToSize();
+    }
+
+    /**
+     * Read the index file: one "name size lastAccess" line per snapshot.
+     */
+    private Map<String, IndexEntry> readIndex() {
+        Map<String, IndexEntry> entries = new LinkedHashMap<>();
+        ByteBuffer buffer = FileUtils.mapFile(new File(directory, INDEX_FILE));
+        if (buffer == null) {
+            return entries;
+        }
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+            String[] parts = line.split(" ");
+            if (parts.length != 3) {
+                continue;
+            }
+            try {
+                entries.put(parts[0], new IndexEntry(Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Skipping malformed index line: " + line);
+            }
+        }
+        return entries;
+    }
+
+    private void writeIndex() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+            builder.append(entry.getKey()).append(' ')
+                    .append(entry.getValue().size).append(' ')
+                    .append(entry.getValue().lastAccess).append('\n');
+        }
+        if (FileUtils.writeAtomically(new File(directory, INDEX_FILE),
+                builder.toString().getBytes(StandardCharsets.UTF_8))) {
+            indexWrittenAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.meteo_app_java.data.cache;
+
+import android.util.LruCache;
+
+import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.HourlyForecast;
+import com.meteo_app_java.models.Weather;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bounded in-memory LRU cache of the latest weather data for each location,
+ * keyed by LocationKey.
+ */
+public class ForecastMemoryCache {
+
+    /**
+     * A cached value along with the time it was stored.
+     */
+    public static class Entry<T> {
+        private final T value;
+        private final long storedAt;
+
+        Entry(T value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getStoredAt() {
+            return storedAt;
+        }
+
+        /**
+         * Age of the entry in milliseconds.
+         */
+        public long getAge() {
+            return System.currentTimeMillis() - storedAt;
+        }
+    }
+
+    /**
+     * Everything cached for a single location.
+     */
+    private static class LocationEntry {
+        Entry<Weather> weather;
+        Entry<List<HourlyForecast>> hourly;
+        Entry<List<DailyForecast>> daily;
+    }
+
+    private final LruCache<String, LocationEntry> entries;
+
+    /**
+     * @param maxLocations Maximum number of locations kept in memory
+     */
+    public ForecastMemoryCache(int maxLocations) {
+        entries = new LruCache<>(maxLocations);
+    }
+
+    public synchronized Entry<Weather> getWeather(String locationKey) {
+        LocationEntry entry = entries.get(locationKey);
+        return entry != null ? entry.weather : null;
+    }
+
+    public synchronized void putWeather(String locationKey, Weather weather) {
+        obtain(locationKey).weather = new Entry<>(weather, System.currentTimeMillis());
+    }
+
+    public synchronized Entry<List<HourlyForecast>> getHourlyForecasts(String locationKey) {
+        LocationEntry entry = entries.get(locationKey);
+        return entry != null ? entry.hourly : null;
+    }
+
+    public synchronized void putHourlyForecasts(String locationKey, List<HourlyForecast> forecasts) {
+        obtain(locationKey).hourly = new Entry<>(Collections.unmodifiableList(forecasts),
+                System.currentTimeMillis());
+    }
+
+    public synchronized Entry<List<DailyForecast>> getDailyForecasts(String locationKey) {
+        LocationEntry entry = entries.get(locationKey);
+        return entry != null ? entry.daily : null;
+    }
+
+    public synchronized void putDailyForecasts(String locationKey, List<DailyForecast> forecasts) {
+        obtain(locationKey).daily = new Entry<>(Collections.unmodifiableList(forecasts),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Remove everything from the cache.
+     */
+    public synchronized void clear() {
+        entries.evictAll();
+    }
+
+    private LocationEntry obtain(String locationKey) {
+        LocationEntry entry = entries.get(locationKey);
+        if (entry == null) {
+            entry = new LocationEntry();
+            entries.put(locationKey, entry);
+        }
+        return entry;
+    }
+}
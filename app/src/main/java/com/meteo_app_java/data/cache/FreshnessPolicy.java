@@ -0,0 +1,58 @@
+package com.meteo_app_java.data.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-endpoint time-to-live for cached weather data. Cached data is always
+ * served, but once it is older than its TTL it gets revalidated from the network.
+ */
+public class FreshnessPolicy {
+
+    /**
+     * Kinds of data the repository caches.
+     */
+    public enum Endpoint {
+        CURRENT_WEATHER,
+        HOURLY_FORECAST,
+        DAILY_FORECAST
+    }
+
+    // OpenWeatherMap refreshes current weather about every 10 minutes
+    private static final long DEFAULT_CURRENT_WEATHER_TTL = TimeUnit.MINUTES.toMillis(10);
+    private static final long DEFAULT_FORECAST_TTL = TimeUnit.MINUTES.toMillis(30);
+
+    private final Map<Endpoint, Long> ttls = new EnumMap<>(Endpoint.class);
+
+    public FreshnessPolicy() {
+        ttls.put(Endpoint.CURRENT_WEATHER, DEFAULT_CURRENT_WEATHER_TTL);
+        ttls.put(Endpoint.HOURLY_FORECAST, DEFAULT_FORECAST_TTL);
+        ttls.put(Endpoint.DAILY_FORECAST, DEFAULT_FORECAST_TTL);
+    }
+
+    /**
+     * Set how long data for an endpoint stays fresh.
+     */
+    public synchronized void setTtl(Endpoint endpoint, long duration, TimeUnit unit) {
+        ttls.put(endpoint, unit.toMillis(duration));
+    }
+
+    /**
+     * Get how long data for an endpoint stays fresh, in milliseconds.
+     */
+    public synchronized long getTtlMillis(Endpoint endpoint) {
+        return ttls.get(endpoint);
+    }
+
+    /**
+     * Check if a cache entry can be served without revalidation.
+     *
+     * @param endpoint The endpoint the entry came from
+     * @param entry    The cache entry, may be null
+     * @return true if the entry exists and is younger than the endpoint's TTL
+     */
+    public boolean isFresh(Endpoint endpoint, ForecastMemoryCache.Entry<?> entry) {
+        return entry != null && entry.getAge() < getTtlMillis(endpoint);
+    }
+}
@@ -0,0 +1,173 @@
+package com.meteo_app_java.data.cache;
+
+import android.util.LruCache;
+
+import com.meteo_app_java.data.local.GeocodingDao;
+import com.meteo_app_java.data.remote.response.LocationSearchResponse;
+import com.meteo_app_java.models.GeocodingQuery;
+import com.meteo_app_java.models.GeocodingResult;
+import com.meteo_app_java.utils.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of geocoding searches, keyed by the normalized query. Results are kept
+ * in Room, with an in-memory LRU in front for repeated searches. Queries with
+ * results live long, since places don't move; queries without results expire
+ * sooner, so places added to the API later are found.
+ */
+public class GeocodingCache {
+
+    // Lifetime of queries with results, and of queries without
+    public static final long DEFAULT_HIT_TTL_MS = TimeUnit.DAYS.toMillis(30);
+    public static final long DEFAULT_MISS_TTL_MS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Results of a cached query along with the time they were fetched.
+     */
+    public static class Entry {
+        private final List<LocationSearchResponse.LocationResult> results;
+        private final long fetchedAt;
+
+        Entry(List<LocationSearchResponse.LocationResult> results, long fetchedAt) {
+            this.results = Collections.unmodifiableList(results);
+            this.fetchedAt = fetchedAt;
+        }
+
+        public List<LocationSearchResponse.LocationResult> getResults() {
+            return results;
+        }
+
+        public long getFetchedAt() {
+            return fetchedAt;
+        }
+    }
+
+    private final GeocodingDao geocodingDao;
+    private final LruCache<String, Entry> memory;
+    private final long hitTtlMs;
+    private final long missTtlMs;
+
+    /**
+     * @param maxMemoryQueries Maximum number of queries kept in memory
+     */
+    public GeocodingCache(GeocodingDao geocodingDao, int maxMemoryQueries, long hitTtlMs, long missTtlMs) {
+        this.geocodingDao = geocodingDao;
+        this.memory = new LruCache<>(maxMemoryQueries);
+        this.hitTtlMs = hitTtlMs;
+        this.missTtlMs = missTtlMs;
+    }
+
+    /**
+     * Key a query is cached under.
+     */
+    public static String normalize(String query) {
+        return TextNormalizer.normalize(query);
+    }
+
+    /**
+     * Get fresh results from memory only. Safe on the main thread.
+     *
+     * @return The entry, or null if it is not in memory or has expired
+     */
+    public Entry getFromMemory(String normalizedQuery) {
+        Entry entry = memory.get(normalizedQuery);
+        return entry != null && isFresh(entry) ? entry : null;
+    }
+
+    /**
+     * Get results from memory or from the database, even if expired. Blocks; must
+     * not be called on the main thread.
+     *
+     * @return The entry, or null if the query was never cached
+     */
+    public Entry get(String normalizedQuery) {
+        Entry entry = memory.get(normalizedQuery);
+        if (entry != null) {
+            return entry;
+        }
+
+        GeocodingQuery query = geocodingDao.getQuery(normalizedQuery);
+        if (query == null) {
+            return null;
+        }
+        List<LocationSearchResponse.LocationResult> results = new ArrayList<>();
+        for (GeocodingResult row : geocodingDao.getResults(normalizedQuery)) {
+            results.add(toLocationResult(row));
+        }
+        entry = new Entry(results, query.getFetchedAt());
+        if (isFresh(entry)) {
+            memory.put(normalizedQuery, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Get every cached result, expired or not, e.g. to suggest known places.
+     * Blocks; must not be called on the main thread.
+     */
+    public List<LocationSearchResponse.LocationResult> loadAllResults() {
+        List<LocationSearchResponse.LocationResult> results = new ArrayList<>();
+        for (GeocodingResult row : geocodingDao.loadAllResults()) {
+            results.add(toLocationResult(row));
+        }
+        return results;
+    }
+
+    /**
+     * Cache the results of a query in memory right away. The returned task writes
+     * them to the database; it blocks and must run off the main thread.
+     */
+    public Runnable put(String normalizedQuery, List<LocationSearchResponse.LocationResult> results) {
+        long now = System.currentTimeMillis();
+        List<LocationSearchResponse.LocationResult> copy = new ArrayList<>(results);
+        memory.put(normalizedQuery, new Entry(copy, now));
+
+        return () -> {
+            GeocodingQuery query = new GeocodingQuery();
+            query.setNormalizedQuery(normalizedQuery);
+            query.setFetchedAt(now);
+            query.setResultCount(copy.size());
+
+            List<GeocodingResult> rows = new ArrayList<>(copy.size());
+            for (int i = 0; i < copy.size(); i++) {
+                rows.add(toRow(normalizedQuery, i, copy.get(i)));
+            }
+            geocodingDao.replaceResults(query, rows);
+        };
+    }
+
+    /**
+     * Check if an entry is within the lifetime of its kind.
+     */
+    public boolean isFresh(Entry entry) {
+        long ttl = entry.getResults().isEmpty() ? missTtlMs : hitTtlMs;
+        return System.currentTimeMillis() - entry.getFetchedAt() < ttl;
+    }
+
+    private static LocationSearchResponse.LocationResult toLocationResult(GeocodingResult row) {
+        LocationSearchResponse.LocationResult result = new LocationSearchResponse.LocationResult();
+        result.name = row.getName();
+        result.country = row.getCountryCode();
+        result.state = row.getState();
+        result.lat = row.getLatitude();
+        result.lon = row.getLongitude();
+        return result;
+    }
+
+    private static GeocodingResult toRow(String normalizedQuery, int position,
+            LocationSearchResponse.LocationResult result) {
+        GeocodingResult row = new GeocodingResult();
+        row.setNormalizedQuery(normalizedQuery);
+        row.setPosition(position);
+        row.setName(result.name);
+        row.setCountryCode(result.country);
+        row.setState(result.state);
+        row.setLatitude(result.lat);
+        row.setLongitude(result.lon);
+        return row;
+    }
+}
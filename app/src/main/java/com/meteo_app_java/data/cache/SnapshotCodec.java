@@ -0,0 +1,340 @@
+package com.meteo_app_java.data.cache;
+
+import com.meteo_app_java.data.ForecastBundle;
+import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.HourlyForecast;
+import com.meteo_app_java.models.Weather;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of the offline forecast snapshots.
+ *
+ * <p>Layout (big-endian):
+ * <pre>
+ * header   magic int, version short, reserved short, payload length int, CRC32 int
+ * payload  string table: count short, then (length short, UTF-8 bytes) per string
+ *          weather: present byte, then a fixed-width record
+ *          hourly: count int, then fixed-width records
+ *          daily: count int, then fixed-width records
+ * </pre>
+ * Text fields (city, country, condition, description, icon) are stored as
+ * indexes into the string table, -1 meaning null. Any change to the layout must
+ * bump {@link #VERSION}; snapshots with another version are rejected.
+ */
+public final class SnapshotCodec {
+
+    // "MTSN"
+    static final int MAGIC = 0x4D54534E;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private SnapshotCodec() {
+    }
+
+    /**
+     * Encode a bundle into a snapshot, header included.
+     */
+    public static byte[] encode(ForecastBundle bundle) throws IOException {
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(records);
+
+        Weather weather = bundle.getWeather();
+        out.writeByte(weather != null ? 1 : 0);
+        if (weather != null) {
+            writeWeather(out, weather, strings);
+        }
+
+        out.writeInt(bundle.getHourlyForecasts().size());
+        for (HourlyForecast forecast : bundle.getHourlyForecasts()) {
+            writeHourlyForecast(out, forecast, strings);
+        }
+
+        out.writeInt(bundle.getDailyForecasts().size());
+        for (DailyForecast forecast : bundle.getDailyForecasts()) {
+            writeDailyForecast(out, forecast, strings);
+        }
+        out.flush();
+
+        // The string table is only complete once every record is written, so it
+        // is serialized separately and placed in front of the records
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(records.size() + 256);
+        DataOutputStream payloadOut = new DataOutputStream(payload);
+        strings.writeTo(payloadOut);
+        records.writeTo(payloadOut);
+        payloadOut.flush();
+        byte[] payloadBytes = payload.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(payloadBytes);
+
+        ByteBuffer snapshot = ByteBuffer.allocate(HEADER_SIZE + payloadBytes.length);
+        snapshot.putInt(MAGIC);
+        snapshot.putShort(VERSION);
+        snapshot.putShort((short) 0);
+        snapshot.putInt(payloadBytes.length);
+        snapshot.putInt((int) crc.getValue());
+        snapshot.put(payloadBytes);
+        return snapshot.array();
+    }
+
+    /**
+     * Decode a snapshot after checking its header and checksum.
+     *
+     * @param buffer Snapshot bytes, positioned at the start of the header
+     * @return The decoded bundle
+     * @throws IOException If the snapshot is truncated, corrupt or of another version
+     */
+    public static ForecastBundle decode(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a forecast snapshot");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            buffer.getShort();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length != buffer.remaining()) {
+                throw new IOException("Truncated snapshot");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            String[] strings = readStringTable(buffer);
+
+            Weather weather = null;
+            if (buffer.get() != 0) {
+                weather = readWeather(buffer, strings);
+            }
+
+            int hourlyCount = buffer.getInt();
+            List<HourlyForecast> hourlyForecasts = new ArrayList<>(hourlyCount);
+            for (int i = 0; i < hourlyCount; i++) {
+                hourlyForecasts.add(readHourlyForecast(buffer, strings));
+            }
+
+            int dailyCount = buffer.getInt();
+            List<DailyForecast> dailyForecasts = new ArrayList<>(dailyCount);
+            for (int i = 0; i < dailyCount; i++) {
+                dailyForecasts.add(readDailyForecast(buffer, strings));
+            }
+
+            return new ForecastBundle(weather, hourlyForecasts, dailyForecasts);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Malformed snapshot", e);
+        }
+    }
+
+    /**
+     * Snapshot holding only a current weather record.
+     */
+    public static ForecastBundle of(Weather weather) {
+        return new ForecastBundle(weather, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Snapshot holding only hourly forecasts.
+     */
+    public static ForecastBundle ofHourly(List<HourlyForecast> forecasts) {
+        return new ForecastBundle(null, forecasts, Collections.emptyList());
+    }
+
+    private static void writeWeather(DataOutputStream out, Weather weather, StringTable strings)
+            throws IOException {
+        out.writeShort(strings.indexOf(weather.getCityName()));
+        out.writeShort(strings.indexOf(weather.getCountryCode()));
+        out.writeDouble(weather.getLatitude());
+        out.writeDouble(weather.getLongitude());
+        out.writeDouble(weather.getTemperature());
+        out.writeDouble(weather.getFeelsLike());
+        out.writeDouble(weather.getTempMin());
+        out.writeDouble(weather.getTempMax());
+        out.writeInt(weather.getHumidity());
+        out.writeInt(weather.getPressure());
+        out.writeDouble(weather.getWindSpeed());
+        out.writeInt(weather.getWindDegree());
+        out.writeShort(strings.indexOf(weather.getWeatherMain()));
+        out.writeShort(strings.indexOf(weather.getWeatherDescription()));
+        out.writeShort(strings.indexOf(weather.getWeatherIcon()));
+        out.writeLong(weather.getTimestamp());
+        out.writeLong(weather.getLastUpdated() != null ? weather.getLastUpdated().getTime() : -1);
+        out.writeByte(weather.isFavorite() ? 1 : 0);
+    }
+
+    private static Weather readWeather(ByteBuffer in, String[] strings) {
+        Weather weather = new Weather();
+        weather.setCityName(string(strings, in.getShort()));
+        weather.setCountryCode(string(strings, in.getShort()));
+        weather.setLatitude(in.getDouble());
+        weather.setLongitude(in.getDouble());
+        weather.setTemperature(in.getDouble());
+        weather.setFeelsLike(in.getDouble());
+        weather.setTempMin(in.getDouble());
+        weather.setTempMax(in.getDouble());
+        weather.setHumidity(in.getInt());
+        weather.setPressure(in.getInt());
+        weather.setWindSpeed(in.getDouble());
+        weather.setWindDegree(in.getInt());
+        weather.setWeatherMain(string(strings, in.getShort()));
+        weather.setWeatherDescription(string(strings, in.getShort()));
+        weather.setWeatherIcon(string(strings, in.getShort()));
+        weather.setTimestamp(in.getLong());
+        long lastUpdated = in.getLong();
+        weather.setLastUpdated(lastUpdated >= 0 ? new Date(lastUpdated) : null);
+        weather.setFavorite(in.get() != 0);
+        return weather;
+    }
+
+    private static void writeHourlyForecast(DataOutputStream out, HourlyForecast forecast,
+            StringTable strings) throws IOException {
+        out.writeInt(forecast.getLocationId());
+        out.writeLong(forecast.getTimestamp());
+        out.writeDouble(forecast.getTemperature());
+        out.writeDouble(forecast.getFeelsLike());
+        out.writeInt(forecast.getHumidity());
+        out.writeInt(forecast.getPressure());
+        out.writeDouble(forecast.getWindSpeed());
+        out.writeInt(forecast.getWindDegree());
+        out.writeShort(strings.indexOf(forecast.getWeatherMain()));
+        out.writeShort(strings.indexOf(forecast.getWeatherDescription()));
+        out.writeShort(strings.indexOf(forecast.getWeatherIcon()));
+        out.writeInt(forecast.getPop());
+        out.writeDouble(forecast.getRainVolume());
+    }
+
+    private static HourlyForecast readHourlyForecast(ByteBuffer in, String[] strings) {
+        HourlyForecast forecast = new HourlyForecast();
+        forecast.setLocationId(in.getInt());
+        forecast.setTimestamp(in.getLong());
+        forecast.setTemperature(in.getDouble());
+        forecast.setFeelsLike(in.getDouble());
+        forecast.setHumidity(in.getInt());
+        forecast.setPressure(in.getInt());
+        forecast.setWindSpeed(in.getDouble());
+        forecast.setWindDegree(in.getInt());
+        forecast.setWeatherMain(string(strings, in.getShort()));
+        forecast.setWeatherDescription(string(strings, in.getShort()));
+        forecast.setWeatherIcon(string(strings, in.getShort()));
+        forecast.setPop(in.getInt());
+        forecast.setRainVolume(in.getDouble());
+        return forecast;
+    }
+
+    private static void writeDailyForecast(DataOutputStream out, DailyForecast forecast,
+            StringTable strings) throws IOException {
+        out.writeInt(forecast.getLocationId());
+        out.writeLong(forecast.getTimestamp());
+        out.writeDouble(forecast.getTempDay());
+        out.writeDouble(forecast.getTempNight());
+        out.writeDouble(forecast.getTempMin());
+        out.writeDouble(forecast.getTempMax());
+        out.writeDouble(forecast.getFeelsLikeDay());
+        out.writeDouble(forecast.getFeelsLikeNight());
+        out.writeInt(forecast.getHumidity());
+        out.writeInt(forecast.getPressure());
+        out.writeDouble(forecast.getWindSpeed());
+        out.writeInt(forecast.getWindDegree());
+        out.writeShort(strings.indexOf(forecast.getWeatherMain()));
+        out.writeShort(strings.indexOf(forecast.getWeatherDescription()));
+        out.writeShort(strings.indexOf(forecast.getWeatherIcon()));
+        out.writeInt(forecast.getPop());
+        out.writeDouble(forecast.getRainVolume());
+        out.writeLong(forecast.getSunrise());
+        out.writeLong(forecast.getSunset());
+    }
+
+    private static DailyForecast readDailyForecast(ByteBuffer in, String[] strings) {
+        DailyForecast forecast = new DailyForecast();
+        forecast.setLocationId(in.getInt());
+        forecast.setTimestamp(in.getLong());
+        forecast.setTempDay(in.getDouble());
+        forecast.setTempNight(in.getDouble());
+        forecast.setTempMin(in.getDouble());
+        forecast.setTempMax(in.getDouble());
+        forecast.setFeelsLikeDay(in.getDouble());
+        forecast.setFeelsLikeNight(in.getDouble());
+        forecast.setHumidity(in.getInt());
+        forecast.setPressure(in.getInt());
+        forecast.setWindSpeed(in.getDouble());
+        forecast.setWindDegree(in.getInt());
+        forecast.setWeatherMain(string(strings, in.getShort()));
+        forecast.setWeatherDescription(string(strings, in.getShort()));
+        forecast.setWeatherIcon(string(strings, in.getShort()));
+        forecast.setPop(in.getInt());
+        forecast.setRainVolume(in.getDouble());
+        forecast.setSunrise(in.getLong());
+        forecast.setSunset(in.getLong());
+        return forecast;
+    }
+
+    private static String[] readStringTable(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[in.getShort() & 0xFFFF];
+            in.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static String string(String[] strings, short index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    /**
+     * Deduplicated strings of a snapshot, in insertion order.
+     */
+    private static class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        int indexOf(String value) throws IOException {
+            if (value == null) {
+                return -1;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                if (strings.size() >= Short.MAX_VALUE) {
+                    throw new IOException("Too many strings in snapshot");
+                }
+                index = strings.size();
+                indexes.put(value, index);
+                strings.add(value);
+            }
+            return index;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeShort(strings.size());
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xFFFF) {
+                    throw new IOException("String of " + bytes.length + " bytes too long for snapshot");
+                }
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+}
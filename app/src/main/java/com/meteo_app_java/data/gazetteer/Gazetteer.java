@@ -0,0 +1,147 @@
+package com.meteo_app_java.data.gazetteer;
+
+import android.content.Context;
+
+import com.meteo_app_java.data.local.FtsQuery;
+import com.meteo_app_java.data.remote.response.LocationSearchResponse;
+import com.meteo_app_java.models.GazetteerCity;
+import com.meteo_app_java.utils.TextNormalizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Offline city search, answering location searches without the Geo API. Only
+ * available when the APK bundles a pre-built gazetteer database or a city list;
+ * otherwise searches find nothing, without opening the database.
+ */
+public class Gazetteer {
+
+    // City list in the assets, loaded when no pre-built database is bundled, if the APK
+    // bundles one (e.g. OpenWeather's city.list.json)
+    public static final String CITY_LIST_ASSET = "city.list.json";
+
+    // Sorts after every character of a normalized name, to bound prefix ranges
+    private static final char MAX_CHAR = '\uffff';
+
+    private static Gazetteer instance;
+
+    private final Context context;
+    private final boolean bundled;
+    // Null when nothing is bundled
+    private final GazetteerDatabase database;
+    private final GazetteerDao gazetteerDao;
+    private volatile boolean complete;
+
+    private Gazetteer(Context context) {
+        this.context = context.getApplicationContext();
+        this.bundled = isBundled(this.context);
+        this.database = bundled ? GazetteerDatabase.getInstance(context) : null;
+        this.gazetteerDao = bundled ? database.gazetteerDao() : null;
+    }
+
+    public static synchronized Gazetteer getInstance(Context context) {
+        if (instance == null) {
+            instance = new Gazetteer(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Check if the APK bundles a pre-built gazetteer database or a city list to load.
+     */
+    public static boolean isBundled(Context context) {
+        return GazetteerDatabase.hasAsset(context, GazetteerDatabase.PREBUILT_ASSET)
+                || hasBundledCityList(context);
+    }
+
+    /**
+     * Check if the APK bundles a city list to load, and no pre-built database.
+     */
+    public static boolean hasBundledCityList(Context context) {
+        return !GazetteerDatabase.hasAsset(context, GazetteerDatabase.PREBUILT_ASSET)
+                && GazetteerDatabase.hasAsset(context, CITY_LIST_ASSET);
+    }
+
+    /**
+     * Search cities whose name starts with the query, exact matches first, then
+     * by population; failing that, cities with words of their name starting with
+     * the words of the query, e.g. "york" for New York. "name, CC" restricts the
+     * search to a country, like the Geo API. Blocks; must not be called on the
+     * main thread.
+     *
+     * @return Matching cities, empty if none, if the gazetteer isn't fully loaded
+     *         or if nothing is bundled
+     */
+    public List<LocationSearchResponse.LocationResult> search(String query, int limit) {
+        List<LocationSearchResponse.LocationResult> results = new ArrayList<>();
+        String name = TextNormalizer.normalize(query);
+        String countryCode = null;
+        int comma = name.indexOf(',');
+        if (comma >= 0) {
+            countryCode = name.substring(comma + 1).trim().toUpperCase(Locale.ROOT);
+            name = name.substring(0, comma).trim();
+        }
+        if (name.isEmpty() || !isComplete()) {
+            return results;
+        }
+
+        if (countryCode != null && countryCode.length() != 2) {
+            countryCode = null;
+        }
+        String upperBound = name + MAX_CHAR;
+        List<GazetteerCity> cities = countryCode != null
+                ? gazetteerDao.findByPrefixInCountry(name, upperBound, countryCode, limit)
+                : gazetteerDao.findByPrefix(name, upperBound, limit);
+        String match = FtsQuery.prefixQuery(name);
+        if (cities.isEmpty() && match != null) {
+            cities = gazetteerDao.findByWords(match, countryCode, limit);
+        }
+        for (GazetteerCity city : cities) {
+            results.add(toLocationResult(city));
+        }
+        return results;
+    }
+
+    /**
+     * Check if the whole city list is loaded. A load that is still running or was
+     * interrupted leaves the gazetteer incomplete, and it isn't searched: partial
+     * results would hide better matches from the Geo API. Blocks until known.
+     */
+    public boolean isComplete() {
+        if (!bundled) {
+            return false;
+        }
+        if (!complete) {
+            complete = gazetteerDao.isIngestComplete();
+        }
+        return complete;
+    }
+
+    /**
+     * Load the bundled city list unless a load already completed, starting over
+     * from an empty gazetteer. Blocks; must not be called on the main thread.
+     *
+     * @return Number of cities loaded, 0 if already loaded or no list is bundled
+     */
+    public int ingestBundledCityList() throws IOException {
+        if (!hasBundledCityList(context) || isComplete()) {
+            return 0;
+        }
+        int count = new GazetteerIngest(database).ingest(context.getAssets().open(CITY_LIST_ASSET));
+        complete = true;
+        return count;
+    }
+
+    private static LocationSearchResponse.LocationResult toLocationResult(GazetteerCity city) {
+        LocationSearchResponse.LocationResult result = new LocationSearchResponse.LocationResult();
+        result.name = city.getName();
+        result.country = city.getCountryCode();
+        result.state = city.getState();
+        result.lat = city.getLatitude();
+        result.lon = city.getLongitude();
+        return result;
+    }
+}
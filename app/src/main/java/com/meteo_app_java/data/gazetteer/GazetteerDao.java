@@ -0,0 +1,46 @@
+package com.meteo_app_java.data.gazetteer;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.meteo_app_java.models.GazetteerCity;
+
+import java.util.List;
+
+/**
+ * Data Access Object for the offline gazetteer. Prefix searches are range scans
+ * of the normalized name index: names from the prefix up to the prefix followed
+ * by the highest character. Exact matches come first, then by population.
+ */
+@Dao
+public interface GazetteerDao {
+
+    @Query("SELECT * FROM city WHERE normalizedName >= :prefix AND normalizedName < :upperBound "
+            + "ORDER BY normalizedName = :prefix DESC, population DESC LIMIT :limit")
+    List<GazetteerCity> findByPrefix(String prefix, String upperBound, int limit);
+
+    @Query("SELECT * FROM city WHERE normalizedName >= :prefix AND normalizedName < :upperBound "
+            + "AND countryCode = :countryCode "
+            + "ORDER BY normalizedName = :prefix DESC, population DESC LIMIT :limit")
+    List<GazetteerCity> findByPrefixInCountry(String prefix, String upperBound, String countryCode, int limit);
+
+    /**
+     * Find cities with a word of their name matching a full-text query, by population.
+     *
+     * @param match       MATCH expression, see FtsQuery.prefixQuery
+     * @param countryCode Country to restrict the search to, or null
+     */
+    @Query("SELECT city.* FROM city INNER JOIN city_fts ON city_fts.rowid = city.id "
+            + "WHERE city_fts MATCH :match AND (:countryCode IS NULL OR city.countryCode = :countryCode) "
+            + "ORDER BY city.population DESC LIMIT :limit")
+    List<GazetteerCity> findByWords(String match, String countryCode, int limit);
+
+    /**
+     * Check if a load of the city list ran to completion.
+     */
+    @Query("SELECT EXISTS(SELECT 1 FROM ingest_state)")
+    boolean isIngestComplete();
+
+    @Query("SELECT COUNT(*) FROM city")
+    int count();
+}
@@ -0,0 +1,67 @@
+package com.meteo_app_java.data.gazetteer;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+import com.meteo_app_java.models.GazetteerCity;
+import com.meteo_app_java.models.GazetteerCityFts;
+import com.meteo_app_java.models.GazetteerIngestState;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Read-mostly Room database of the offline gazetteer, kept apart from the app
+ * database so it can be shipped pre-built and replaced wholesale. When the APK
+ * bundles a pre-built file, it is copied on first open; otherwise the database
+ * starts empty and {@link GazetteerIngest} fills it from the bundled city list.
+ */
+@Database(entities = { GazetteerCity.class, GazetteerCityFts.class, GazetteerIngestState.class },
+        version = 3, exportSchema = false)
+public abstract class GazetteerDatabase extends RoomDatabase {
+    private static final String TAG = "GazetteerDatabase";
+
+    private static final String DATABASE_NAME = "gazetteer";
+
+    // Pre-built database, if the APK bundles one. The build doesn't produce it: it is a
+    // database filled by GazetteerIngest, copied into the assets by hand
+    public static final String PREBUILT_ASSET = "databases/gazetteer.db";
+
+    private static GazetteerDatabase instance;
+
+    /**
+     * Returns the DAO for city lookups.
+     */
+    public abstract GazetteerDao gazetteerDao();
+
+    public static synchronized GazetteerDatabase getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            Builder<GazetteerDatabase> builder = Room.databaseBuilder(appContext,
+                    GazetteerDatabase.class, DATABASE_NAME);
+            if (hasAsset(appContext, PREBUILT_ASSET)) {
+                builder.createFromAsset(PREBUILT_ASSET);
+            }
+            instance = builder
+                    .fallbackToDestructiveMigration()
+                    .build();
+        }
+        return instance;
+    }
+
+    /**
+     * Check if the APK bundles an asset.
+     */
+    static boolean hasAsset(Context context, String path) {
+        try (InputStream ignored = context.getAssets().open(path)) {
+            return true;
+        } catch (IOException e) {
+            Log.d(TAG, "No bundled " + path);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.meteo_app_java.data.gazetteer;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.meteo_app_java.data.local.FtsTables;
+import com.meteo_app_java.models.GazetteerIngestState;
+import com.meteo_app_java.utils.TextNormalizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads an OpenWeatherMap city list ({@code city.list.json}, about 200k entries)
+ * into the gazetteer. The file is streamed, one city at a time, into a compiled
+ * insert statement, committing every batch of rows in one transaction. The name
+ * index and the full-text index triggers are dropped during the load and the
+ * indexes rebuilt once at the end, which is much faster than maintaining them
+ * row by row. It also keeps the full-text index consistent when the list
+ * replaces a city: REPLACE doesn't fire delete triggers.
+ */
+public class GazetteerIngest {
+    private static final String TAG = "GazetteerIngest";
+
+    // Rows committed per transaction
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    // Must match the index Room creates for GazetteerCity
+    private static final String INDEX_NAME = "index_city_normalizedName_population";
+    private static final String CREATE_INDEX_SQL = "CREATE INDEX IF NOT EXISTS `" + INDEX_NAME
+            + "` ON `city` (`normalizedName`, `population`)";
+    // Must match GazetteerCityFts
+    private static final String FTS_TABLE = "city_fts";
+    private static final String[] FTS_COLUMNS = { "name", "countryCode" };
+    private static final String INSERT_SQL = "INSERT OR REPLACE INTO city (id, name, normalizedName, "
+            + "state, countryCode, latitude, longitude, population) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String MARK_COMPLETE_SQL = "INSERT OR REPLACE INTO ingest_state "
+            + "(id, cityCount, completedAt) VALUES (?, ?, ?)";
+
+    private final GazetteerDatabase database;
+    private final int batchSize;
+
+    public GazetteerIngest(GazetteerDatabase database) {
+        this(database, DEFAULT_BATCH_SIZE);
+    }
+
+    public GazetteerIngest(GazetteerDatabase database, int batchSize) {
+        this.database = database;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Load a city list, replacing the whole gazetteer. Blocks; must not be called
+     * on the main thread. The indexes and the completion marker are written in the
+     * last transaction, so a load that fails or is killed part way is never taken
+     * for a complete one; the next load starts over.
+     *
+     * @param in JSON array of cities, closed when done
+     * @return Number of cities loaded
+     */
+    public int ingest(InputStream in) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        db.execSQL("DROP INDEX IF EXISTS `" + INDEX_NAME + "`");
+        FtsTables.dropTriggers(db, FTS_TABLE);
+
+        int count = 0;
+        boolean complete = false;
+        try (JsonReader reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8)));
+                SupportSQLiteStatement insert = db.compileStatement(INSERT_SQL)) {
+            reader.beginArray();
+            db.beginTransaction();
+            try {
+                // Start over, from what a previous load left if it didn't complete
+                db.execSQL("DELETE FROM ingest_state");
+                db.execSQL("DELETE FROM city");
+                while (reader.hasNext()) {
+                    if (!readCity(reader, insert)) {
+                        continue;
+                    }
+                    insert.executeInsert();
+                    count++;
+                    if (count % batchSize == 0) {
+                        db.setTransactionSuccessful();
+                        db.endTransaction();
+                        db.beginTransaction();
+                    }
+                }
+                reader.endArray();
+                restoreIndexes(db);
+                db.execSQL(MARK_COMPLETE_SQL, new Object[] { GazetteerIngestState.ID, count,
+                        System.currentTimeMillis() });
+                db.setTransactionSuccessful();
+                complete = true;
+            } finally {
+                db.endTransaction();
+            }
+        } finally {
+            if (!complete) {
+                // Room expects the index and triggers, even over a partial load
+                restoreIndexes(db);
+            }
+        }
+
+        // Room doesn't see raw writes, let observers of the table know
+        database.getInvalidationTracker().refreshVersionsAsync();
+        Log.d(TAG, "Loaded " + count + " cities in " + (SystemClock.elapsedRealtime() - start) + " ms");
+        return count;
+    }
+
+    private static void restoreIndexes(SupportSQLiteDatabase db) {
+        db.execSQL(CREATE_INDEX_SQL);
+        FtsTables.createTriggers(db, FTS_TABLE, "city", FTS_COLUMNS);
+        FtsTables.rebuild(db, FTS_TABLE);
+    }
+
+    /**
+     * Read one city and bind it to the insert statement.
+     *
+     * @return False if the entry has no id or name and must be skipped
+     */
+    private static boolean readCity(JsonReader reader, SupportSQLiteStatement insert) throws IOException {
+        long id = -1;
+        String name = null;
+        String state = null;
+        String country = null;
+        double lat = 0;
+        double lon = 0;
+        long population = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextLong();
+                    break;
+                case "name":
+                    name = nextStringOrNull(reader);
+                    break;
+                case "state":
+                    state = nextStringOrNull(reader);
+                    break;
+                case "country":
+                    country = nextStringOrNull(reader);
+                    break;
+                case "coord":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if ("lat".equals(field)) {
+                            lat = reader.nextDouble();
+                        } else if ("lon".equals(field)) {
+                            lon = reader.nextDouble();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "population":
+                    population = reader.nextLong();
+                    break;
+                case "stat":
+                    // Extended lists nest the population under "stat"
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if ("population".equals(reader.nextName())) {
+                            population = reader.nextLong();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (id < 0 || name == null || name.isEmpty()) {
+            return false;
+        }
+        insert.clearBindings();
+        insert.bindLong(1, id);
+        insert.bindString(2, name);
+        insert.bindString(3, TextNormalizer.normalize(name));
+        bindStringOrNull(insert, 4, state == null || state.isEmpty() ? null : state);
+        bindStringOrNull(insert, 5, country);
+        insert.bindDouble(6, lat);
+        insert.bindDouble(7, lon);
+        insert.bindLong(8, population);
+        return true;
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static void bindStringOrNull(SupportSQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+}
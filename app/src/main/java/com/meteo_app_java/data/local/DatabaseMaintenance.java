@@ -0,0 +1,226 @@
+package com.meteo_app_java.data.local;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.meteo_app_java.data.cache.GeocodingCache;
+import com.meteo_app_java.models.WeatherAggregate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the database bounded: deletes forecasts that are in the past, downsamples
+ * old weather observations into hourly then daily aggregates, deletes expired
+ * geocoding searches, and vacuums the file when enough pages are free.
+ */
+public class DatabaseMaintenance {
+    private static final String TAG = "DatabaseMaintenance";
+
+    // Default retention of full-resolution weather observations
+    public static final int DEFAULT_RAW_RETENTION_DAYS = 7;
+    // Default retention of hourly aggregates before they are merged into daily ones
+    public static final int DEFAULT_HOURLY_RETENTION_DAYS = 30;
+    // Vacuum when at least this fraction of the pages is free
+    public static final double DEFAULT_VACUUM_FREE_RATIO = 0.2;
+
+    /**
+     * Outcome of a maintenance run.
+     */
+    public static class Report {
+        private final int forecastRowsDeleted;
+        private final int weatherRowsDownsampled;
+        private final int hourlyAggregatesMerged;
+        private final int geocodingQueriesDeleted;
+        private final boolean vacuumed;
+        private final long bytesReclaimed;
+
+        Report(int forecastRowsDeleted, int weatherRowsDownsampled, int hourlyAggregatesMerged,
+                int geocodingQueriesDeleted, boolean vacuumed, long bytesReclaimed) {
+            this.forecastRowsDeleted = forecastRowsDeleted;
+            this.weatherRowsDownsampled = weatherRowsDownsampled;
+            this.hourlyAggregatesMerged = hourlyAggregatesMerged;
+            this.geocodingQueriesDeleted = geocodingQueriesDeleted;
+            this.vacuumed = vacuumed;
+            this.bytesReclaimed = bytesReclaimed;
+        }
+
+        public int getForecastRowsDeleted() {
+            return forecastRowsDeleted;
+        }
+
+        public int getWeatherRowsDownsampled() {
+            return weatherRowsDownsampled;
+        }
+
+        public int getHourlyAggregatesMerged() {
+            return hourlyAggregatesMerged;
+        }
+
+        public int getGeocodingQueriesDeleted() {
+            return geocodingQueriesDeleted;
+        }
+
+        public boolean isVacuumed() {
+            return vacuumed;
+        }
+
+        public long getBytesReclaimed() {
+            return bytesReclaimed;
+        }
+
+        @Override
+        public String toString() {
+            return "forecasts deleted=" + forecastRowsDeleted
+                    + ", weather downsampled=" + weatherRowsDownsampled
+                    + ", hourly merged=" + hourlyAggregatesMerged
+                    + ", geocoding deleted=" + geocodingQueriesDeleted
+                    + ", vacuumed=" + vacuumed
+                    + ", bytes reclaimed=" + bytesReclaimed;
+        }
+    }
+
+    private final MeteoDatabase database;
+    private int rawRetentionDays = DEFAULT_RAW_RETENTION_DAYS;
+    private int hourlyRetentionDays = DEFAULT_HOURLY_RETENTION_DAYS;
+    private double vacuumFreeRatio = DEFAULT_VACUUM_FREE_RATIO;
+
+    public DatabaseMaintenance(MeteoDatabase database) {
+        this.database = database;
+    }
+
+    public void setRawRetentionDays(int rawRetentionDays) {
+        this.rawRetentionDays = rawRetentionDays;
+    }
+
+    public void setHourlyRetentionDays(int hourlyRetentionDays) {
+        this.hourlyRetentionDays = hourlyRetentionDays;
+    }
+
+    public void setVacuumFreeRatio(double vacuumFreeRatio) {
+        this.vacuumFreeRatio = vacuumFreeRatio;
+    }
+
+    /**
+     * Run all maintenance steps. Blocks; must not be called on the main thread.
+     */
+    public Report run() {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        int[] counts = new int[4];
+        database.runInTransaction(() -> {
+            counts[0] = deleteExpiredForecasts(db, now);
+            counts[1] = downsampleWeather(db, now);
+            counts[2] = mergeHourlyAggregates(db, now);
+            counts[3] = deleteExpiredGeocoding();
+        });
+
+        long reclaimed = -1;
+        boolean vacuumed = false;
+        if (freeRatio(db) >= vacuumFreeRatio) {
+            long sizeBefore = databaseSize(db);
+            // VACUUM cannot run inside a transaction
+            db.execSQL("VACUUM");
+            reclaimed = sizeBefore - databaseSize(db);
+            vacuumed = true;
+        }
+
+        Report report = new Report(counts[0], counts[1], counts[2], counts[3], vacuumed,
+                Math.max(reclaimed, 0));
+        Log.d(TAG, "Maintenance done: " + report);
+        return report;
+    }
+
+    /**
+     * Delete hourly forecasts for hours that have passed and daily forecasts for
+     * days that have passed. Refreshes replace them anyway, but locations that are
+     * no longer viewed would keep them forever.
+     */
+    private int deleteExpiredForecasts(SupportSQLiteDatabase db, long now) {
+        int deleted = db.delete("hourly_forecast", "timestamp < ?",
+                new Object[] { now - WeatherAggregate.RESOLUTION_HOURLY });
+        deleted += db.delete("daily_forecast", "timestamp < ?",
+                new Object[] { now - WeatherAggregate.RESOLUTION_DAILY });
+        return deleted;
+    }
+
+    /**
+     * Fold observations older than the raw retention into hourly aggregates and
+     * delete them. The cutoff is aligned to an hour so buckets are always complete.
+     */
+    private int downsampleWeather(SupportSQLiteDatabase db, long now) {
+        long cutoff = alignDown(now - TimeUnit.DAYS.toSeconds(rawRetentionDays),
+                WeatherAggregate.RESOLUTION_HOURLY);
+
+        db.execSQL("INSERT OR REPLACE INTO weather_aggregate (locationId, resolution, bucketStart, "
+                + "sampleCount, temperatureAvg, temperatureMin, temperatureMax, humidityAvg, "
+                + "pressureAvg, windSpeedAvg) "
+                + "SELECT locationId, ?, (timestamp / ?) * ?, COUNT(*), AVG(temperature), "
+                + "MIN(temperature), MAX(temperature), AVG(humidity), AVG(pressure), AVG(windSpeed) "
+                + "FROM weather WHERE timestamp < ? GROUP BY locationId, timestamp / ?",
+                new Object[] { WeatherAggregate.RESOLUTION_HOURLY, WeatherAggregate.RESOLUTION_HOURLY,
+                        WeatherAggregate.RESOLUTION_HOURLY, cutoff, WeatherAggregate.RESOLUTION_HOURLY });
+        return db.delete("weather", "timestamp < ?", new Object[] { cutoff });
+    }
+
+    /**
+     * Merge hourly aggregates older than the hourly retention into daily ones,
+     * weighting each hour by its number of samples.
+     */
+    private int mergeHourlyAggregates(SupportSQLiteDatabase db, long now) {
+        long cutoff = alignDown(now - TimeUnit.DAYS.toSeconds(hourlyRetentionDays),
+                WeatherAggregate.RESOLUTION_DAILY);
+
+        db.execSQL("INSERT OR REPLACE INTO weather_aggregate (locationId, resolution, bucketStart, "
+                + "sampleCount, temperatureAvg, temperatureMin, temperatureMax, humidityAvg, "
+                + "pressureAvg, windSpeedAvg) "
+                + "SELECT locationId, ?, (bucketStart / ?) * ?, SUM(sampleCount), "
+                + "SUM(temperatureAvg * sampleCount) / SUM(sampleCount), MIN(temperatureMin), "
+                + "MAX(temperatureMax), SUM(humidityAvg * sampleCount) / SUM(sampleCount), "
+                + "SUM(pressureAvg * sampleCount) / SUM(sampleCount), "
+                + "SUM(windSpeedAvg * sampleCount) / SUM(sampleCount) "
+                + "FROM weather_aggregate WHERE resolution = ? AND bucketStart < ? "
+                + "GROUP BY locationId, bucketStart / ?",
+                new Object[] { WeatherAggregate.RESOLUTION_DAILY, WeatherAggregate.RESOLUTION_DAILY,
+                        WeatherAggregate.RESOLUTION_DAILY, WeatherAggregate.RESOLUTION_HOURLY, cutoff,
+                        WeatherAggregate.RESOLUTION_DAILY });
+        return db.delete("weather_aggregate", "resolution = ? AND bucketStart < ?",
+                new Object[] { WeatherAggregate.RESOLUTION_HOURLY, cutoff });
+    }
+
+    /**
+     * Delete geocoding searches past their lifetime; their results go with them.
+     */
+    private int deleteExpiredGeocoding() {
+        long nowMs = System.currentTimeMillis();
+        return database.geocodingDao().deleteExpired(nowMs - GeocodingCache.DEFAULT_HIT_TTL_MS,
+                nowMs - GeocodingCache.DEFAULT_MISS_TTL_MS);
+    }
+
+    private static long alignDown(long time, long bucket) {
+        return (time / bucket) * bucket;
+    }
+
+    /**
+     * Fraction of the database pages that are on the free list.
+     */
+    private static double freeRatio(SupportSQLiteDatabase db) {
+        long pageCount = pragma(db, "page_count");
+        return pageCount == 0 ? 0 : (double) pragma(db, "freelist_count") / pageCount;
+    }
+
+    /**
+     * Size of the database file, in bytes.
+     */
+    private static long databaseSize(SupportSQLiteDatabase db) {
+        return pragma(db, "page_count") * pragma(db, "page_size");
+    }
+
+    private static long pragma(SupportSQLiteDatabase db, String name) {
+        try (Cursor cursor = db.query("PRAGMA " + name)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.meteo_app_java.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+
+import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.ForecastLocation;
+import com.meteo_app_java.models.HourlyForecast;
+import com.meteo_app_java.models.Weather;
+
+import java.util.List;
+
+/**
+ * Data Access Object for storing weather and forecasts per location. Each
+ * refresh replaces the location's rows, so storage stays constant per location.
+ */
+@Dao
+public abstract class ForecastDao {
+
+    // Never REPLACE a location: that deletes the row and cascades to its forecasts
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    abstract long insertLocation(ForecastLocation location);
+
+    @Update
+    abstract void updateLocation(ForecastLocation location);
+
+    @Query("SELECT * FROM forecast_location WHERE locationKey = :locationKey LIMIT 1")
+    public abstract ForecastLocation getLocationByKey(String locationKey);
+
+    /**
+     * Find a stored location with a name in a geohash cell, in any units. Keys are
+     * the geohash followed by ':' and the units, so this is a range of the key index.
+     */
+    @Query("SELECT * FROM forecast_location WHERE locationKey > :geohash || ':' "
+            + "AND locationKey < :geohash || ';' AND cityName IS NOT NULL LIMIT 1")
+    public abstract ForecastLocation getNamedLocationInCell(String geohash);
+
+    // Blocking, for building the location index
+    @Query("SELECT * FROM forecast_location")
+    public abstract List<ForecastLocation> loadAllLocations();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insertWeather(Weather weather);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insertHourlyForecasts(List<HourlyForecast> forecasts);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insertDailyForecasts(List<DailyForecast> forecasts);
+
+    @Query("DELETE FROM hourly_forecast WHERE locationId = :locationId")
+    abstract void deleteHourlyForecasts(int locationId);
+
+    @Query("DELETE FROM daily_forecast WHERE locationId = :locationId")
+    abstract void deleteDailyForecasts(int locationId);
+
+    @Query("SELECT hourly_forecast.* FROM hourly_forecast "
+            + "INNER JOIN forecast_location ON forecast_location.id = hourly_forecast.locationId "
+            + "WHERE forecast_location.locationKey = :locationKey ORDER BY timestamp ASC")
+    public abstract List<HourlyForecast> getHourlyForecasts(String locationKey);
+
+    @Query("SELECT daily_forecast.* FROM daily_forecast "
+            + "INNER JOIN forecast_location ON forecast_location.id = daily_forecast.locationId "
+            + "WHERE forecast_location.locationKey = :locationKey ORDER BY timestamp ASC")
+    public abstract List<DailyForecast> getDailyForecasts(String locationKey);
+
+    @Query("SELECT weather.* FROM weather "
+            + "INNER JOIN forecast_location ON forecast_location.id = weather.locationId "
+            + "WHERE forecast_location.locationKey = :locationKey ORDER BY timestamp DESC LIMIT 1")
+    public abstract Weather getLatestWeather(String locationKey);
+
+    /**
+     * Insert the location if it is new, otherwise update its details.
+     *
+     * @return The id of the location row
+     */
+    @Transaction
+    public int upsertLocation(ForecastLocation location) {
+        long rowId = insertLocation(location);
+        if (rowId != -1) {
+            return (int) rowId;
+        }
+
+        ForecastLocation existing = getLocationByKey(location.getLocationKey());
+        location.setId(existing.getId());
+        // Refreshes without current weather don't know the name, keep the stored one
+        if (location.getCityName() == null) {
+            location.setCityName(existing.getCityName());
+            location.setCountryCode(existing.getCountryCode());
+        }
+        updateLocation(location);
+        return existing.getId();
+    }
+
+    /**
+     * Store the result of a refresh for a location in one transaction. The weather
+     * observation is upserted by timestamp; hourly and daily forecasts replace the
+     * previous ones. Null arguments leave the corresponding rows untouched.
+     *
+     * @param location        The location the data belongs to
+     * @param weather         Current weather, or null
+     * @param hourlyForecasts Hourly forecasts, or null
+     * @param dailyForecasts  Daily forecasts, or null
+     */
+    @Transaction
+    public void replaceForecastForLocation(ForecastLocation location, Weather weather,
+            List<HourlyForecast> hourlyForecasts, List<DailyForecast> dailyForecasts) {
+        int locationId = upsertLocation(location);
+
+        if (weather != null) {
+            weather.setLocationId(locationId);
+            insertWeather(weather);
+        }
+
+        if (hourlyForecasts != null) {
+            deleteHourlyForecasts(locationId);
+            for (HourlyForecast forecast : hourlyForecasts) {
+                forecast.setLocationId(locationId);
+            }
+            insertHourlyForecasts(hourlyForecasts);
+        }
+
+        if (dailyForecasts != null) {
+            deleteDailyForecasts(locationId);
+            for (DailyForecast forecast : dailyForecasts) {
+                forecast.setLocationId(locationId);
+            }
+            insertDailyForecasts(dailyForecasts);
+        }
+    }
+}
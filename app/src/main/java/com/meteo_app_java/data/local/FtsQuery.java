@@ -0,0 +1,35 @@
+package com.meteo_app_java.data.local;
+
+import com.meteo_app_java.utils.TextNormalizer;
+
+import java.util.regex.Pattern;
+
+/**
+ * Utility class to build FTS MATCH expressions from user input.
+ */
+public class FtsQuery {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Build an expression matching rows where every word of the text starts a
+     * word of the row: "new yo" becomes "new* yo*". Punctuation is dropped, so
+     * user input can't inject FTS syntax, and operators are never produced since
+     * the words are lower case.
+     *
+     * @return The expression, or null if the text has no words
+     */
+    public static String prefixQuery(String text) {
+        StringBuilder query = new StringBuilder();
+        for (String word : NON_WORD.split(TextNormalizer.normalize(text))) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append(word).append('*');
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+}
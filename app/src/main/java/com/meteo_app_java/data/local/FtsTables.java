@@ -0,0 +1,70 @@
+package com.meteo_app_java.data.local;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Utility class to manage FTS4 tables indexing a content table, with the same
+ * SQL Room generates for {@code @Fts4(contentEntity = ...)} entities.
+ */
+public class FtsTables {
+
+    private static final String[] TRIGGERS = { "BEFORE_UPDATE", "BEFORE_DELETE", "AFTER_UPDATE", "AFTER_INSERT" };
+
+    /**
+     * Create the table and its sync triggers, and index the existing rows. Used by
+     * migrations; new databases get them from Room.
+     */
+    public static void create(SupportSQLiteDatabase db, String ftsTable, String contentTable,
+            String... columns) {
+        StringBuilder definitions = new StringBuilder();
+        for (String column : columns) {
+            definitions.append('`').append(column).append("` TEXT, ");
+        }
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + ftsTable + "` USING FTS4("
+                + definitions + "tokenize=unicode61, content=`" + contentTable + "`)");
+        createTriggers(db, ftsTable, contentTable, columns);
+        rebuild(db, ftsTable);
+    }
+
+    /**
+     * Create the triggers keeping the table in sync with its content table.
+     */
+    public static void createTriggers(SupportSQLiteDatabase db, String ftsTable, String contentTable,
+            String... columns) {
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (String column : columns) {
+            names.append(", `").append(column).append('`');
+            values.append(", NEW.`").append(column).append('`');
+        }
+        String delete = " BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END";
+        String insert = " BEGIN INSERT INTO `" + ftsTable + "`(`docid`" + names + ") VALUES (NEW.`rowid`"
+                + values + "); END";
+        for (String trigger : TRIGGERS) {
+            String[] when = trigger.split("_");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + triggerName(ftsTable, trigger) + " "
+                    + when[0] + " " + when[1] + " ON `" + contentTable + "`"
+                    + (when[0].equals("BEFORE") ? delete : insert));
+        }
+    }
+
+    /**
+     * Drop the sync triggers, for bulk loads followed by {@link #rebuild}.
+     */
+    public static void dropTriggers(SupportSQLiteDatabase db, String ftsTable) {
+        for (String trigger : TRIGGERS) {
+            db.execSQL("DROP TRIGGER IF EXISTS " + triggerName(ftsTable, trigger));
+        }
+    }
+
+    /**
+     * Re-index every row of the content table.
+     */
+    public static void rebuild(SupportSQLiteDatabase db, String ftsTable) {
+        db.execSQL("INSERT INTO `" + ftsTable + "`(`" + ftsTable + "`) VALUES ('rebuild')");
+    }
+
+    private static String triggerName(String ftsTable, String trigger) {
+        return "room_fts_content_sync_" + ftsTable + "_" + trigger;
+    }
+}
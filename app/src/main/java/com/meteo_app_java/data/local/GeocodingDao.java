@@ -0,0 +1,57 @@
+package com.meteo_app_java.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.meteo_app_java.models.GeocodingQuery;
+import com.meteo_app_java.models.GeocodingResult;
+
+import java.util.List;
+
+/**
+ * Data Access Object for cached geocoding searches and their results.
+ */
+@Dao
+public abstract class GeocodingDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insertQuery(GeocodingQuery query);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insertResults(List<GeocodingResult> results);
+
+    @Query("DELETE FROM geocoding_result WHERE normalizedQuery = :normalizedQuery")
+    abstract void deleteResults(String normalizedQuery);
+
+    @Query("SELECT * FROM geocoding_query WHERE normalizedQuery = :normalizedQuery LIMIT 1")
+    public abstract GeocodingQuery getQuery(String normalizedQuery);
+
+    @Query("SELECT * FROM geocoding_result WHERE normalizedQuery = :normalizedQuery ORDER BY position ASC")
+    public abstract List<GeocodingResult> getResults(String normalizedQuery);
+
+    @Query("SELECT * FROM geocoding_result")
+    public abstract List<GeocodingResult> loadAllResults();
+
+    /**
+     * Delete queries fetched before their cutoff: one cutoff for queries with
+     * results, a later one for queries without.
+     *
+     * @return Number of queries deleted
+     */
+    @Query("DELETE FROM geocoding_query WHERE (resultCount > 0 AND fetchedAt < :hitCutoff) "
+            + "OR (resultCount = 0 AND fetchedAt < :missCutoff)")
+    public abstract int deleteExpired(long hitCutoff, long missCutoff);
+
+    /**
+     * Store the results of a query, replacing any cached for it.
+     */
+    @Transaction
+    public void replaceResults(GeocodingQuery query, List<GeocodingResult> results) {
+        insertQuery(query);
+        deleteResults(query.getNormalizedQuery());
+        insertResults(results);
+    }
+}
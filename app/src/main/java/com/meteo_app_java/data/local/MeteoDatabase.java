@@ -1,27 +1,190 @@
 package com.meteo_app_java.data.local;
 
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
+import com.meteo_app_java.data.LocationKey;
 import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.ForecastLocation;
+import com.meteo_app_java.models.ForecastLocationFts;
+import com.meteo_app_java.models.GeocodingQuery;
+import com.meteo_app_java.models.GeocodingResult;
 import com.meteo_app_java.models.HourlyForecast;
 import com.meteo_app_java.models.SavedLocation;
+import com.meteo_app_java.models.SavedLocationFts;
 import com.meteo_app_java.models.Weather;
+import com.meteo_app_java.models.WeatherAggregate;
 import com.meteo_app_java.utils.DateConverter;
 
 /**
  * Room database for the application.
  */
 @Database(entities = {
+        ForecastLocation.class,
         Weather.class,
         HourlyForecast.class,
         DailyForecast.class,
-        SavedLocation.class
-}, version = 1, exportSchema = false)
+        SavedLocation.class,
+        WeatherAggregate.class,
+        GeocodingQuery.class,
+        GeocodingResult.class,
+        SavedLocationFts.class,
+        ForecastLocationFts.class
+}, version = 6, exportSchema = false)
 @TypeConverters({ DateConverter.class })
 public abstract class MeteoDatabase extends RoomDatabase {
 
+    /**
+     * Version 2 keys weather and forecasts by a forecast_location row. The old
+     * forecast tables only hold cached data, so they are rebuilt empty; saved
+     * locations are kept.
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP TABLE IF EXISTS `hourly_forecast`");
+            db.execSQL("DROP TABLE IF EXISTS `daily_forecast`");
+            db.execSQL("DROP TABLE IF EXISTS `weather`");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `forecast_location` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `locationKey` TEXT NOT NULL, "
+                    + "`cityName` TEXT, `countryCode` TEXT, `latitude` REAL NOT NULL, "
+                    + "`longitude` REAL NOT NULL, `lastUpdated` INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_forecast_location_locationKey` "
+                    + "ON `forecast_location` (`locationKey`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `locationId` INTEGER NOT NULL, "
+                    + "`cityName` TEXT, `countryCode` TEXT, `latitude` REAL NOT NULL, "
+                    + "`longitude` REAL NOT NULL, `temperature` REAL NOT NULL, `feelsLike` REAL NOT NULL, "
+                    + "`tempMin` REAL NOT NULL, `tempMax` REAL NOT NULL, `humidity` INTEGER NOT NULL, "
+                    + "`pressure` INTEGER NOT NULL, `windSpeed` REAL NOT NULL, `windDegree` INTEGER NOT NULL, "
+                    + "`weatherMain` TEXT, `weatherDescription` TEXT, `weatherIcon` TEXT, "
+                    + "`timestamp` INTEGER NOT NULL, `isFavorite` INTEGER NOT NULL, `lastUpdated` INTEGER, "
+                    + "FOREIGN KEY(`locationId`) REFERENCES `forecast_location`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_weather_locationId_timestamp` "
+                    + "ON `weather` (`locationId`, `timestamp`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `hourly_forecast` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `locationId` INTEGER NOT NULL, "
+                    + "`timestamp` INTEGER NOT NULL, `temperature` REAL NOT NULL, `feelsLike` REAL NOT NULL, "
+                    + "`humidity` INTEGER NOT NULL, `pressure` INTEGER NOT NULL, `windSpeed` REAL NOT NULL, "
+                    + "`windDegree` INTEGER NOT NULL, `weatherMain` TEXT, `weatherDescription` TEXT, "
+                    + "`weatherIcon` TEXT, `pop` INTEGER NOT NULL, `rainVolume` REAL NOT NULL, "
+                    + "FOREIGN KEY(`locationId`) REFERENCES `forecast_location`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_hourly_forecast_locationId_timestamp` "
+                    + "ON `hourly_forecast` (`locationId`, `timestamp`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `daily_forecast` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `locationId` INTEGER NOT NULL, "
+                    + "`timestamp` INTEGER NOT NULL, `tempDay` REAL NOT NULL, `tempNight` REAL NOT NULL, "
+                    + "`tempMin` REAL NOT NULL, `tempMax` REAL NOT NULL, `feelsLikeDay` REAL NOT NULL, "
+                    + "`feelsLikeNight` REAL NOT NULL, `humidity` INTEGER NOT NULL, `pressure` INTEGER NOT NULL, "
+                    + "`windSpeed` REAL NOT NULL, `windDegree` INTEGER NOT NULL, `weatherMain` TEXT, "
+                    + "`weatherDescription` TEXT, `weatherIcon` TEXT, `pop` INTEGER NOT NULL, "
+                    + "`rainVolume` REAL NOT NULL, `sunrise` INTEGER NOT NULL, `sunset` INTEGER NOT NULL, "
+                    + "FOREIGN KEY(`locationId`) REFERENCES `forecast_location`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_daily_forecast_locationId_timestamp` "
+                    + "ON `daily_forecast` (`locationId`, `timestamp`)");
+        }
+    };
+
+    /**
+     * Version 3 adds the downsampled weather history table and timestamp indexes
+     * for retention queries.
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather_aggregate` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `locationId` INTEGER NOT NULL, "
+                    + "`resolution` INTEGER NOT NULL, `bucketStart` INTEGER NOT NULL, "
+                    + "`sampleCount` INTEGER NOT NULL, `temperatureAvg` REAL NOT NULL, "
+                    + "`temperatureMin` REAL NOT NULL, `temperatureMax` REAL NOT NULL, "
+                    + "`humidityAvg` REAL NOT NULL, `pressureAvg` REAL NOT NULL, `windSpeedAvg` REAL NOT NULL, "
+                    + "FOREIGN KEY(`locationId`) REFERENCES `forecast_location`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS "
+                    + "`index_weather_aggregate_locationId_resolution_bucketStart` "
+                    + "ON `weather_aggregate` (`locationId`, `resolution`, `bucketStart`)");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_weather_timestamp` ON `weather` (`timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_hourly_forecast_timestamp` "
+                    + "ON `hourly_forecast` (`timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_daily_forecast_timestamp` "
+                    + "ON `daily_forecast` (`timestamp`)");
+        }
+    };
+
+    /**
+     * Version 4 keys forecast locations by geohash cell instead of rounded
+     * coordinates. Keys are rewritten from the stored coordinates; when several
+     * old keys fall in the same cell, the first one keeps the cell and the others
+     * keep their old key until retention removes their data.
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            try (Cursor cursor = db.query(
+                    "SELECT id, locationKey, latitude, longitude FROM forecast_location")) {
+                while (cursor.moveToNext()) {
+                    // Old keys look like "48.857,2.352:metric"
+                    String oldKey = cursor.getString(1);
+                    String units = oldKey.substring(oldKey.lastIndexOf(':') + 1);
+                    String newKey = LocationKey.of(cursor.getDouble(2), cursor.getDouble(3), units).toString();
+                    db.execSQL("UPDATE OR IGNORE forecast_location SET locationKey = ? WHERE id = ?",
+                            new Object[] { newKey, cursor.getInt(0) });
+                }
+            }
+        }
+    };
+
+    /**
+     * Version 5 adds the geocoding cache.
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `geocoding_query` ("
+                    + "`normalizedQuery` TEXT NOT NULL, `fetchedAt` INTEGER NOT NULL, "
+                    + "`resultCount` INTEGER NOT NULL, PRIMARY KEY(`normalizedQuery`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `geocoding_result` ("
+                    + "`normalizedQuery` TEXT NOT NULL, `position` INTEGER NOT NULL, `name` TEXT, "
+                    + "`countryCode` TEXT, `state` TEXT, `latitude` REAL NOT NULL, "
+                    + "`longitude` REAL NOT NULL, PRIMARY KEY(`normalizedQuery`, `position`), "
+                    + "FOREIGN KEY(`normalizedQuery`) REFERENCES `geocoding_query`(`normalizedQuery`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_geocoding_result_normalizedQuery` "
+                    + "ON `geocoding_result` (`normalizedQuery`)");
+        }
+    };
+
+    /**
+     * Version 6 adds full-text indexes of saved and stored location names, filled
+     * from the existing rows.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            FtsTables.create(db, "saved_location_fts", "saved_location", "cityName", "countryCode");
+            FtsTables.create(db, "forecast_location_fts", "forecast_location", "cityName", "countryCode");
+        }
+    };
+
+    /**
+     * Returns the DAO for storing weather and forecasts per location.
+     */
+    public abstract ForecastDao forecastDao();
+
     /**
      * Returns the DAO for Weather data.
      */
@@ -41,4 +204,9 @@ public abstract class MeteoDatabase extends RoomDatabase {
      * Returns the DAO for SavedLocation data.
      */
     public abstract SavedLocationDao savedLocationDao();
+
+    /**
+     * Returns the DAO for cached geocoding searches.
+     */
+    public abstract GeocodingDao geocodingDao();
 }
\ No newline at end of file
@@ -33,8 +33,18 @@ public interface SavedLocationDao {
     @Query("SELECT * FROM saved_location WHERE id = :id")
     LiveData<SavedLocation> getLocationById(int id);
 
-    @Query("SELECT * FROM saved_location WHERE cityName LIKE :cityName LIMIT 1")
-    LiveData<SavedLocation> getLocationByCity(String cityName);
+    /**
+     * Find the saved location best matching a full-text query, favorites then
+     * most recently used first.
+     *
+     * @param match MATCH expression built by {@link FtsQuery#prefixQuery}, not a raw
+     *              name: FTS syntax in it, e.g. "-" or "*", is interpreted
+     */
+    @Query("SELECT saved_location.* FROM saved_location "
+            + "INNER JOIN saved_location_fts ON saved_location_fts.rowid = saved_location.id "
+            + "WHERE saved_location_fts MATCH :match "
+            + "ORDER BY saved_location.isFavorite DESC, saved_location.lastAccessed DESC LIMIT 1")
+    LiveData<SavedLocation> findLocationByCityMatch(String match);
 
     @Query("SELECT * FROM saved_location ORDER BY lastAccessed DESC LIMIT 10")
     LiveData<List<SavedLocation>> getRecentLocations();
@@ -42,6 +52,14 @@ public interface SavedLocationDao {
     @Query("SELECT * FROM saved_location WHERE isFavorite = 1 ORDER BY cityName ASC")
     LiveData<List<SavedLocation>> getFavoriteLocations();
 
+    // Blocking variant for background jobs
+    @Query("SELECT * FROM saved_location WHERE isFavorite = 1 ORDER BY cityName ASC")
+    List<SavedLocation> loadFavoriteLocations();
+
     @Query("SELECT * FROM saved_location ORDER BY lastAccessed DESC")
     LiveData<List<SavedLocation>> getAllLocations();
+
+    // Blocking variant for building the search suggestions
+    @Query("SELECT * FROM saved_location ORDER BY lastAccessed DESC")
+    List<SavedLocation> loadAllLocations();
 }
\ No newline at end of file
@@ -33,11 +33,23 @@ public interface WeatherDao {
     @Query("SELECT * FROM weather WHERE id = :id")
     LiveData<Weather> getWeatherById(int id);
 
-    @Query("SELECT * FROM weather WHERE cityName LIKE :cityName LIMIT 1")
-    LiveData<Weather> getWeatherByCity(String cityName);
-
-    @Query("SELECT * FROM weather WHERE latitude = :lat AND longitude = :lon LIMIT 1")
-    LiveData<Weather> getWeatherByCoordinates(double lat, double lon);
+    /**
+     * Latest weather of the stored locations whose name matches a full-text query.
+     *
+     * @param match MATCH expression built by {@link FtsQuery#prefixQuery}, not a raw
+     *              name: FTS syntax in it, e.g. "-" or "*", is interpreted
+     */
+    @Query("SELECT weather.* FROM weather "
+            + "INNER JOIN forecast_location ON forecast_location.id = weather.locationId "
+            + "INNER JOIN forecast_location_fts ON forecast_location_fts.rowid = forecast_location.id "
+            + "WHERE forecast_location_fts MATCH :match ORDER BY weather.timestamp DESC LIMIT 1")
+    LiveData<Weather> findWeatherByCityMatch(String match);
+
+    // Match by location key: exact coordinates almost never repeat between GPS fixes
+    @Query("SELECT weather.* FROM weather "
+            + "INNER JOIN forecast_location ON forecast_location.id = weather.locationId "
+            + "WHERE forecast_location.locationKey = :locationKey ORDER BY timestamp DESC LIMIT 1")
+    LiveData<Weather> getWeatherByLocationKey(String locationKey);
 
     @Query("SELECT * FROM weather WHERE isFavorite = 1")
     LiveData<List<Weather>> getFavoriteWeather();
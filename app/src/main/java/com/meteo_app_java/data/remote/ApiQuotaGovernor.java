@@ -0,0 +1,229 @@
+package com.meteo_app_java.data.remote;
+
+import android.content.SharedPreferences;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps API usage under the OpenWeatherMap quotas: a token bucket per endpoint
+ * for the per-minute limit, and a daily budget shared by all endpoints. Part of
+ * both is reserved for user requests, so background work can never use up the
+ * quota a manual refresh needs.
+ *
+ * <p>The daily count is persisted, so it survives process restarts. It resets at
+ * midnight UTC, like the API's.
+ */
+public class ApiQuotaGovernor {
+
+    // Per-endpoint burst size and refill rate; 4 endpoints stay under 60 calls per minute
+    public static final int DEFAULT_BUCKET_CAPACITY = 15;
+    public static final int DEFAULT_REFILL_PER_MINUTE = 15;
+    // Calls per day for all endpoints
+    public static final int DEFAULT_DAILY_BUDGET = 1000;
+    // Fraction of the bucket and of the daily budget only user requests may use
+    public static final double DEFAULT_USER_RESERVE = 0.2;
+
+    private static final String PREF_DAY = "quota_day";
+    private static final String PREF_USED = "quota_used";
+
+    /**
+     * Token bucket for one endpoint, with its usage counters.
+     */
+    private static class EndpointQuota {
+        final int capacity;
+        final double refillPerMs;
+        double tokens;
+        long lastRefill;
+        // No calls until then, after a 429 from the server
+        long blockedUntil;
+
+        final AtomicLong admitted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong refunded = new AtomicLong();
+        final AtomicLong rateLimited = new AtomicLong();
+
+        EndpointQuota(int capacity, int refillPerMinute, long now) {
+            this.capacity = capacity;
+            this.refillPerMs = refillPerMinute / (double) TimeUnit.MINUTES.toMillis(1);
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMs);
+            lastRefill = now;
+        }
+    }
+
+    private final SharedPreferences preferences;
+    private final int bucketCapacity;
+    private final int refillPerMinute;
+    private final int dailyBudget;
+    private final double userReserve;
+    private final Map<String, EndpointQuota> endpoints = new ConcurrentHashMap<>();
+    private final MutableLiveData<Boolean> quotaLimited = new MutableLiveData<>(false);
+
+    private long day;
+    private int usedToday;
+
+    public ApiQuotaGovernor(SharedPreferences preferences) {
+        this(preferences, DEFAULT_BUCKET_CAPACITY, DEFAULT_REFILL_PER_MINUTE, DEFAULT_DAILY_BUDGET,
+                DEFAULT_USER_RESERVE);
+    }
+
+    public ApiQuotaGovernor(SharedPreferences preferences, int bucketCapacity, int refillPerMinute,
+            int dailyBudget, double userReserve) {
+        this.preferences = preferences;
+        this.bucketCapacity = bucketCapacity;
+        this.refillPerMinute = refillPerMinute;
+        this.dailyBudget = dailyBudget;
+        this.userReserve = userReserve;
+        this.day = preferences.getLong(PREF_DAY, 0);
+        this.usedToday = preferences.getInt(PREF_USED, 0);
+    }
+
+    /**
+     * Take a call from the endpoint's bucket and the daily budget.
+     *
+     * @return true if the call may go to the network, false if the quota is exhausted
+     *         for this priority
+     */
+    public boolean tryAcquire(String endpoint, RequestPriority priority) {
+        EndpointQuota quota = quotaFor(endpoint);
+        long now = System.currentTimeMillis();
+        boolean admitted;
+        synchronized (this) {
+            rollOverDay(now);
+            quota.refill(now);
+
+            // Background requests must leave the reserve untouched
+            double bucketFloor = priority == RequestPriority.USER ? 0 : bucketCapacity * userReserve;
+            int dailyLimit = priority == RequestPriority.USER
+                    ? dailyBudget : (int) (dailyBudget * (1 - userReserve));
+
+            admitted = now >= quota.blockedUntil
+                    && quota.tokens - 1 >= bucketFloor
+                    && usedToday < dailyLimit;
+            if (admitted) {
+                quota.tokens -= 1;
+                usedToday++;
+                saveUsage();
+            }
+        }
+
+        (admitted ? quota.admitted : quota.rejected).incrementAndGet();
+        // Background work hitting its reserve doesn't limit what the user sees
+        if (admitted || priority == RequestPriority.USER) {
+            setQuotaLimited(!admitted);
+        }
+        return admitted;
+    }
+
+    /**
+     * Give back a call that was answered by the HTTP cache without reaching the API.
+     */
+    public void refund(String endpoint) {
+        EndpointQuota quota = quotaFor(endpoint);
+        synchronized (this) {
+            quota.tokens = Math.min(bucketCapacity, quota.tokens + 1);
+            if (usedToday > 0) {
+                usedToday--;
+                saveUsage();
+            }
+        }
+        quota.refunded.incrementAndGet();
+    }
+
+    /**
+     * Stop calling an endpoint after the API answered 429 Too Many Requests.
+     *
+     * @param retryAfterSeconds Delay from the Retry-After header, or a negative value
+     *                          to wait for the bucket to refill completely
+     */
+    public void onRateLimited(String endpoint, long retryAfterSeconds) {
+        EndpointQuota quota = quotaFor(endpoint);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            quota.tokens = 0;
+            quota.lastRefill = now;
+            quota.blockedUntil = now + (retryAfterSeconds >= 0
+                    ? TimeUnit.SECONDS.toMillis(retryAfterSeconds)
+                    : (long) (bucketCapacity / quota.refillPerMs));
+        }
+        quota.rateLimited.incrementAndGet();
+        setQuotaLimited(true);
+    }
+
+    /**
+     * True while user requests are being refused, false once a request is admitted
+     * again.
+     */
+    public LiveData<Boolean> getQuotaLimited() {
+        return quotaLimited;
+    }
+
+    public synchronized int getUsedToday() {
+        rollOverDay(System.currentTimeMillis());
+        return usedToday;
+    }
+
+    public int getDailyBudget() {
+        return dailyBudget;
+    }
+
+    /**
+     * Human-readable summary of the budget and of every endpoint, one per line.
+     */
+    public synchronized String dump() {
+        long now = System.currentTimeMillis();
+        rollOverDay(now);
+        StringBuilder builder = new StringBuilder();
+        builder.append("daily: used=").append(usedToday).append('/').append(dailyBudget).append('\n');
+        for (Map.Entry<String, EndpointQuota> entry : new TreeMap<>(endpoints).entrySet()) {
+            EndpointQuota quota = entry.getValue();
+            quota.refill(now);
+            builder.append(entry.getKey())
+                    .append(": tokens=").append((int) quota.tokens).append('/').append(quota.capacity)
+                    .append(", admitted=").append(quota.admitted.get())
+                    .append(", rejected=").append(quota.rejected.get())
+                    .append(", refunded=").append(quota.refunded.get())
+                    .append(", 429=").append(quota.rateLimited.get())
+                    .append('\n');
+        }
+        return builder.toString();
+    }
+
+    private EndpointQuota quotaFor(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint,
+                key -> new EndpointQuota(bucketCapacity, refillPerMinute, System.currentTimeMillis()));
+    }
+
+    private void rollOverDay(long now) {
+        long today = TimeUnit.MILLISECONDS.toDays(now);
+        if (today != day) {
+            day = today;
+            usedToday = 0;
+            saveUsage();
+        }
+    }
+
+    private void saveUsage() {
+        preferences.edit()
+                .putLong(PREF_DAY, day)
+                .putInt(PREF_USED, usedToday)
+                .apply();
+    }
+
+    private void setQuotaLimited(boolean limited) {
+        if (!Boolean.valueOf(limited).equals(quotaLimited.getValue())) {
+            quotaLimited.postValue(limited);
+        }
+    }
+}
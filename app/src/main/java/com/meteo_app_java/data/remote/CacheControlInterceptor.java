@@ -0,0 +1,59 @@
+package com.meteo_app_java.data.remote;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that rewrites the Cache-Control header of API responses
+ * with a max-age matching how often OpenWeatherMap updates each endpoint, so the
+ * HTTP cache can answer repeated requests without a round trip.
+ */
+public class CacheControlInterceptor implements Interceptor {
+
+    private final Map<String, Integer> maxAgeSeconds = new HashMap<>();
+
+    public CacheControlInterceptor() {
+        // Current weather is updated about every 10 minutes
+        maxAgeSeconds.put("weather", (int) TimeUnit.MINUTES.toSeconds(10));
+        // The 5-day forecast is updated every 3 hours
+        maxAgeSeconds.put("forecast", (int) TimeUnit.HOURS.toSeconds(3));
+        // OneCall includes current conditions, so it follows the current weather
+        maxAgeSeconds.put("onecall", (int) TimeUnit.MINUTES.toSeconds(10));
+        // Geocoding results practically never change
+        maxAgeSeconds.put("direct", (int) TimeUnit.DAYS.toSeconds(7));
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        Integer maxAge = maxAgeSeconds.get(endpointOf(request));
+        if (maxAge == null || !response.isSuccessful() || !"GET".equals(request.method())) {
+            return response;
+        }
+
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "public, max-age=" + maxAge)
+                .build();
+    }
+
+    /**
+     * Get the endpoint name (last path segment) of a request.
+     */
+    static String endpointOf(Request request) {
+        List<String> segments = request.url().pathSegments();
+        return segments.isEmpty() ? "" : segments.get(segments.size() - 1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.meteo_app_java.data.remote;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker for one host. It opens after a number of consecutive failures,
+ * so calls fail fast instead of waiting for timeouts. Once the open period has
+ * passed, a single probe call is let through (half-open): the circuit closes if
+ * it succeeds and opens again if it fails.
+ */
+public class CircuitBreaker {
+
+    // Consecutive failures that open the circuit
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    // Time calls are refused before a probe is let through
+    public static final long DEFAULT_OPEN_MS = TimeUnit.SECONDS.toMillis(30);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMs;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long openCount;
+    private long rejectedCount;
+
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MS);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openMs) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+    }
+
+    /**
+     * Check if a call may go to the network. In the half-open state, only the
+     * first caller gets through, as the probe; it must report its outcome.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+
+        boolean allowed;
+        if (state == State.CLOSED) {
+            allowed = true;
+        } else if (state == State.HALF_OPEN && !probeInFlight) {
+            probeInFlight = true;
+            allowed = true;
+        } else {
+            allowed = false;
+        }
+        if (!allowed) {
+            rejectedCount++;
+        }
+        return allowed;
+    }
+
+    /**
+     * Report a call that reached the server and got a healthy answer.
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * Report a call that failed: I/O error, timeout or server error.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                openCount++;
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Report a call that says nothing about the host, e.g. cancelled or answered
+     * by the cache. Lets another probe through if it was the probe.
+     */
+    public synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Number of times the circuit has opened.
+     */
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * Number of calls refused while the circuit was open.
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "state=" + state
+                + ", failures=" + consecutiveFailures
+                + ", opened=" + openCount
+                + ", rejected=" + rejectedCount;
+    }
+}
@@ -0,0 +1,95 @@
+package com.meteo_app_java.data.remote;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor keeping a {@link CircuitBreaker} per host. While a
+ * host's circuit is open, requests are answered from the HTTP cache when it can,
+ * and fail right away with a {@link CircuitOpenException} otherwise.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.cacheControl().onlyIfCached()) {
+            // Offline: the request can't reach the host
+            return chain.proceed(request);
+        }
+
+        String host = request.url().host();
+        CircuitBreaker breaker = forHost(host);
+        if (!breaker.allowRequest()) {
+            // OkHttp answers 504 when only-if-cached finds nothing
+            Response cached = chain.proceed(request.newBuilder()
+                    .cacheControl(CacheControl.FORCE_CACHE)
+                    .build());
+            if (cached.code() != 504) {
+                return cached;
+            }
+            cached.close();
+            throw new CircuitOpenException(host);
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (QuotaExceededException e) {
+            // Refused before reaching the host
+            breaker.onIgnored();
+            throw e;
+        } catch (IOException e) {
+            if (chain.call().isCanceled()) {
+                breaker.onIgnored();
+            } else {
+                breaker.onFailure();
+            }
+            throw e;
+        }
+
+        if (response.networkResponse() == null) {
+            breaker.onIgnored();
+        } else if (response.code() >= 500) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+        return response;
+    }
+
+    /**
+     * Check if calls to a host are currently refused.
+     */
+    public boolean isOpen(String host) {
+        CircuitBreaker breaker = breakers.get(host);
+        return breaker != null && breaker.getState() == CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Human-readable state of every host's circuit, one per line.
+     */
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, CircuitBreaker> entry : new TreeMap<>(breakers).entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private CircuitBreaker forHost(String host) {
+        return breakers.computeIfAbsent(host, key -> new CircuitBreaker());
+    }
+}
@@ -0,0 +1,22 @@
+package com.meteo_app_java.data.remote;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link CircuitBreakerInterceptor} when a host's circuit is open and
+ * the HTTP cache can't answer the request. Callers handle it like any network
+ * failure and fall back to cached data, without waiting for a timeout.
+ */
+public class CircuitOpenException extends IOException {
+
+    private final String host;
+
+    public CircuitOpenException(String host) {
+        super("Circuit open for " + host);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
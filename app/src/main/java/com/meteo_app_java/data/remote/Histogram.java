@@ -0,0 +1,98 @@
+package com.meteo_app_java.data.remote;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram with fixed bucket upper bounds, used for network timings
+ * and response sizes.
+ */
+public class Histogram {
+
+    // Bucket upper bounds for durations, in milliseconds
+    public static final long[] LATENCY_BOUNDS_MS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 30_000
+    };
+
+    // Bucket upper bounds for response sizes, in bytes
+    static final long[] SIZE_BOUNDS_BYTES = {
+            256, 1_024, 4_096, 16_384, 65_536, 262_144, 1_048_576
+    };
+
+    private final long[] bounds;
+    // One bucket per bound, plus an overflow bucket
+    private final AtomicLongArray counts;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogram(long[] bounds) {
+        this.bounds = bounds;
+        this.counts = new AtomicLongArray(bounds.length + 1);
+    }
+
+    /**
+     * Record a value.
+     */
+    public void record(long value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long currentMax;
+        do {
+            currentMax = max.get();
+        } while (value > currentMax && !max.compareAndSet(currentMax, value));
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Estimate a percentile as the upper bound of the bucket that contains it.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return The bucket bound, or the maximum for the overflow bucket
+     */
+    public long getPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return bounds[i];
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "n=%d mean=%.1f p50=%d p95=%d max=%d",
+                getCount(), getMean(), getPercentile(50), getPercentile(95), getMax());
+    }
+}
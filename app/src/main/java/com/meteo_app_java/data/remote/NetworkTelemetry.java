@@ -0,0 +1,135 @@
+package com.meteo_app_java.data.remote;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory network statistics, aggregated per endpoint (last path segment of
+ * the URL, e.g. "weather" or "onecall").
+ */
+public class NetworkTelemetry {
+
+    /**
+     * Where a response came from.
+     */
+    public enum CacheStatus {
+        // Served from the HTTP cache without touching the network
+        HIT,
+        // Revalidated with the server, which answered 304 Not Modified
+        CONDITIONAL_HIT,
+        // Fetched from the network
+        MISS
+    }
+
+    /**
+     * Statistics for a single endpoint.
+     */
+    public static class EndpointStats {
+        private final Histogram dnsMs = new Histogram(Histogram.LATENCY_BOUNDS_MS);
+        private final Histogram connectMs = new Histogram(Histogram.LATENCY_BOUNDS_MS);
+        private final Histogram tlsMs = new Histogram(Histogram.LATENCY_BOUNDS_MS);
+        private final Histogram ttfbMs = new Histogram(Histogram.LATENCY_BOUNDS_MS);
+        private final Histogram totalMs = new Histogram(Histogram.LATENCY_BOUNDS_MS);
+        private final Histogram responseBytes = new Histogram(Histogram.SIZE_BOUNDS_BYTES);
+        private final Map<Integer, AtomicLong> statusCounts = new ConcurrentHashMap<>();
+        private final Map<CacheStatus, AtomicLong> cacheCounts = new ConcurrentHashMap<>();
+        private final AtomicLong failures = new AtomicLong();
+
+        public Histogram getDnsMs() {
+            return dnsMs;
+        }
+
+        public Histogram getConnectMs() {
+            return connectMs;
+        }
+
+        public Histogram getTlsMs() {
+            return tlsMs;
+        }
+
+        public Histogram getTtfbMs() {
+            return ttfbMs;
+        }
+
+        public Histogram getTotalMs() {
+            return totalMs;
+        }
+
+        public Histogram getResponseBytes() {
+            return responseBytes;
+        }
+
+        /**
+         * Number of responses per HTTP status code.
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            for (Map.Entry<Integer, AtomicLong> entry : statusCounts.entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().get());
+            }
+            return counts;
+        }
+
+        public long getCacheCount(CacheStatus status) {
+            AtomicLong count = cacheCounts.get(status);
+            return count != null ? count.get() : 0;
+        }
+
+        /**
+         * Number of calls that failed without a response (I/O errors, timeouts, cancellation).
+         */
+        public long getFailureCount() {
+            return failures.get();
+        }
+
+        void recordResponse(int status, CacheStatus cacheStatus) {
+            statusCounts.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+            cacheCounts.computeIfAbsent(cacheStatus, key -> new AtomicLong()).incrementAndGet();
+        }
+
+        void recordFailure() {
+            failures.incrementAndGet();
+        }
+
+        @Override
+        public String toString() {
+            return "total[" + totalMs + "] ttfb[" + ttfbMs + "] dns[" + dnsMs
+                    + "] connect[" + connectMs + "] tls[" + tlsMs + "] bytes[" + responseBytes
+                    + "] status=" + getStatusCounts()
+                    + " hit=" + getCacheCount(CacheStatus.HIT)
+                    + " conditional=" + getCacheCount(CacheStatus.CONDITIONAL_HIT)
+                    + " miss=" + getCacheCount(CacheStatus.MISS)
+                    + " failures=" + getFailureCount();
+        }
+    }
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Get the statistics for an endpoint, creating them on first use.
+     */
+    public EndpointStats forEndpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+    }
+
+    /**
+     * Get the statistics of every endpoint seen so far, sorted by endpoint name.
+     */
+    public Map<String, EndpointStats> getEndpoints() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpoints));
+    }
+
+    /**
+     * Human-readable summary of all endpoints, one per line.
+     */
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, EndpointStats> entry : getEndpoints().entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+}
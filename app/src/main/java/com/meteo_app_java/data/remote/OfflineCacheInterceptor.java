@@ -0,0 +1,53 @@
+package com.meteo_app_java.data.remote;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.meteo_app_java.utils.NetworkUtils;
+
+import java.io.IOException;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that answers requests from the HTTP cache only
+ * (only-if-cached) while the device is offline or offline mode is forced,
+ * instead of waiting for the connection timeouts to expire. OkHttp returns
+ * a 504 when nothing is cached, which the repository treats as a failure.
+ */
+public class OfflineCacheInterceptor implements Interceptor {
+
+    private final Context context;
+    private volatile boolean forceOffline;
+
+    public OfflineCacheInterceptor(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Force requests to be served from the cache even when a network is available.
+     */
+    public void setForceOffline(boolean forceOffline) {
+        this.forceOffline = forceOffline;
+    }
+
+    public boolean isForceOffline() {
+        return forceOffline;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (forceOffline || !NetworkUtils.isNetworkAvailable(context)) {
+            request = request.newBuilder()
+                    .cacheControl(CacheControl.FORCE_CACHE)
+                    .build();
+        }
+        return chain.proceed(request);
+    }
+}
@@ -0,0 +1,28 @@
+package com.meteo_app_java.data.remote;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link QuotaInterceptor} when a request is refused by the
+ * {@link ApiQuotaGovernor} and the HTTP cache can't answer it. Callers handle it
+ * like any network failure and fall back to cached data.
+ */
+public class QuotaExceededException extends IOException {
+
+    private final String endpoint;
+    private final RequestPriority priority;
+
+    public QuotaExceededException(String endpoint, RequestPriority priority) {
+        super("API quota exhausted for " + endpoint + " (" + priority + ")");
+        this.endpoint = endpoint;
+        this.priority = priority;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public RequestPriority getPriority() {
+        return priority;
+    }
+}
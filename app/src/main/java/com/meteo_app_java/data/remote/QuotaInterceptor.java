@@ -0,0 +1,76 @@
+package com.meteo_app_java.data.remote;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that asks the {@link ApiQuotaGovernor} before a request
+ * goes to the API. Refused requests are answered from the HTTP cache when it
+ * can, and fail with a {@link QuotaExceededException} otherwise. Requests without
+ * a {@link RequestPriority} tag count as user requests.
+ */
+public class QuotaInterceptor implements Interceptor {
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final ApiQuotaGovernor governor;
+
+    public QuotaInterceptor(ApiQuotaGovernor governor) {
+        this.governor = governor;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.cacheControl().onlyIfCached()) {
+            // Offline: the request can't reach the API
+            return chain.proceed(request);
+        }
+
+        String endpoint = CacheControlInterceptor.endpointOf(request);
+        RequestPriority priority = request.tag(RequestPriority.class);
+        if (priority == null) {
+            priority = RequestPriority.USER;
+        }
+
+        if (!governor.tryAcquire(endpoint, priority)) {
+            // OkHttp answers 504 when only-if-cached finds nothing
+            Response cached = chain.proceed(request.newBuilder()
+                    .cacheControl(CacheControl.FORCE_CACHE)
+                    .build());
+            if (cached.code() != 504) {
+                return cached;
+            }
+            cached.close();
+            throw new QuotaExceededException(endpoint, priority);
+        }
+
+        Response response = chain.proceed(request);
+        if (response.networkResponse() == null) {
+            // Answered by the cache, the API was not called
+            governor.refund(endpoint);
+        } else if (response.code() == HTTP_TOO_MANY_REQUESTS) {
+            governor.onRateLimited(endpoint, parseRetryAfter(response.header("Retry-After")));
+        }
+        return response;
+    }
+
+    private static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(retryAfter.trim());
+        } catch (NumberFormatException e) {
+            // HTTP dates are not used by this API
+            return -1;
+        }
+    }
+}
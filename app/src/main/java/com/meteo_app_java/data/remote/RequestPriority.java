@@ -0,0 +1,12 @@
+package com.meteo_app_java.data.remote;
+
+/**
+ * Priority of an API request, attached to the call with Retrofit's {@code @Tag}.
+ * {@link ApiQuotaGovernor} keeps part of the quota for user requests.
+ */
+public enum RequestPriority {
+    // Refreshes and searches the user is waiting for
+    USER,
+    // Widget updates and prefetching, which can wait for the next run
+    BACKGROUND
+}
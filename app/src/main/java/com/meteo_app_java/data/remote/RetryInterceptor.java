@@ -0,0 +1,130 @@
+package com.meteo_app_java.data.remote;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that retries idempotent requests after I/O errors and
+ * transient server errors, with exponential backoff and full jitter: the delay
+ * before retry n is random between 0 and min(max delay, base delay * 2^n). No
+ * retry is started if its delay would end past the call deadline.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    // Attempts per call, including the first one
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BASE_DELAY_MS = 500;
+    public static final long DEFAULT_MAX_DELAY_MS = 4000;
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long deadlineMs;
+
+    /**
+     * @param deadlineMs Time budget of a whole call, retries included; should match
+     *                   the client's call timeout
+     */
+    public RetryInterceptor(long deadlineMs) {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MS, DEFAULT_MAX_DELAY_MS, deadlineMs);
+    }
+
+    public RetryInterceptor(int maxAttempts, long baseDelayMs, long maxDelayMs, long deadlineMs) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.deadlineMs = deadlineMs;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isIdempotent(request) || request.cacheControl().onlyIfCached()) {
+            return chain.proceed(request);
+        }
+
+        long deadline = System.currentTimeMillis() + deadlineMs;
+        for (int attempt = 1; ; attempt++) {
+            long delay = backOffDelay(attempt);
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (CircuitOpenException | QuotaExceededException e) {
+                // Refused locally, retrying can only be refused again
+                throw e;
+            } catch (IOException e) {
+                if (!canRetry(chain, attempt, delay, deadline)) {
+                    throw e;
+                }
+                sleep(delay);
+                continue;
+            }
+
+            if (!isRetryable(response) || !canRetry(chain, attempt, delay, deadline)) {
+                return response;
+            }
+            response.close();
+            sleep(delay);
+        }
+    }
+
+    /**
+     * Check if another attempt is allowed and the delay before it ends before the deadline.
+     */
+    private boolean canRetry(Chain chain, int attempt, long delay, long deadline) {
+        return attempt < maxAttempts
+                && !chain.call().isCanceled()
+                && System.currentTimeMillis() + delay < deadline;
+    }
+
+    /**
+     * Random delay before the attempt following the given one (full jitter).
+     */
+    private long backOffDelay(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long delay) throws IOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Retry interrupted");
+        }
+    }
+
+    private static boolean isIdempotent(Request request) {
+        return "GET".equals(request.method()) || "HEAD".equals(request.method());
+    }
+
+    /**
+     * Timeouts and transient server errors. 429 is left to the quota governor,
+     * which waits for the Retry-After delay.
+     */
+    private static boolean isRetryable(Response response) {
+        if (response.networkResponse() == null) {
+            // Answered by the cache
+            return false;
+        }
+        switch (response.code()) {
+            case 408:
+            case 500:
+            case 502:
+            case 503:
+            case 504:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
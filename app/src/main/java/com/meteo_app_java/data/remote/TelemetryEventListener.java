@@ -0,0 +1,133 @@
+package com.meteo_app_java.data.remote;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttp event listener that measures the phases of each call (DNS, connect,
+ * TLS, time to first byte) and the response size, and records them in
+ * {@link NetworkTelemetry}. One instance is created per call.
+ */
+public class TelemetryEventListener extends EventListener {
+
+    /**
+     * Creates a listener for every call.
+     */
+    public static class Factory implements EventListener.Factory {
+        private final NetworkTelemetry telemetry;
+
+        public Factory(NetworkTelemetry telemetry) {
+            this.telemetry = telemetry;
+        }
+
+        @NonNull
+        @Override
+        public EventListener create(@NonNull Call call) {
+            return new TelemetryEventListener(telemetry.forEndpoint(
+                    CacheControlInterceptor.endpointOf(call.request())));
+        }
+    }
+
+    private final NetworkTelemetry.EndpointStats stats;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestEnd;
+
+    private TelemetryEventListener(NetworkTelemetry.EndpointStats stats) {
+        this.stats = stats;
+    }
+
+    private static long now() {
+        return System.nanoTime();
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        requestEnd = now();
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStart = now();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName,
+            @NonNull List<InetAddress> inetAddressList) {
+        stats.getDnsMs().record(elapsedMs(dnsStart));
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+            @NonNull Proxy proxy) {
+        connectStart = now();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureConnectStart = now();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, Handshake handshake) {
+        stats.getTlsMs().record(elapsedMs(secureConnectStart));
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+            @NonNull Proxy proxy, Protocol protocol) {
+        stats.getConnectMs().record(elapsedMs(connectStart));
+    }
+
+    @Override
+    public void connectFailed(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+            @NonNull Proxy proxy, Protocol protocol, @NonNull IOException ioe) {
+        stats.getConnectMs().record(elapsedMs(connectStart));
+    }
+
+    @Override
+    public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+        requestEnd = now();
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        requestEnd = now();
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        stats.getTtfbMs().record(elapsedMs(requestEnd));
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        stats.getResponseBytes().record(byteCount);
+    }
+
+    @Override
+    public void cacheHit(@NonNull Call call, @NonNull Response response) {
+        // A cached body is not read through the network, record its declared size
+        long length = response.body() != null ? response.body().contentLength() : -1;
+        if (length >= 0) {
+            stats.getResponseBytes().record(length);
+        }
+    }
+}
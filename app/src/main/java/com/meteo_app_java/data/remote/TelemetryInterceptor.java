@@ -0,0 +1,54 @@
+package com.meteo_app_java.data.remote;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that records the total latency, HTTP status and
+ * cache status of every call in {@link NetworkTelemetry}. Phase timings
+ * come from {@link TelemetryEventListener}.
+ */
+public class TelemetryInterceptor implements Interceptor {
+
+    private final NetworkTelemetry telemetry;
+
+    public TelemetryInterceptor(NetworkTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        NetworkTelemetry.EndpointStats stats = telemetry.forEndpoint(
+                CacheControlInterceptor.endpointOf(request));
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            stats.getTotalMs().record((System.nanoTime() - start) / 1_000_000);
+            stats.recordFailure();
+            throw e;
+        }
+        stats.getTotalMs().record((System.nanoTime() - start) / 1_000_000);
+
+        NetworkTelemetry.CacheStatus cacheStatus;
+        if (response.networkResponse() == null && response.cacheResponse() != null) {
+            cacheStatus = NetworkTelemetry.CacheStatus.HIT;
+        } else if (response.networkResponse() != null && response.cacheResponse() != null) {
+            cacheStatus = NetworkTelemetry.CacheStatus.CONDITIONAL_HIT;
+        } else {
+            cacheStatus = NetworkTelemetry.CacheStatus.MISS;
+        }
+        stats.recordResponse(response.code(), cacheStatus);
+
+        return response;
+    }
+}
@@ -1,13 +1,26 @@
 package com.meteo_app_java.data.remote;
 
+import android.content.Context;
 import android.util.Log;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.meteo_app_java.BuildConfig;
 import com.meteo_app_java.MeteoApplication;
+import com.meteo_app_java.data.ForecastBundle;
+import com.meteo_app_java.data.remote.response.CurrentWeatherResponseAdapter;
+import com.meteo_app_java.data.remote.response.DailyForecastResponseAdapter;
+import com.meteo_app_java.data.remote.response.HourlyForecastResponseAdapter;
+import com.meteo_app_java.data.remote.response.LocationSearchResponse;
+import com.meteo_app_java.data.remote.response.LocationSearchResponseAdapter;
+import com.meteo_app_java.models.Weather;
 
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
@@ -23,44 +36,73 @@ public class WeatherApiClient {
     private static final String BASE_URL_V2_5 = "https://api.openweathermap.org/data/2.5/";
 
     // Base URL for Geo API
-    private static final String BASE_URL_GEO = "http://api.openweathermap.org/geo/1.0/";
+    private static final String BASE_URL_GEO = "https://api.openweathermap.org/geo/1.0/";
 
     // Base URL for OpenWeatherMap API v3.0
     private static final String BASE_URL_V3_0 = "https://api.openweathermap.org/data/3.0/";
 
+    // Timeouts of one attempt, and of a whole call with its retries, so a slow API
+    // falls back to cached data well before the spinner has been shown for long
+    private static final long CONNECT_TIMEOUT_SECONDS = 10;
+    private static final long READ_WRITE_TIMEOUT_SECONDS = 10;
+    private static final long CALL_TIMEOUT_SECONDS = 20;
+
+    // Persisted daily API usage
+    private static final String QUOTA_PREFERENCES_NAME = "api_quota";
+
+    // HTTP response cache
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024; // 10 MB
+
+    // Retrofit callbacks run here rather than on the main thread, so responses can
+    // be cached and stored before the result is posted to the UI
+    private static final Executor CALLBACK_EXECUTOR = Executors.newFixedThreadPool(2);
+
     private static WeatherApiClient instance;
+    private static Gson gson;
     private final WeatherApiService weatherApiServiceV2_5;
     private final WeatherApiServiceV3 weatherApiServiceV3_0;
     private final GeoApiService geoApiService;
+    private final OfflineCacheInterceptor offlineCacheInterceptor;
+    private final NetworkTelemetry telemetry = new NetworkTelemetry();
+    private final ApiQuotaGovernor quotaGovernor;
+    private final CircuitBreakerInterceptor circuitBreakers = new CircuitBreakerInterceptor();
+    private HttpLoggingInterceptor loggingInterceptor;
 
     private WeatherApiClient() {
-        // Create OkHttpClient with logging
+        Context context = MeteoApplication.getAppContext();
+        offlineCacheInterceptor = new OfflineCacheInterceptor(context);
+        quotaGovernor = new ApiQuotaGovernor(
+                context.getSharedPreferences(QUOTA_PREFERENCES_NAME, Context.MODE_PRIVATE));
+
+        // Create OkHttpClient with caching, quotas and telemetry
         OkHttpClient okHttpClient = createOkHttpClient();
 
         // Create Gson converter
-        Gson gson = new GsonBuilder()
-                .setLenient()
-                .create();
+        GsonConverterFactory converterFactory = GsonConverterFactory.create(getGson());
 
         // Initialize Retrofit for API v2.5
         Retrofit retrofitV2_5 = new Retrofit.Builder()
                 .baseUrl(BASE_URL_V2_5)
                 .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create(gson))
+                .callbackExecutor(CALLBACK_EXECUTOR)
+                .addConverterFactory(converterFactory)
                 .build();
 
         // Initialize Retrofit for Geo API
         Retrofit retrofitGeo = new Retrofit.Builder()
                 .baseUrl(BASE_URL_GEO)
                 .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create(gson))
+                .callbackExecutor(CALLBACK_EXECUTOR)
+                .addConverterFactory(converterFactory)
                 .build();
 
         // Initialize Retrofit for API v3.0
         Retrofit retrofitV3_0 = new Retrofit.Builder()
                 .baseUrl(BASE_URL_V3_0)
                 .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create(gson))
+                .callbackExecutor(CALLBACK_EXECUTOR)
+                .addConverterFactory(converterFactory)
                 .build();
 
         // Create service instances
@@ -75,16 +117,98 @@ public class WeatherApiClient {
      * Create and configure an OkHttpClient instance.
      */
     private OkHttpClient createOkHttpClient() {
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-
-        return new OkHttpClient.Builder()
-                .addInterceptor(loggingInterceptor)
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .retryOnConnectionFailure(true)
-                .build();
+        Context context = MeteoApplication.getAppContext();
+        Cache cache = new Cache(new File(context.getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_SIZE);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .cache(cache)
+                .addInterceptor(new TelemetryInterceptor(telemetry))
+                .addInterceptor(offlineCacheInterceptor)
+                .addInterceptor(new RetryInterceptor(TimeUnit.SECONDS.toMillis(CALL_TIMEOUT_SECONDS)))
+                // Inside the retries, so every attempt counts toward the host's circuit
+                // and fails fast once it is open
+                .addInterceptor(circuitBreakers)
+                // After the offline check, so requests served offline don't use the quota
+                .addInterceptor(new QuotaInterceptor(quotaGovernor))
+                .addNetworkInterceptor(new CacheControlInterceptor())
+                .eventListenerFactory(new TelemetryEventListener.Factory(telemetry))
+                .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(READ_WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(READ_WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .callTimeout(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                // RetryInterceptor does all retries, within its attempt and time budget
+                .retryOnConnectionFailure(false);
+
+        // Request logging is only available in debug builds. Bodies are not logged
+        // unless enabled at runtime, since logging them buffers the whole response.
+        if (BuildConfig.DEBUG) {
+            loggingInterceptor = new HttpLoggingInterceptor();
+            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BASIC);
+            builder.addInterceptor(loggingInterceptor);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Enable or disable full request and response body logging. Has no effect in
+     * release builds.
+     *
+     * @param enabled True to log bodies, false to log request lines only
+     */
+    public void setBodyLoggingEnabled(boolean enabled) {
+        if (loggingInterceptor != null) {
+            loggingInterceptor.setLevel(enabled
+                    ? HttpLoggingInterceptor.Level.BODY
+                    : HttpLoggingInterceptor.Level.BASIC);
+        }
+    }
+
+    /**
+     * Check if full body logging is currently enabled.
+     */
+    public boolean isBodyLoggingEnabled() {
+        return loggingInterceptor != null
+                && loggingInterceptor.getLevel() == HttpLoggingInterceptor.Level.BODY;
+    }
+
+    /**
+     * Get the per-endpoint network statistics collected by this client.
+     */
+    public NetworkTelemetry getNetworkTelemetry() {
+        return telemetry;
+    }
+
+    /**
+     * Get the governor that keeps API usage within the per-minute and daily quotas.
+     */
+    public ApiQuotaGovernor getQuotaGovernor() {
+        return quotaGovernor;
+    }
+
+    /**
+     * Get the per-host circuit breakers, e.g. for their state in diagnostics.
+     */
+    public CircuitBreakerInterceptor getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    /**
+     * Get the shared Gson instance, which decodes API responses straight into
+     * entities with streaming adapters. Also used for the file cache.
+     */
+    public static synchronized Gson getGson() {
+        if (gson == null) {
+            gson = new GsonBuilder()
+                    .setLenient()
+                    .registerTypeAdapter(Weather.class, new CurrentWeatherResponseAdapter())
+                    .registerTypeAdapter(HourlyForecastResponseAdapter.TYPE, new HourlyForecastResponseAdapter())
+                    .registerTypeAdapter(ForecastBundle.class, new DailyForecastResponseAdapter())
+                    .registerTypeAdapter(LocationSearchResponse.LocationResult.class,
+                            new LocationSearchResponseAdapter())
+                    .create();
+        }
+        return gson;
     }
 
     /**
@@ -118,6 +242,21 @@ public class WeatherApiClient {
         return weatherApiServiceV3_0;
     }
 
+    /**
+     * Serve every request from the HTTP cache only, even when a network is available.
+     * The device being offline has the same effect automatically.
+     */
+    public void setOfflineMode(boolean offline) {
+        offlineCacheInterceptor.setForceOffline(offline);
+    }
+
+    /**
+     * Check if offline mode is forced.
+     */
+    public boolean isOfflineMode() {
+        return offlineCacheInterceptor.isForceOffline();
+    }
+
     /**
      * Get the API key from preferences.
      */
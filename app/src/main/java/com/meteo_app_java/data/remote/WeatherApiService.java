@@ -1,11 +1,14 @@
 package com.meteo_app_java.data.remote;
 
-import com.meteo_app_java.data.remote.response.CurrentWeatherResponse;
-import com.meteo_app_java.data.remote.response.HourlyForecastResponse;
+import com.meteo_app_java.models.HourlyForecast;
+import com.meteo_app_java.models.Weather;
+
+import java.util.List;
 
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Query;
+import retrofit2.http.Tag;
 
 /**
  * Interface for OpenWeatherMap API v2.5 calls.
@@ -15,18 +18,20 @@ public interface WeatherApiService {
     /**
      * Get current weather for a location by coordinates.
      *
-     * @param lat   Latitude
-     * @param lon   Longitude
-     * @param appid API key
-     * @param units Units (metric, imperial)
+     * @param lat      Latitude
+     * @param lon      Longitude
+     * @param appid    API key
+     * @param units    Units (metric, imperial)
+     * @param priority Priority for the quota governor
      * @return Current weather data
      */
     @GET("weather")
-    Call<CurrentWeatherResponse> getCurrentWeatherByCoordinates(
+    Call<Weather> getCurrentWeatherByCoordinates(
             @Query("lat") double lat,
             @Query("lon") double lon,
             @Query("appid") String appid,
-            @Query("units") String units);
+            @Query("units") String units,
+            @Tag RequestPriority priority);
 
     /**
      * Get current weather for a location by city name.
@@ -37,7 +42,7 @@ public interface WeatherApiService {
      * @return Current weather data
      */
     @GET("weather")
-    Call<CurrentWeatherResponse> getCurrentWeatherByCity(
+    Call<Weather> getCurrentWeatherByCity(
             @Query("q") String q,
             @Query("appid") String appid,
             @Query("units") String units);
@@ -45,16 +50,18 @@ public interface WeatherApiService {
     /**
      * Get 5-day forecast with 3-hour step (using API v2.5).
      *
-     * @param lat   Latitude
-     * @param lon   Longitude
-     * @param appid API key
-     * @param units Units (metric, imperial)
-     * @return 5-day forecast data
+     * @param lat      Latitude
+     * @param lon      Longitude
+     * @param appid    API key
+     * @param units    Units (metric, imperial)
+     * @param priority Priority for the quota governor
+     * @return 5-day forecast entries
      */
     @GET("forecast")
-    Call<HourlyForecastResponse> getHourlyForecast(
+    Call<List<HourlyForecast>> getHourlyForecast(
             @Query("lat") double lat,
             @Query("lon") double lon,
             @Query("appid") String appid,
-            @Query("units") String units);
+            @Query("units") String units,
+            @Tag RequestPriority priority);
 }
\ No newline at end of file
@@ -1,10 +1,11 @@
 package com.meteo_app_java.data.remote;
 
-import com.meteo_app_java.data.remote.response.DailyForecastResponse;
+import com.meteo_app_java.data.ForecastBundle;
 
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Query;
+import retrofit2.http.Tag;
 
 /**
  * Interface for OpenWeatherMap API v3.0 calls.
@@ -14,18 +15,20 @@ public interface WeatherApiServiceV3 {
     /**
      * Get daily forecast (using API v3.0 OneCall).
      *
-     * @param lat     Latitude
-     * @param lon     Longitude
-     * @param appid   API key
-     * @param units   Units (metric, imperial)
-     * @param exclude Parts to exclude from the response
-     * @return Daily forecast data
+     * @param lat      Latitude
+     * @param lon      Longitude
+     * @param appid    API key
+     * @param units    Units (metric, imperial)
+     * @param exclude  Parts to exclude from the response
+     * @param priority Priority for the quota governor
+     * @return Current weather, hourly and daily forecast data
      */
     @GET("onecall")
-    Call<DailyForecastResponse> getDailyForecast(
+    Call<ForecastBundle> getDailyForecast(
             @Query("lat") double lat,
             @Query("lon") double lon,
             @Query("appid") String appid,
             @Query("units") String units,
-            @Query("exclude") String exclude);
+            @Query("exclude") String exclude,
+            @Tag RequestPriority priority);
 }
\ No newline at end of file
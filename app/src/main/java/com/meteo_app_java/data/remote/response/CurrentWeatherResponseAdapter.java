@@ -0,0 +1,183 @@
+package com.meteo_app_java.data.remote.response;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.meteo_app_java.models.Weather;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Streams a current weather response ("weather" endpoint) straight into a
+ * {@link Weather} entity, skipping every field the app does not use.
+ */
+public class CurrentWeatherResponseAdapter extends ResponseAdapter<Weather> {
+
+    @Override
+    public Weather read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Weather weather = new Weather();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "coord":
+                    readCoord(in, weather);
+                    break;
+                case "weather":
+                    Condition condition = readFirstCondition(in);
+                    if (condition != null) {
+                        weather.setWeatherMain(condition.main);
+                        weather.setWeatherDescription(condition.description);
+                        weather.setWeatherIcon(condition.icon);
+                    }
+                    break;
+                case "main":
+                    readMain(in, weather);
+                    break;
+                case "wind":
+                    readWind(in, weather);
+                    break;
+                case "dt":
+                    weather.setTimestamp(nextLong(in));
+                    break;
+                case "sys":
+                    readSys(in, weather);
+                    break;
+                case "name":
+                    weather.setCityName(nextString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        weather.setLastUpdated(new Date());
+        return weather;
+    }
+
+    private void readCoord(JsonReader in, Weather weather) throws IOException {
+        if (!beginObjectOrNull(in)) {
+            return;
+        }
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "lat":
+                    weather.setLatitude(nextDouble(in));
+                    break;
+                case "lon":
+                    weather.setLongitude(nextDouble(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private void readMain(JsonReader in, Weather weather) throws IOException {
+        if (!beginObjectOrNull(in)) {
+            return;
+        }
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "temp":
+                    weather.setTemperature(nextDouble(in));
+                    break;
+                case "feels_like":
+                    weather.setFeelsLike(nextDouble(in));
+                    break;
+                case "temp_min":
+                    weather.setTempMin(nextDouble(in));
+                    break;
+                case "temp_max":
+                    weather.setTempMax(nextDouble(in));
+                    break;
+                case "pressure":
+                    weather.setPressure(nextInt(in));
+                    break;
+                case "humidity":
+                    weather.setHumidity(nextInt(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private void readWind(JsonReader in, Weather weather) throws IOException {
+        if (!beginObjectOrNull(in)) {
+            return;
+        }
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "speed":
+                    weather.setWindSpeed(nextDouble(in));
+                    break;
+                case "deg":
+                    weather.setWindDegree(nextInt(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private void readSys(JsonReader in, Weather weather) throws IOException {
+        if (!beginObjectOrNull(in)) {
+            return;
+        }
+        while (in.hasNext()) {
+            if ("country".equals(in.nextName())) {
+                weather.setCountryCode(nextString(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    /**
+     * Write the entity back in the API's format, so it can be read by {@link #read}.
+     */
+    @Override
+    public void write(JsonWriter out, Weather weather) throws IOException {
+        if (weather == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("coord").beginObject()
+                .name("lon").value(weather.getLongitude())
+                .name("lat").value(weather.getLatitude())
+                .endObject();
+        writeCondition(out, weather.getWeatherMain(), weather.getWeatherDescription(),
+                weather.getWeatherIcon());
+        out.name("main").beginObject()
+                .name("temp").value(weather.getTemperature())
+                .name("feels_like").value(weather.getFeelsLike())
+                .name("temp_min").value(weather.getTempMin())
+                .name("temp_max").value(weather.getTempMax())
+                .name("pressure").value(weather.getPressure())
+                .name("humidity").value(weather.getHumidity())
+                .endObject();
+        out.name("wind").beginObject()
+                .name("speed").value(weather.getWindSpeed())
+                .name("deg").value(weather.getWindDegree())
+                .endObject();
+        out.name("dt").value(weather.getTimestamp());
+        out.name("sys").beginObject()
+                .name("country").value(weather.getCountryCode())
+                .endObject();
+        out.name("name").value(weather.getCityName());
+        out.endObject();
+    }
+}
@@ -0,0 +1,375 @@
+package com.meteo_app_java.data.remote.response;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.meteo_app_java.data.ForecastBundle;
+import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.HourlyForecast;
+import com.meteo_app_java.models.Weather;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Streams a OneCall response ("onecall" endpoint) straight into a
+ * {@link ForecastBundle} of current weather, hourly and daily entities,
+ * skipping "minutely", "alerts" and every field the app does not use.
+ *
+ * OneCall has no place name, so the city name and country are left unset
+ * unless "name" and "country" fields are present (which is the case for
+ * cached bundles); the repository names the location.
+ */
+public class DailyForecastResponseAdapter extends ResponseAdapter<ForecastBundle> {
+
+    @Override
+    public ForecastBundle read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        double lat = 0;
+        double lon = 0;
+        String name = null;
+        String country = null;
+        Weather weather = null;
+        List<HourlyForecast> hourlyForecasts = new ArrayList<>();
+        List<DailyForecast> dailyForecasts = new ArrayList<>();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "lat":
+                    lat = nextDouble(in);
+                    break;
+                case "lon":
+                    lon = nextDouble(in);
+                    break;
+                case "name":
+                    name = nextString(in);
+                    break;
+                case "country":
+                    country = nextString(in);
+                    break;
+                case "current":
+                    weather = readCurrent(in);
+                    break;
+                case "hourly":
+                    if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            hourlyForecasts.add(readHourly(in));
+                        }
+                        in.endArray();
+                    } else {
+                        in.skipValue();
+                    }
+                    break;
+                case "daily":
+                    if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            dailyForecasts.add(readDaily(in));
+                        }
+                        in.endArray();
+                    } else {
+                        in.skipValue();
+                    }
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (weather != null) {
+            weather.setLatitude(lat);
+            weather.setLongitude(lon);
+            weather.setCityName(name);
+            weather.setCountryCode(country);
+
+            // OneCall has no min/max for the current conditions, use today's forecast
+            if (!dailyForecasts.isEmpty()) {
+                weather.setTempMin(dailyForecasts.get(0).getTempMin());
+                weather.setTempMax(dailyForecasts.get(0).getTempMax());
+            }
+        }
+
+        return new ForecastBundle(weather, hourlyForecasts, dailyForecasts);
+    }
+
+    private Weather readCurrent(JsonReader in) throws IOException {
+        if (!beginObjectOrNull(in)) {
+            return null;
+        }
+
+        Weather weather = new Weather();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "dt":
+                    weather.setTimestamp(nextLong(in));
+                    break;
+                case "temp":
+                    weather.setTemperature(nextDouble(in));
+                    break;
+                case "feels_like":
+                    weather.setFeelsLike(nextDouble(in));
+                    break;
+                case "pressure":
+                    weather.setPressure(nextInt(in));
+                    break;
+                case "humidity":
+                    weather.setHumidity(nextInt(in));
+                    break;
+                case "wind_speed":
+                    weather.setWindSpeed(nextDouble(in));
+                    break;
+                case "wind_deg":
+                    weather.setWindDegree(nextInt(in));
+                    break;
+                case "weather":
+                    Condition condition = readFirstCondition(in);
+                    if (condition != null) {
+                        weather.setWeatherMain(condition.main);
+                        weather.setWeatherDescription(condition.description);
+                        weather.setWeatherIcon(condition.icon);
+                    }
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        weather.setLastUpdated(new Date());
+        return weather;
+    }
+
+    private HourlyForecast readHourly(JsonReader in) throws IOException {
+        HourlyForecast forecast = new HourlyForecast();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "dt":
+                    forecast.setTimestamp(nextLong(in));
+                    break;
+                case "temp":
+                    forecast.setTemperature(nextDouble(in));
+                    break;
+                case "feels_like":
+                    forecast.setFeelsLike(nextDouble(in));
+                    break;
+                case "pressure":
+                    forecast.setPressure(nextInt(in));
+                    break;
+                case "humidity":
+                    forecast.setHumidity(nextInt(in));
+                    break;
+                case "wind_speed":
+                    forecast.setWindSpeed(nextDouble(in));
+                    break;
+                case "wind_deg":
+                    forecast.setWindDegree(nextInt(in));
+                    break;
+                case "pop":
+                    forecast.setPop((int) Math.round(nextDouble(in) * 100)); // Convert to percentage
+                    break;
+                case "rain":
+                    forecast.setRainVolume(readVolume(in, "1h"));
+                    break;
+                case "weather":
+                    Condition condition = readFirstCondition(in);
+                    if (condition != null) {
+                        forecast.setWeatherMain(condition.main);
+                        forecast.setWeatherDescription(condition.description);
+                        forecast.setWeatherIcon(condition.icon);
+                    }
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return forecast;
+    }
+
+    private DailyForecast readDaily(JsonReader in) throws IOException {
+        DailyForecast forecast = new DailyForecast();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "dt":
+                    forecast.setTimestamp(nextLong(in));
+                    break;
+                case "sunrise":
+                    forecast.setSunrise(nextLong(in));
+                    break;
+                case "sunset":
+                    forecast.setSunset(nextLong(in));
+                    break;
+                case "temp":
+                    readTemp(in, forecast);
+                    break;
+                case "feels_like":
+                    readFeelsLike(in, forecast);
+                    break;
+                case "pressure":
+                    forecast.setPressure(nextInt(in));
+                    break;
+                case "humidity":
+                    forecast.setHumidity(nextInt(in));
+                    break;
+                case "wind_speed":
+                    forecast.setWindSpeed(nextDouble(in));
+                    break;
+                case "wind_deg":
+                    forecast.setWindDegree(nextInt(in));
+                    break;
+                case "pop":
+                    forecast.setPop((int) Math.round(nextDouble(in) * 100)); // Convert to percentage
+                    break;
+                case "rain":
+                    forecast.setRainVolume(nextDouble(in));
+                    break;
+                case "weather":
+                    Condition condition = readFirstCondition(in);
+                    if (condition != null) {
+                        forecast.setWeatherMain(condition.main);
+                        forecast.setWeatherDescription(condition.description);
+                        forecast.setWeatherIcon(condition.icon);
+                    }
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return forecast;
+    }
+
+    private void readTemp(JsonReader in, DailyForecast forecast) throws IOException {
+        if (!beginObjectOrNull(in)) {
+            return;
+        }
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "day":
+                    forecast.setTempDay(nextDouble(in));
+                    break;
+                case "night":
+                    forecast.setTempNight(nextDouble(in));
+                    break;
+                case "min":
+                    forecast.setTempMin(nextDouble(in));
+                    break;
+                case "max":
+                    forecast.setTempMax(nextDouble(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private void readFeelsLike(JsonReader in, DailyForecast forecast) throws IOException {
+        if (!beginObjectOrNull(in)) {
+            return;
+        }
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "day":
+                    forecast.setFeelsLikeDay(nextDouble(in));
+                    break;
+                case "night":
+                    forecast.setFeelsLikeNight(nextDouble(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    /**
+     * Write the bundle back in the API's format, so it can be read by {@link #read}.
+     * The resolved city name and country are written as extra top-level fields.
+     */
+    @Override
+    public void write(JsonWriter out, ForecastBundle bundle) throws IOException {
+        if (bundle == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        Weather weather = bundle.getWeather();
+        if (weather != null) {
+            out.name("lat").value(weather.getLatitude());
+            out.name("lon").value(weather.getLongitude());
+            out.name("name").value(weather.getCityName());
+            out.name("country").value(weather.getCountryCode());
+            out.name("current").beginObject()
+                    .name("dt").value(weather.getTimestamp())
+                    .name("temp").value(weather.getTemperature())
+                    .name("feels_like").value(weather.getFeelsLike())
+                    .name("pressure").value(weather.getPressure())
+                    .name("humidity").value(weather.getHumidity())
+                    .name("wind_speed").value(weather.getWindSpeed())
+                    .name("wind_deg").value(weather.getWindDegree());
+            writeCondition(out, weather.getWeatherMain(), weather.getWeatherDescription(),
+                    weather.getWeatherIcon());
+            out.endObject();
+        }
+
+        out.name("hourly").beginArray();
+        for (HourlyForecast forecast : bundle.getHourlyForecasts()) {
+            out.beginObject()
+                    .name("dt").value(forecast.getTimestamp())
+                    .name("temp").value(forecast.getTemperature())
+                    .name("feels_like").value(forecast.getFeelsLike())
+                    .name("pressure").value(forecast.getPressure())
+                    .name("humidity").value(forecast.getHumidity())
+                    .name("wind_speed").value(forecast.getWindSpeed())
+                    .name("wind_deg").value(forecast.getWindDegree())
+                    .name("pop").value(forecast.getPop() / 100.0);
+            out.name("rain").beginObject().name("1h").value(forecast.getRainVolume()).endObject();
+            writeCondition(out, forecast.getWeatherMain(), forecast.getWeatherDescription(),
+                    forecast.getWeatherIcon());
+            out.endObject();
+        }
+        out.endArray();
+
+        out.name("daily").beginArray();
+        for (DailyForecast forecast : bundle.getDailyForecasts()) {
+            out.beginObject()
+                    .name("dt").value(forecast.getTimestamp())
+                    .name("sunrise").value(forecast.getSunrise())
+                    .name("sunset").value(forecast.getSunset());
+            out.name("temp").beginObject()
+                    .name("day").value(forecast.getTempDay())
+                    .name("night").value(forecast.getTempNight())
+                    .name("min").value(forecast.getTempMin())
+                    .name("max").value(forecast.getTempMax())
+                    .endObject();
+            out.name("feels_like").beginObject()
+                    .name("day").value(forecast.getFeelsLikeDay())
+                    .name("night").value(forecast.getFeelsLikeNight())
+                    .endObject();
+            out.name("pressure").value(forecast.getPressure())
+                    .name("humidity").value(forecast.getHumidity())
+                    .name("wind_speed").value(forecast.getWindSpeed())
+                    .name("wind_deg").value(forecast.getWindDegree())
+                    .name("pop").value(forecast.getPop() / 100.0)
+                    .name("rain").value(forecast.getRainVolume());
+            writeCondition(out, forecast.getWeatherMain(), forecast.getWeatherDescription(),
+                    forecast.getWeatherIcon());
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+}
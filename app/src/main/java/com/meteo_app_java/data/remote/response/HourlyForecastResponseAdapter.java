@@ -0,0 +1,167 @@
+package com.meteo_app_java.data.remote.response;
+
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.meteo_app_java.models.HourlyForecast;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a 5-day / 3-hour forecast response ("forecast" endpoint) straight into
+ * a list of {@link HourlyForecast} entities, skipping the city block and every
+ * field the app does not use.
+ */
+public class HourlyForecastResponseAdapter extends ResponseAdapter<List<HourlyForecast>> {
+
+    /**
+     * The type this adapter is registered for.
+     */
+    public static final Type TYPE = new TypeToken<List<HourlyForecast>>() {
+    }.getType();
+
+    @Override
+    public List<HourlyForecast> read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        List<HourlyForecast> forecasts = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("list".equals(in.nextName()) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    forecasts.add(readForecast(in));
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return forecasts;
+    }
+
+    private HourlyForecast readForecast(JsonReader in) throws IOException {
+        HourlyForecast forecast = new HourlyForecast();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "dt":
+                    forecast.setTimestamp(nextLong(in));
+                    break;
+                case "main":
+                    readMain(in, forecast);
+                    break;
+                case "weather":
+                    Condition condition = readFirstCondition(in);
+                    if (condition != null) {
+                        forecast.setWeatherMain(condition.main);
+                        forecast.setWeatherDescription(condition.description);
+                        forecast.setWeatherIcon(condition.icon);
+                    }
+                    break;
+                case "wind":
+                    readWind(in, forecast);
+                    break;
+                case "pop":
+                    forecast.setPop((int) Math.round(nextDouble(in) * 100)); // Convert to percentage
+                    break;
+                case "rain":
+                    forecast.setRainVolume(readVolume(in, "3h"));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return forecast;
+    }
+
+    private void readMain(JsonReader in, HourlyForecast forecast) throws IOException {
+        if (!beginObjectOrNull(in)) {
+            return;
+        }
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "temp":
+                    forecast.setTemperature(nextDouble(in));
+                    break;
+                case "feels_like":
+                    forecast.setFeelsLike(nextDouble(in));
+                    break;
+                case "pressure":
+                    forecast.setPressure(nextInt(in));
+                    break;
+                case "humidity":
+                    forecast.setHumidity(nextInt(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private void readWind(JsonReader in, HourlyForecast forecast) throws IOException {
+        if (!beginObjectOrNull(in)) {
+            return;
+        }
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "speed":
+                    forecast.setWindSpeed(nextDouble(in));
+                    break;
+                case "deg":
+                    forecast.setWindDegree(nextInt(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    /**
+     * Write the entities back in the API's format, so they can be read by {@link #read}.
+     */
+    @Override
+    public void write(JsonWriter out, List<HourlyForecast> forecasts) throws IOException {
+        if (forecasts == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("list").beginArray();
+        for (HourlyForecast forecast : forecasts) {
+            out.beginObject();
+            out.name("dt").value(forecast.getTimestamp());
+            out.name("main").beginObject()
+                    .name("temp").value(forecast.getTemperature())
+                    .name("feels_like").value(forecast.getFeelsLike())
+                    .name("pressure").value(forecast.getPressure())
+                    .name("humidity").value(forecast.getHumidity())
+                    .endObject();
+            writeCondition(out, forecast.getWeatherMain(), forecast.getWeatherDescription(),
+                    forecast.getWeatherIcon());
+            out.name("wind").beginObject()
+                    .name("speed").value(forecast.getWindSpeed())
+                    .name("deg").value(forecast.getWindDegree())
+                    .endObject();
+            out.name("pop").value(forecast.getPop() / 100.0);
+            out.name("rain").beginObject()
+                    .name("3h").value(forecast.getRainVolume())
+                    .endObject();
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+}
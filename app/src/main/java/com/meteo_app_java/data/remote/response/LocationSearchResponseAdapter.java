@@ -0,0 +1,64 @@
+package com.meteo_app_java.data.remote.response;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streams a geocoding result ("direct" endpoint) without reflection, skipping
+ * the large "local_names" object.
+ */
+public class LocationSearchResponseAdapter extends ResponseAdapter<LocationSearchResponse.LocationResult> {
+
+    @Override
+    public LocationSearchResponse.LocationResult read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        LocationSearchResponse.LocationResult result = new LocationSearchResponse.LocationResult();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name":
+                    result.name = nextString(in);
+                    break;
+                case "lat":
+                    result.lat = nextDouble(in);
+                    break;
+                case "lon":
+                    result.lon = nextDouble(in);
+                    break;
+                case "country":
+                    result.country = nextString(in);
+                    break;
+                case "state":
+                    result.state = nextString(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return result;
+    }
+
+    @Override
+    public void write(JsonWriter out, LocationSearchResponse.LocationResult result) throws IOException {
+        if (result == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject()
+                .name("name").value(result.name)
+                .name("lat").value(result.lat)
+                .name("lon").value(result.lon)
+                .name("country").value(result.country)
+                .name("state").value(result.state)
+                .endObject();
+    }
+}
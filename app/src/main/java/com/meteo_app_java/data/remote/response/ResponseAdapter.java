@@ -0,0 +1,138 @@
+package com.meteo_app_java.data.remote.response;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Base class for the streaming, reflection-free adapters that decode API
+ * responses straight into entities. Holds the reading helpers they share.
+ */
+abstract class ResponseAdapter<T> extends TypeAdapter<T> {
+
+    /**
+     * First entry of a "weather" conditions array.
+     */
+    static final class Condition {
+        String main;
+        String description;
+        String icon;
+    }
+
+    /**
+     * Read a "weather" array, keeping only its first condition.
+     */
+    static Condition readFirstCondition(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Condition first = null;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (first != null) {
+                in.skipValue();
+                continue;
+            }
+            first = new Condition();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "main":
+                        first.main = nextString(in);
+                        break;
+                    case "description":
+                        first.description = nextString(in);
+                        break;
+                    case "icon":
+                        first.icon = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+        in.endArray();
+        return first;
+    }
+
+    /**
+     * Write a "weather" array with a single condition.
+     */
+    static void writeCondition(JsonWriter out, String main, String description, String icon)
+            throws IOException {
+        out.name("weather").beginArray().beginObject()
+                .name("main").value(main)
+                .name("description").value(description)
+                .name("icon").value(icon)
+                .endObject().endArray();
+    }
+
+    /**
+     * Read the value of a single-field object such as {"1h": 0.5}, or 0 if absent.
+     */
+    static double readVolume(JsonReader in, String field) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+
+        double volume = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            if (field.equals(in.nextName())) {
+                volume = nextDouble(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return volume;
+    }
+
+    /**
+     * Read an object or null, returning false (and consuming the null) if it is null.
+     */
+    static boolean beginObjectOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        }
+        in.beginObject();
+        return true;
+    }
+
+    static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    static double nextDouble(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextDouble();
+    }
+
+    static long nextLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return (long) in.nextDouble();
+    }
+
+    static int nextInt(JsonReader in) throws IOException {
+        // Some integer fields occasionally come back with a fractional part
+        return (int) Math.round(nextDouble(in));
+    }
+}
@@ -0,0 +1,49 @@
+package com.meteo_app_java.data.telemetry;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends telemetry to a Firestore collection, one document per event, with all
+ * events of a batch committed in a single {@link WriteBatch}.
+ */
+public class FirestoreTelemetrySink implements TelemetrySink {
+
+    // Firestore limit on the number of writes in a batch
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final FirebaseFirestore firestore;
+    private final String collection;
+
+    public FirestoreTelemetrySink(FirebaseFirestore firestore, String collection) {
+        this.firestore = firestore;
+        this.collection = collection;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public void send(List<TelemetryEvent> events, Callback callback) {
+        CollectionReference documents = firestore.collection(collection);
+        WriteBatch batch = firestore.batch();
+        for (TelemetryEvent event : events) {
+            Map<String, Object> document = new HashMap<>(event.getFields());
+            document.put("type", event.getType());
+            document.put("timestamp", new Date(event.getTimeMillis()));
+            batch.set(documents.document(), document);
+        }
+
+        batch.commit()
+                .addOnSuccessListener(result -> callback.onSuccess())
+                .addOnFailureListener(callback::onFailure);
+    }
+}
@@ -0,0 +1,32 @@
+package com.meteo_app_java.data.telemetry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A telemetry event: a type, when it happened, and flat key/value fields.
+ */
+public class TelemetryEvent {
+    private final String type;
+    private final long timeMillis;
+    private final Map<String, Object> fields;
+
+    public TelemetryEvent(String type, long timeMillis, Map<String, Object> fields) {
+        this.type = type;
+        this.timeMillis = timeMillis;
+        this.fields = new HashMap<>(fields);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public Map<String, Object> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+}
@@ -0,0 +1,169 @@
+package com.meteo_app_java.data.telemetry;
+
+import android.util.Log;
+
+import com.meteo_app_java.data.TaskScheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Samples telemetry events, queues them durably and sends them to a sink in
+ * batches, either periodically or once enough events are queued. All queue work
+ * runs on the telemetry lane of the {@link TaskScheduler}.
+ */
+public class TelemetryPipeline {
+    private static final String TAG = "TelemetryPipeline";
+
+    // Defaults
+    public static final double DEFAULT_SAMPLE_RATE = 0.25;
+    public static final int DEFAULT_FLUSH_THRESHOLD = 50;
+    public static final long DEFAULT_FLUSH_INTERVAL_MINUTES = 15;
+
+    // Field added to every event so consumers can weight sampled counts
+    private static final String FIELD_SAMPLE_RATE = "sample_rate";
+
+    private final TelemetryQueue queue;
+    private final TelemetrySink sink;
+    private final TaskScheduler scheduler;
+    private ScheduledExecutorService timer;
+    private volatile double sampleRate = DEFAULT_SAMPLE_RATE;
+    private volatile int flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+    // Set while a batch is being sent; cleared by the sink's callback on any thread,
+    // so a dropped lane task cannot leave it set
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    // Batch sent but not removed from the queue yet; removed on the telemetry lane
+    private final AtomicReference<TelemetryQueue.Batch> sentBatch = new AtomicReference<>();
+
+    public TelemetryPipeline(TelemetryQueue queue, TelemetrySink sink, TaskScheduler scheduler) {
+        this.queue = queue;
+        this.sink = sink;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Set the fraction of events kept, between 0 (none) and 1 (all).
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Set the number of queued events that triggers a flush.
+     */
+    public void setFlushThreshold(int flushThreshold) {
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * Start flushing periodically. Calling it again has no effect.
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (timer != null) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(
+                runnable -> new Thread(runnable, "telemetry-flush-timer"));
+        timer.scheduleWithFixedDelay(this::flush, interval, interval, unit);
+    }
+
+    /**
+     * Record an event, subject to sampling.
+     *
+     * @param type   Event type
+     * @param fields Event fields; values should be strings, numbers or booleans
+     */
+    public void record(String type, Map<String, Object> fields) {
+        double rate = sampleRate;
+        if (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+
+        Map<String, Object> sampledFields = new HashMap<>(fields);
+        sampledFields.put(FIELD_SAMPLE_RATE, rate);
+        TelemetryEvent event = new TelemetryEvent(type, System.currentTimeMillis(), sampledFields);
+        scheduler.execute(TaskScheduler.Lane.TELEMETRY, () -> {
+            queue.append(event);
+            if (queue.size() >= flushThreshold) {
+                flushQueued();
+            }
+        });
+    }
+
+    /**
+     * Send queued events now.
+     */
+    public void flush() {
+        scheduler.execute(TaskScheduler.Lane.TELEMETRY, this::flushQueued);
+    }
+
+    /**
+     * Number of events waiting to be sent.
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Number of events dropped because the queue was full.
+     */
+    public long getDroppedCount() {
+        return queue.getDroppedCount();
+    }
+
+    private void flushQueued() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        // The last batch sent is removed here if its own task was dropped, so it is
+        // never sent twice
+        removeSentBatch();
+
+        TelemetryQueue.Batch batch = queue.peek(sink.getMaxBatchSize());
+        if (batch.getEvents().isEmpty()) {
+            // Nothing queued, or only unreadable slots, which are discarded
+            queue.remove(batch);
+            flushing.set(false);
+            return;
+        }
+
+        sink.send(batch.getEvents(), new TelemetrySink.Callback() {
+            @Override
+            public void onSuccess() {
+                sentBatch.set(batch);
+                flushing.set(false);
+                Log.d(TAG, "Sent " + batch.getEvents().size() + " telemetry events");
+                scheduler.execute(TaskScheduler.Lane.TELEMETRY, () -> {
+                    removeSentBatch();
+                    if (queue.size() >= flushThreshold) {
+                        flushQueued();
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                // Keep the events for the next flush
+                flushing.set(false);
+                Log.e(TAG, "Error sending telemetry events", e);
+            }
+        });
+    }
+
+    private void removeSentBatch() {
+        TelemetryQueue.Batch batch = sentBatch.getAndSet(null);
+        if (batch != null) {
+            queue.remove(batch);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.meteo_app_java.data.telemetry;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bounded, file-backed FIFO of telemetry events, so queued events survive the
+ * process being killed. When full, appending drops the oldest event.
+ *
+ * <p>The file is a ring of fixed-size slots after a header holding the capacity,
+ * the slot of the oldest event, the number of events and the sequence number of
+ * the oldest event. Each slot holds a length-prefixed JSON event.
+ */
+public class TelemetryQueue {
+    private static final String TAG = "TelemetryQueue";
+
+    // "MTEL"
+    private static final int MAGIC = 0x4D54454C;
+    private static final int HEADER_SIZE = 24;
+    private static final int SLOT_SIZE = 512;
+
+    /**
+     * Events read from the head of the queue, with the sequence number of the last
+     * one so they can be removed once sent.
+     */
+    public static class Batch {
+        private final List<TelemetryEvent> events;
+        private final long lastSequence;
+
+        Batch(List<TelemetryEvent> events, long lastSequence) {
+            this.events = Collections.unmodifiableList(events);
+            this.lastSequence = lastSequence;
+        }
+
+        public List<TelemetryEvent> getEvents() {
+            return events;
+        }
+
+        public long getLastSequence() {
+            return lastSequence;
+        }
+    }
+
+    private final File file;
+    private final int capacity;
+    private final Gson gson = new Gson();
+    private RandomAccessFile raf;
+    private int head;
+    private int count;
+    private long headSequence;
+    private long dropped;
+
+    public TelemetryQueue(File file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Append an event, dropping the oldest one if the queue is full.
+     *
+     * @return false if the event could not be stored
+     */
+    public synchronized boolean append(TelemetryEvent event) {
+        byte[] data = gson.toJson(event).getBytes(StandardCharsets.UTF_8);
+        if (data.length > SLOT_SIZE - 2) {
+            Log.w(TAG, "Dropping oversized " + event.getType() + " event (" + data.length + " bytes)");
+            return false;
+        }
+
+        try {
+            open();
+            if (count == capacity) {
+                head = (head + 1) % capacity;
+                headSequence++;
+                count--;
+                dropped++;
+            }
+
+            raf.seek(slotOffset((head + count) % capacity));
+            raf.writeShort(data.length);
+            raf.write(data);
+            count++;
+            writeHeader();
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Error appending telemetry event", e);
+            return false;
+        }
+    }
+
+    /**
+     * Read up to max events from the head of the queue without removing them.
+     * Unreadable slots are skipped.
+     */
+    public synchronized Batch peek(int max) {
+        List<TelemetryEvent> events = new ArrayList<>();
+        long lastSequence = headSequence - 1;
+        try {
+            open();
+            int n = Math.min(max, count);
+            for (int i = 0; i < n; i++) {
+                raf.seek(slotOffset((head + i) % capacity));
+                int length = raf.readUnsignedShort();
+                byte[] data = new byte[Math.min(length, SLOT_SIZE - 2)];
+                raf.readFully(data);
+                lastSequence = headSequence + i;
+                try {
+                    TelemetryEvent event = gson.fromJson(new String(data, StandardCharsets.UTF_8),
+                            TelemetryEvent.class);
+                    if (event != null) {
+                        events.add(event);
+                    }
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Skipping unreadable telemetry event", e);
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading telemetry events", e);
+        }
+        return new Batch(events, lastSequence);
+    }
+
+    /**
+     * Remove the events of a batch that are still queued. Events dropped in the
+     * meantime to make room are not counted twice.
+     */
+    public synchronized void remove(Batch batch) {
+        int n = (int) Math.min(count, batch.getLastSequence() - headSequence + 1);
+        if (n <= 0) {
+            return;
+        }
+        head = (head + n) % capacity;
+        headSequence += n;
+        count -= n;
+        try {
+            open();
+            writeHeader();
+        } catch (IOException e) {
+            Log.e(TAG, "Error removing telemetry events", e);
+        }
+    }
+
+    public synchronized int size() {
+        try {
+            open();
+        } catch (IOException e) {
+            Log.e(TAG, "Error opening telemetry queue", e);
+        }
+        return count;
+    }
+
+    /**
+     * Number of events dropped because the queue was full, since the app started.
+     */
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Open the file on first use, starting over if it is missing, corrupt or was
+     * created with another capacity.
+     */
+    private void open() throws IOException {
+        if (raf != null) {
+            return;
+        }
+        raf = new RandomAccessFile(file, "rw");
+
+        if (raf.length() >= HEADER_SIZE) {
+            raf.seek(0);
+            int magic = raf.readInt();
+            int storedCapacity = raf.readInt();
+            int storedHead = raf.readInt();
+            int storedCount = raf.readInt();
+            long storedSequence = raf.readLong();
+            if (magic == MAGIC && storedCapacity == capacity
+                    && storedHead >= 0 && storedHead < capacity
+                    && storedCount >= 0 && storedCount <= capacity) {
+                head = storedHead;
+                count = storedCount;
+                headSequence = storedSequence;
+                return;
+            }
+            Log.w(TAG, "Resetting unreadable telemetry queue");
+        }
+
+        head = 0;
+        count = 0;
+        headSequence = 0;
+        raf.setLength(HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        writeHeader();
+    }
+
+    private void writeHeader() throws IOException {
+        raf.seek(0);
+        raf.writeInt(MAGIC);
+        raf.writeInt(capacity);
+        raf.writeInt(head);
+        raf.writeInt(count);
+        raf.writeLong(headSequence);
+    }
+
+    private static long slotOffset(int slot) {
+        return HEADER_SIZE + (long) slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,29 @@
+package com.meteo_app_java.data.telemetry;
+
+import java.util.List;
+
+/**
+ * Destination of telemetry batches.
+ */
+public interface TelemetrySink {
+
+    /**
+     * Receives the outcome of a send.
+     */
+    interface Callback {
+        void onSuccess();
+
+        void onFailure(Exception e);
+    }
+
+    /**
+     * Maximum number of events accepted in one batch.
+     */
+    int getMaxBatchSize();
+
+    /**
+     * Send a batch of events. The callback must be called exactly once; on failure
+     * the events are kept and sent again with the next flush.
+     */
+    void send(List<TelemetryEvent> events, Callback callback);
+}
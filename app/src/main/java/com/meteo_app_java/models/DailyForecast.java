@@ -8,8 +8,8 @@ import androidx.room.PrimaryKey;
 /**
  * Entity class for storing daily forecast data.
  */
-@Entity(tableName = "daily_forecast", foreignKeys = @ForeignKey(entity = Weather.class, parentColumns = "id", childColumns = "locationId", onDelete = ForeignKey.CASCADE), indices = {
-        @Index("locationId") })
+@Entity(tableName = "daily_forecast", foreignKeys = @ForeignKey(entity = ForecastLocation.class, parentColumns = "id", childColumns = "locationId", onDelete = ForeignKey.CASCADE), indices = {
+        @Index(value = { "locationId", "timestamp" }, unique = true), @Index("timestamp") })
 public class DailyForecast {
     @PrimaryKey(autoGenerate = true)
     private int id;
@@ -0,0 +1,85 @@
+package com.meteo_app_java.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class for a location with stored weather and forecasts, unique per
+ * {@link com.meteo_app_java.data.LocationKey}. Weather, hourly and daily
+ * forecast rows reference it by id.
+ */
+@Entity(tableName = "forecast_location", indices = {
+        @Index(value = "locationKey", unique = true) })
+public class ForecastLocation {
+    @PrimaryKey(autoGenerate = true)
+    private int id;
+
+    // Geohash cell and units, see LocationKey
+    @NonNull
+    private String locationKey = "";
+    private String cityName;
+    private String countryCode;
+    private double latitude;
+    private double longitude;
+    private long lastUpdated;
+
+    // Getters and setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getLocationKey() {
+        return locationKey;
+    }
+
+    public void setLocationKey(@NonNull String locationKey) {
+        this.locationKey = locationKey;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public void setCityName(String cityName) {
+        this.cityName = cityName;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public void setCountryCode(String countryCode) {
+        this.countryCode = countryCode;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
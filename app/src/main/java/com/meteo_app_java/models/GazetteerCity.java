@@ -0,0 +1,91 @@
+package com.meteo_app_java.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class for a city of the offline gazetteer. The index on the normalized
+ * name and population serves prefix searches ranked by population.
+ */
+@Entity(tableName = "city", indices = { @Index(value = { "normalizedName", "population" }) })
+public class GazetteerCity {
+    @PrimaryKey
+    private int id; // OpenWeatherMap city id
+
+    private String name;
+    @NonNull
+    private String normalizedName = "";
+    private String state;
+    private String countryCode;
+    private double latitude;
+    private double longitude;
+    private long population;
+
+    // Getters and setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @NonNull
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public void setNormalizedName(@NonNull String normalizedName) {
+        this.normalizedName = normalizedName;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public void setCountryCode(String countryCode) {
+        this.countryCode = countryCode;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public long getPopulation() {
+        return population;
+    }
+
+    public void setPopulation(long population) {
+        this.population = population;
+    }
+}
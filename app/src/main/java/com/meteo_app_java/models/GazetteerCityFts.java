@@ -0,0 +1,48 @@
+package com.meteo_app_java.models;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * Full-text index of gazetteer city names, to find cities by any word of their
+ * name. Kept in sync with the city table by Room's triggers.
+ */
+@Fts4(contentEntity = GazetteerCity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "city_fts")
+public class GazetteerCityFts {
+    // Same as the id of the GazetteerCity row
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowid;
+
+    private String name;
+    private String countryCode;
+
+    // Getters and setters
+    public int getRowid() {
+        return rowid;
+    }
+
+    public void setRowid(int rowid) {
+        this.rowid = rowid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public void setCountryCode(String countryCode) {
+        this.countryCode = countryCode;
+    }
+}
@@ -0,0 +1,46 @@
+package com.meteo_app_java.models;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class for the completion marker of the gazetteer load. The single row
+ * is written in the same transaction as the last cities, so the gazetteer is
+ * only used once the whole city list is in.
+ */
+@Entity(tableName = "ingest_state")
+public class GazetteerIngestState {
+    // Only row
+    public static final int ID = 0;
+
+    @PrimaryKey
+    private int id = ID;
+
+    private int cityCount;
+    private long completedAt;
+
+    // Getters and setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getCityCount() {
+        return cityCount;
+    }
+
+    public void setCityCount(int cityCount) {
+        this.cityCount = cityCount;
+    }
+
+    public long getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(long completedAt) {
+        this.completedAt = completedAt;
+    }
+}
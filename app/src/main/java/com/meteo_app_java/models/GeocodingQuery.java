@@ -0,0 +1,45 @@
+package com.meteo_app_java.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class for a geocoding search whose results are cached, keyed by the
+ * normalized query. A query with no results is cached too, with a shorter lifetime.
+ */
+@Entity(tableName = "geocoding_query")
+public class GeocodingQuery {
+    @PrimaryKey
+    @NonNull
+    private String normalizedQuery = "";
+
+    private long fetchedAt; // Unix time in milliseconds
+    private int resultCount;
+
+    // Getters and setters
+    @NonNull
+    public String getNormalizedQuery() {
+        return normalizedQuery;
+    }
+
+    public void setNormalizedQuery(@NonNull String normalizedQuery) {
+        this.normalizedQuery = normalizedQuery;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(long fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+
+    public int getResultCount() {
+        return resultCount;
+    }
+
+    public void setResultCount(int resultCount) {
+        this.resultCount = resultCount;
+    }
+}
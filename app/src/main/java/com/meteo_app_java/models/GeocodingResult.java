@@ -0,0 +1,82 @@
+package com.meteo_app_java.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Entity class for one candidate returned by the geocoding API for a cached
+ * query, in the order the API returned it.
+ */
+@Entity(tableName = "geocoding_result", primaryKeys = { "normalizedQuery", "position" }, foreignKeys = @ForeignKey(entity = GeocodingQuery.class, parentColumns = "normalizedQuery", childColumns = "normalizedQuery", onDelete = ForeignKey.CASCADE), indices = {
+        @Index(value = { "normalizedQuery" }) })
+public class GeocodingResult {
+    @NonNull
+    private String normalizedQuery = "";
+
+    private int position;
+    private String name;
+    private String countryCode;
+    private String state;
+    private double latitude;
+    private double longitude;
+
+    // Getters and setters
+    @NonNull
+    public String getNormalizedQuery() {
+        return normalizedQuery;
+    }
+
+    public void setNormalizedQuery(@NonNull String normalizedQuery) {
+        this.normalizedQuery = normalizedQuery;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public void setCountryCode(String countryCode) {
+        this.countryCode = countryCode;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+}
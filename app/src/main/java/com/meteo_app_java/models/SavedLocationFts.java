@@ -0,0 +1,48 @@
+package com.meteo_app_java.models;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * Full-text index of saved location names. The unicode61 tokenizer folds case and
+ * accents; Room keeps the index in sync with saved_location through triggers.
+ */
+@Fts4(contentEntity = SavedLocation.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "saved_location_fts")
+public class SavedLocationFts {
+    // Same as the id of the SavedLocation row
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowid;
+
+    private String cityName;
+    private String countryCode;
+
+    // Getters and setters
+    public int getRowid() {
+        return rowid;
+    }
+
+    public void setRowid(int rowid) {
+        this.rowid = rowid;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public void setCityName(String cityName) {
+        this.cityName = cityName;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public void setCountryCode(String countryCode) {
+        this.countryCode = countryCode;
+    }
+}
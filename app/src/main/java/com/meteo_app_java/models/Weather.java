@@ -1,6 +1,8 @@
 package com.meteo_app_java.models;
 
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.util.Date;
@@ -8,11 +10,13 @@ import java.util.Date;
 /**
  * Entity class for storing current weather information.
  */
-@Entity(tableName = "weather")
+@Entity(tableName = "weather", foreignKeys = @ForeignKey(entity = ForecastLocation.class, parentColumns = "id", childColumns = "locationId", onDelete = ForeignKey.CASCADE), indices = {
+        @Index(value = { "locationId", "timestamp" }, unique = true), @Index("timestamp") })
 public class Weather {
     @PrimaryKey(autoGenerate = true)
     private int id;
 
+    private int locationId;
     private String cityName;
     private String countryCode;
     private double latitude;
@@ -41,6 +45,14 @@ public class Weather {
         this.id = id;
     }
 
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
     public String getCityName() {
         return cityName;
     }
@@ -0,0 +1,121 @@
+package com.meteo_app_java.models;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class for downsampled weather history: averages and extremes of the
+ * observations of one location over an hour or a day.
+ */
+@Entity(tableName = "weather_aggregate", foreignKeys = @ForeignKey(entity = ForecastLocation.class, parentColumns = "id", childColumns = "locationId", onDelete = ForeignKey.CASCADE), indices = {
+        @Index(value = { "locationId", "resolution", "bucketStart" }, unique = true) })
+public class WeatherAggregate {
+    // Bucket sizes, in seconds
+    public static final int RESOLUTION_HOURLY = 3600;
+    public static final int RESOLUTION_DAILY = 86400;
+
+    @PrimaryKey(autoGenerate = true)
+    private int id;
+
+    private int locationId;
+    private int resolution; // Bucket size in seconds
+    private long bucketStart; // Unix time in seconds
+    private int sampleCount;
+    private double temperatureAvg;
+    private double temperatureMin;
+    private double temperatureMax;
+    private double humidityAvg;
+    private double pressureAvg;
+    private double windSpeedAvg;
+
+    // Getters and setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(int resolution) {
+        this.resolution = resolution;
+    }
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(long bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(int sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public double getTemperatureAvg() {
+        return temperatureAvg;
+    }
+
+    public void setTemperatureAvg(double temperatureAvg) {
+        this.temperatureAvg = temperatureAvg;
+    }
+
+    public double getTemperatureMin() {
+        return temperatureMin;
+    }
+
+    public void setTemperatureMin(double temperatureMin) {
+        this.temperatureMin = temperatureMin;
+    }
+
+    public double getTemperatureMax() {
+        return temperatureMax;
+    }
+
+    public void setTemperatureMax(double temperatureMax) {
+        this.temperatureMax = temperatureMax;
+    }
+
+    public double getHumidityAvg() {
+        return humidityAvg;
+    }
+
+    public void setHumidityAvg(double humidityAvg) {
+        this.humidityAvg = humidityAvg;
+    }
+
+    public double getPressureAvg() {
+        return pressureAvg;
+    }
+
+    public void setPressureAvg(double pressureAvg) {
+        this.pressureAvg = pressureAvg;
+    }
+
+    public double getWindSpeedAvg() {
+        return windSpeedAvg;
+    }
+
+    public void setWindSpeedAvg(double windSpeedAvg) {
+        this.windSpeedAvg = windSpeedAvg;
+    }
+}
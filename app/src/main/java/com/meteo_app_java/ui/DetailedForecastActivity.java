@@ -3,10 +3,11 @@ package com.meteo_app_java.ui;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.view.View;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.lifecycle.Observer;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.viewpager2.widget.ViewPager2;
 
@@ -19,12 +20,13 @@ import com.github.mikephil.charting.formatter.ValueFormatter;
 import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayoutMediator;
 import com.meteo_app_java.R;
-import com.meteo_app_java.data.WeatherRepository;
 import com.meteo_app_java.databinding.ActivityDetailedForecastBinding;
 import com.meteo_app_java.models.DailyForecast;
 import com.meteo_app_java.models.HourlyForecast;
 import com.meteo_app_java.ui.adapters.DailyForecastPagerAdapter;
 import com.meteo_app_java.ui.adapters.HourlyForecastAdapter;
+import com.meteo_app_java.ui.viewmodels.DetailedForecastViewModel;
+import com.meteo_app_java.ui.viewmodels.ForecastUiState;
 import com.meteo_app_java.utils.PreferencesManager;
 import com.meteo_app_java.utils.WeatherUtils;
 
@@ -34,15 +36,13 @@ import java.util.List;
 public class DetailedForecastActivity extends AppCompatActivity {
 
     private ActivityDetailedForecastBinding binding;
-    private WeatherRepository weatherRepository;
+    private DetailedForecastViewModel viewModel;
     private PreferencesManager preferencesManager;
 
     private HourlyForecastAdapter hourlyAdapter;
     private DailyForecastPagerAdapter dailyPagerAdapter;
 
     private boolean isMetric;
-    private double latitude;
-    private double longitude;
     private String cityName;
 
     private List<DailyForecast> dailyForecasts;
@@ -59,18 +59,16 @@ public class DetailedForecastActivity extends AppCompatActivity {
         getSupportActionBar().setDisplayHomeAsUpEnabled(true);
         getSupportActionBar().setDisplayShowHomeEnabled(true);
 
-        // Initialize repositories and utilities
-        weatherRepository = WeatherRepository.getInstance();
+        // Initialize the view model and utilities
+        viewModel = new ViewModelProvider(this).get(DetailedForecastViewModel.class);
         preferencesManager = new PreferencesManager(this);
 
         // Get unit preference
         isMetric = preferencesManager.isUsingMetricUnits();
 
-        // Get location data from intent
-        if (getIntent().hasExtra("latitude") && getIntent().hasExtra("longitude")) {
-            latitude = getIntent().getDoubleExtra("latitude", 0);
-            longitude = getIntent().getDoubleExtra("longitude", 0);
-            cityName = getIntent().getStringExtra("city");
+        // The view model loads the location passed in the intent
+        if (viewModel.hasLocation()) {
+            cityName = viewModel.getCityName();
 
             // If cityName is null, it might be using GPS
             if (cityName == null && preferencesManager.shouldUseDeviceLocation()) {
@@ -80,14 +78,14 @@ public class DetailedForecastActivity extends AppCompatActivity {
             // Set location name
             binding.tvLocation.setText(cityName);
 
-            // Load data
-            loadForecastData();
+            // Setup RecyclerView
+            setupRecyclerViews();
+
+            // Render the screen state, which survives configuration changes
+            viewModel.getState().observe(this, this::render);
         } else {
             finish();
         }
-
-        // Setup RecyclerView
-        setupRecyclerViews();
     }
 
     private void setupRecyclerViews() {
@@ -115,6 +113,7 @@ public class DetailedForecastActivity extends AppCompatActivity {
             @Override
             public void onPageSelected(int position) {
                 super.onPageSelected(position);
+                viewModel.setSelectedDay(position);
                 if (dailyForecasts != null && position < dailyForecasts.size()) {
                     updateSelectedDayUI(dailyForecasts.get(position));
                     updateHourlyForecastForDay(dailyForecasts.get(position).getTimestamp());
@@ -124,51 +123,43 @@ public class DetailedForecastActivity extends AppCompatActivity {
         });
     }
 
-    private void loadForecastData() {
-        showLoading(true);
-
-        // Load daily forecast
-        weatherRepository.getDailyForecast(latitude, longitude)
-                .observe(this, new Observer<List<DailyForecast>>() {
-                    @Override
-                    public void onChanged(List<DailyForecast> forecasts) {
-                        if (forecasts != null && !forecasts.isEmpty()) {
-                            dailyForecasts = forecasts;
-                            dailyPagerAdapter.setForecasts(forecasts);
-
-                            // Update tabs
-                            new TabLayoutMediator(binding.tabLayout, binding.viewpagerDays, (tab, position) -> {
-                                if (position < forecasts.size()) {
-                                    DailyForecast forecast = forecasts.get(position);
-                                    tab.setText(WeatherUtils.formatShortDayOfWeek(forecast.getTimestamp()));
-                                }
-                            }).attach();
-
-                            // Update UI for the first day
-                            binding.viewpagerDays.setCurrentItem(0);
-                            updateSelectedDayUI(forecasts.get(0));
-                        }
-                        showLoading(false);
-                    }
-                });
-
-        // Load hourly forecast
-        weatherRepository.getHourlyForecast(latitude, longitude)
-                .observe(this, new Observer<List<HourlyForecast>>() {
-                    @Override
-                    public void onChanged(List<HourlyForecast> forecasts) {
-                        if (forecasts != null && !forecasts.isEmpty()) {
-                            hourlyForecasts = forecasts;
-
-                            // If daily forecasts are already loaded, update hourly for the selected day
-                            if (dailyForecasts != null && !dailyForecasts.isEmpty()) {
-                                int currentPosition = binding.viewpagerDays.getCurrentItem();
-                                updateHourlyForecastForDay(dailyForecasts.get(currentPosition).getTimestamp());
-                                updateTemperatureChart(dailyForecasts.get(currentPosition).getTimestamp());
-                            }
-                        }
-                    }
-                });
+    private void render(ForecastUiState state) {
+        List<DailyForecast> forecasts = state.getDailyForecasts();
+        if (!forecasts.isEmpty() && forecasts != dailyForecasts) {
+            dailyForecasts = forecasts;
+            dailyPagerAdapter.setForecasts(forecasts);
+
+            // Update tabs
+            new TabLayoutMediator(binding.tabLayout, binding.viewpagerDays, (tab, position) -> {
+                if (position < forecasts.size()) {
+                    DailyForecast forecast = forecasts.get(position);
+                    tab.setText(WeatherUtils.formatShortDayOfWeek(forecast.getTimestamp()));
+                }
+            }).attach();
+
+            // Update UI for the selected day, the first one unless restored
+            int selectedDay = Math.min(viewModel.getSelectedDay(), forecasts.size() - 1);
+            binding.viewpagerDays.setCurrentItem(selectedDay, false);
+            updateSelectedDayUI(forecasts.get(selectedDay));
+        }
+
+        if (!state.getHourlyForecasts().isEmpty() && state.getHourlyForecasts() != hourlyForecasts) {
+            hourlyForecasts = state.getHourlyForecasts();
+        }
+
+        // Update hourly for the selected day once both are loaded
+        if (dailyForecasts != null && hourlyForecasts != null) {
+            int currentPosition = binding.viewpagerDays.getCurrentItem();
+            updateHourlyForecastForDay(dailyForecasts.get(currentPosition).getTimestamp());
+            updateTemperatureChart(dailyForecasts.get(currentPosition).getTimestamp());
+        }
+
+        showLoading(state.isLoading());
+
+        if (state.hasError()) {
+            Toast.makeText(this, state.getErrorMessage(), Toast.LENGTH_SHORT).show();
+            viewModel.onErrorShown();
+        }
     }
 
     private void updateSelectedDayUI(DailyForecast forecast) {
@@ -5,6 +5,8 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.location.Location;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
@@ -15,41 +17,46 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
-import androidx.lifecycle.Observer;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.meteo_app_java.R;
-import com.meteo_app_java.data.WeatherRepository;
 import com.meteo_app_java.databinding.ActivityMainBinding;
-import com.meteo_app_java.models.DailyForecast;
-import com.meteo_app_java.models.HourlyForecast;
 import com.meteo_app_java.models.Weather;
 import com.meteo_app_java.ui.adapters.DailyForecastAdapter;
 import com.meteo_app_java.ui.adapters.HourlyForecastAdapter;
+import com.meteo_app_java.ui.viewmodels.ForecastUiState;
+import com.meteo_app_java.ui.viewmodels.MainViewModel;
 import com.meteo_app_java.utils.LocationUtils;
 import com.meteo_app_java.utils.PreferencesManager;
 import com.meteo_app_java.utils.WeatherUtils;
 import com.meteo_app_java.widget.WeatherWidgetProvider;
 
 import java.util.Date;
-import java.util.List;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "MainActivity";
+
+    // Refresh triggers closer together than this start a single refresh
+    private static final long REFRESH_DEBOUNCE_MS = 500;
+
     private ActivityMainBinding binding;
 
-    private WeatherRepository weatherRepository;
+    private MainViewModel viewModel;
     private PreferencesManager preferencesManager;
     private LocationUtils locationUtils;
 
     private HourlyForecastAdapter hourlyAdapter;
     private DailyForecastAdapter dailyAdapter;
 
+    private final Handler refreshHandler = new Handler(Looper.getMainLooper());
+    private final Runnable refreshRunnable = this::refreshWeatherDataNow;
+
     private boolean isMetric;
-    private double currentLat;
-    private double currentLon;
-    private String currentCity;
+    // Weather currently shown, to update the view and widgets only when it changes
+    private Weather shownWeather;
+    private boolean shownPlaceholder;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -57,8 +64,8 @@ public class MainActivity extends AppCompatActivity {
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        // Initialize repositories and utilities
-        weatherRepository = WeatherRepository.getInstance();
+        // Initialize the view model and utilities
+        viewModel = new ViewModelProvider(this).get(MainViewModel.class);
         preferencesManager = new PreferencesManager(this);
         locationUtils = new LocationUtils(this);
 
@@ -83,19 +90,19 @@ public class MainActivity extends AppCompatActivity {
             preferencesManager.setUseDeviceLocation(useDeviceLocation);
         }
 
-        // Check if we have location data in intent
-        if (getIntent().hasExtra("latitude") && getIntent().hasExtra("longitude")) {
-            double lat = getIntent().getDoubleExtra("latitude", 0);
-            double lon = getIntent().getDoubleExtra("longitude", 0);
-            String city = getIntent().getStringExtra("city");
+        // Render the screen state, which survives configuration changes
+        viewModel.getState().observe(this, this::render);
 
-            currentLat = lat;
-            currentLon = lon;
-            currentCity = city;
+        // Tell the user why the data isn't refreshed while the API quota is used up
+        viewModel.getQuotaLimited().observe(this, limited -> {
+            if (Boolean.TRUE.equals(limited)) {
+                Toast.makeText(this, R.string.quota_limited, Toast.LENGTH_SHORT).show();
+            }
+        });
 
-            loadWeatherData(lat, lon);
-        } else {
-            // Load last known location or request current location
+        // The view model loads the location passed in the intent or restored after
+        // process death; otherwise load last known location or request current location
+        if (!viewModel.hasLocation()) {
             loadInitialLocation();
         }
     }
@@ -103,14 +110,15 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        // Refresh data if needed
-        long lastUpdated = preferencesManager.getLastUpdated();
-        long currentTime = System.currentTimeMillis();
+        // Revalidate when the repository's freshness policy says the data is stale
+        viewModel.refreshIfStale();
+    }
 
-        // Refresh if data is older than 30 minutes
-        if (currentTime - lastUpdated > 30 * 60 * 1000) {
-            refreshWeatherData();
-        }
+    @Override
+    protected void onDestroy() {
+        // Pending requests are cancelled when the view model is cleared
+        refreshHandler.removeCallbacks(refreshRunnable);
+        super.onDestroy();
     }
 
     private void setupRecyclerViews() {
@@ -135,9 +143,12 @@ public class MainActivity extends AppCompatActivity {
         // View details click
         binding.tvViewDetails.setOnClickListener(v -> {
             Intent intent = new Intent(MainActivity.this, DetailedForecastActivity.class);
-            intent.putExtra("latitude", currentLat);
-            intent.putExtra("longitude", currentLon);
-            intent.putExtra("city", currentCity);
+            intent.putExtra("latitude", viewModel.getLatitude());
+            intent.putExtra("longitude", viewModel.getLongitude());
+            // A placeholder's name is that of another location
+            boolean named = shownWeather != null && !shownPlaceholder;
+            intent.putExtra("city", named ? shownWeather.getCityName() : viewModel.getCityName());
+            intent.putExtra("country", named ? shownWeather.getCountryCode() : viewModel.getCountryCode());
             startActivity(intent);
         });
 
@@ -157,16 +168,13 @@ public class MainActivity extends AppCompatActivity {
             // Use last saved location
             double lat = preferencesManager.getLastLocationLatitude();
             double lon = preferencesManager.getLastLocationLongitude();
-            String city = preferencesManager.getLastLocationName();
+            String city = preferencesManager.getLastLocationName(null);
 
             if (lat != 0.0 && lon != 0.0) {
-                currentLat = lat;
-                currentLon = lon;
-                currentCity = city;
-                loadWeatherData(lat, lon);
+                loadWeatherData(lat, lon, city);
             } else {
                 // Default to a well-known location if no saved location
-                loadWeatherData(48.8566, 2.3522); // Paris
+                loadWeatherData(48.8566, 2.3522, null); // Paris
             }
         }
     }
@@ -176,9 +184,8 @@ public class MainActivity extends AppCompatActivity {
         locationUtils.getLastLocation(new LocationUtils.OnLocationResultListener() {
             @Override
             public void onLocationResult(Location location) {
-                currentLat = location.getLatitude();
-                currentLon = location.getLongitude();
-                loadWeatherData(currentLat, currentLon);
+                // Shows the nearest stored weather right away while the fix's weather loads
+                viewModel.selectCurrentLocation(location.getLatitude(), location.getLongitude());
             }
 
             @Override
@@ -190,58 +197,58 @@ public class MainActivity extends AppCompatActivity {
                 double lat = preferencesManager.getLastLocationLatitude();
                 double lon = preferencesManager.getLastLocationLongitude();
                 if (lat != 0.0 && lon != 0.0) {
-                    loadWeatherData(lat, lon);
+                    loadWeatherData(lat, lon, preferencesManager.getLastLocationName(null));
                 }
             }
         });
     }
 
-    private void loadWeatherData(double latitude, double longitude) {
-        showLoading(true);
+    private void loadWeatherData(double latitude, double longitude, String cityName) {
+        viewModel.selectLocation(latitude, longitude, cityName);
+    }
 
-        // Load current weather
-        weatherRepository.getCurrentWeatherByCoordinates(latitude, longitude)
-                .observe(this, new Observer<Weather>() {
-                    @Override
-                    public void onChanged(Weather weather) {
-                        if (weather != null) {
-                            updateCurrentWeatherUI(weather);
-                            currentCity = weather.getCityName();
-
-                            // Save to preferences
-                            preferencesManager.saveLastLocation(
-                                    latitude, longitude, weather.getCityName());
-                        }
-                        showLoading(false);
-                    }
-                });
-
-        // Load hourly forecast
-        weatherRepository.getHourlyForecast(latitude, longitude)
-                .observe(this, new Observer<List<HourlyForecast>>() {
-                    @Override
-                    public void onChanged(List<HourlyForecast> hourlyForecasts) {
-                        if (hourlyForecasts != null && !hourlyForecasts.isEmpty()) {
-                            hourlyAdapter.submitList(hourlyForecasts);
-                        }
-                    }
-                });
-
-        // Load daily forecast
-        weatherRepository.getDailyForecast(latitude, longitude)
-                .observe(this, new Observer<List<DailyForecast>>() {
-                    @Override
-                    public void onChanged(List<DailyForecast> dailyForecasts) {
-                        if (dailyForecasts != null && !dailyForecasts.isEmpty()) {
-                            dailyAdapter.submitList(dailyForecasts);
-                        }
-                    }
-                });
+    private void render(ForecastUiState state) {
+        Weather weather = state.getWeather();
+        if (weather != null && (weather != shownWeather || state.isPlaceholder() != shownPlaceholder)) {
+            shownWeather = weather;
+            shownPlaceholder = state.isPlaceholder();
+            updateCurrentWeatherUI(weather, state.isPlaceholder());
+
+            // Save to preferences, unless it is the weather of a nearby location
+            if (!state.isPlaceholder()) {
+                preferencesManager.saveLastLocation(
+                        viewModel.getLatitude(), viewModel.getLongitude(), weather.getCityName());
+            }
+        }
+
+        if (!state.getHourlyForecasts().isEmpty()) {
+            hourlyAdapter.submitList(state.getHourlyForecasts());
+        }
+        if (!state.getDailyForecasts().isEmpty()) {
+            dailyAdapter.submitList(state.getDailyForecasts());
+        }
+
+        showLoading(state.isLoading());
+
+        if (state.hasError()) {
+            Toast.makeText(this, state.getErrorMessage(), Toast.LENGTH_SHORT).show();
+            viewModel.onErrorShown();
+        }
     }
 
-    private void updateCurrentWeatherUI(Weather weather) {
+    private void updateCurrentWeatherUI(Weather weather, boolean placeholder) {
         // Set location
-        binding.tvLocation.setText(weather.getCityName() + ", " + weather.getCountryCode());
+        // OneCall data may not carry a name or country code
+        String cityName = weather.getCityName() != null
+                ? weather.getCityName() : getString(R.string.current_location);
+        String countryCode = weather.getCountryCode();
+        String locationText = countryCode == null || countryCode.isEmpty()
+                ? cityName
+                : cityName + ", " + countryCode;
+        // A placeholder is the weather of a nearby location
+        binding.tvLocation.setText(placeholder && weather.getCityName() != null
+                ? getString(R.string.near_location, locationText)
+                : locationText);
 
         // Set last updated
         String lastUpdatedText = getString(R.string.last_updated,
@@ -279,13 +286,25 @@ public class MainActivity extends AppCompatActivity {
         String pressureText = getString(R.string.pressure, weather.getPressure());
         binding.tvPressure.setText(pressureText);
 
-        preferencesManager.saveLastWeatherData(weather);
-        WeatherWidgetProvider.updateAllWidgets(this);
+        // The widgets show the location's own weather, not a neighbor's
+        if (!placeholder) {
+            preferencesManager.saveLastWeatherData(weather);
+            WeatherWidgetProvider.updateAllWidgets(this);
+        }
     }
 
+    /**
+     * Refresh once the triggers (swipe, refresh button) have settled for
+     * REFRESH_DEBOUNCE_MS, so repeated taps start a single refresh.
+     */
     private void refreshWeatherData() {
-        if (currentLat != 0.0 && currentLon != 0.0) {
-            loadWeatherData(currentLat, currentLon);
+        refreshHandler.removeCallbacks(refreshRunnable);
+        refreshHandler.postDelayed(refreshRunnable, REFRESH_DEBOUNCE_MS);
+    }
+
+    private void refreshWeatherDataNow() {
+        if (viewModel.hasLocation()) {
+            viewModel.refresh();
         } else {
             loadInitialLocation();
         }
@@ -323,9 +342,9 @@ public class MainActivity extends AppCompatActivity {
                     double lat = preferencesManager.getLastLocationLatitude();
                     double lon = preferencesManager.getLastLocationLongitude();
                     if (lat != 0.0 && lon != 0.0) {
-                        loadWeatherData(lat, lon);
+                        loadWeatherData(lat, lon, preferencesManager.getLastLocationName(null));
                     } else {
-                        loadWeatherData(48.8566, 2.3522); // Paris
+                        loadWeatherData(48.8566, 2.3522, null); // Paris
                     }
                 })
                 .show();
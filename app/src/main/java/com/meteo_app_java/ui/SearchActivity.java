@@ -2,6 +2,8 @@ package com.meteo_app_java.ui;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.KeyEvent;
@@ -13,12 +15,16 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.Observer;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.meteo_app_java.R;
+import com.meteo_app_java.data.LocationSuggester;
+import com.meteo_app_java.data.RequestTracker;
 import com.meteo_app_java.data.WeatherRepository;
 import com.meteo_app_java.data.remote.response.LocationSearchResponse;
 import com.meteo_app_java.databinding.ActivitySearchBinding;
 import com.meteo_app_java.models.SavedLocation;
+import com.meteo_app_java.ui.adapters.LocationSuggestionAdapter;
 import com.meteo_app_java.ui.adapters.LocationWithGpsAdapter;
 import com.meteo_app_java.utils.LocationUtils;
 import com.meteo_app_java.utils.PreferencesManager;
@@ -28,13 +34,30 @@ import java.util.List;
 
 public class SearchActivity extends AppCompatActivity {
 
+    // Request slot of the location search, a new search cancels the previous one
+    private static final String SLOT_SEARCH = "search";
+
+    // Typing pause before the network is searched, and shortest query searched
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+    private static final int MIN_NETWORK_QUERY_LENGTH = 2;
+    private static final int MAX_SUGGESTIONS = 10;
+
     private ActivitySearchBinding binding;
     private WeatherRepository weatherRepository;
+    private RequestTracker requestTracker;
     private LocationWithGpsAdapter locationAdapter;
+    private LocationSuggestionAdapter suggestionAdapter;
+    private final LocationSuggester suggester = new LocationSuggester();
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = () -> searchLocations(false);
+    private String currentQuery = "";
+    private List<LocationSearchResponse.LocationResult> localSuggestions = new ArrayList<>();
     private PreferencesManager preferencesManager;
     private LocationUtils locationUtils;
     private double currentLat;
     private double currentLon;
+    // Whether currentLat and currentLon come from a GPS fix rather than a default
+    private boolean hasLocationFix;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -44,6 +67,7 @@ public class SearchActivity extends AppCompatActivity {
 
         // Initialize repository
         weatherRepository = WeatherRepository.getInstance();
+        requestTracker = new RequestTracker(this);
         preferencesManager = new PreferencesManager(this);
         locationUtils = new LocationUtils(this);
 
@@ -74,6 +98,9 @@ public class SearchActivity extends AppCompatActivity {
         // Load saved locations
         loadSavedLocations();
 
+        // Index known places for suggestions
+        loadSuggestionCandidates();
+
         // Update GPS coordinates if needed
         if (preferencesManager.shouldUseDeviceLocation() && locationUtils.hasLocationPermission()) {
             updateCurrentLocation();
@@ -86,7 +113,9 @@ public class SearchActivity extends AppCompatActivity {
             public void onLocationResult(android.location.Location location) {
                 currentLat = location.getLatitude();
                 currentLon = location.getLongitude();
+                hasLocationFix = true;
                 locationAdapter.updateGpsCoordinates(currentLat, currentLon);
+                suggestionAdapter.setOrigin(currentLat, currentLon);
             }
 
             @Override
@@ -101,6 +130,10 @@ public class SearchActivity extends AppCompatActivity {
         binding.rvLocations.setAdapter(locationAdapter);
         binding.rvLocations.setLayoutManager(new LinearLayoutManager(this));
 
+        // Suggestions replace the saved locations while a query is typed
+        suggestionAdapter = new LocationSuggestionAdapter();
+        suggestionAdapter.setOnItemClickListener(this::openLocation);
+
         // Set click listener on adapter
         locationAdapter.setOnItemClickListener(new LocationWithGpsAdapter.OnItemClickListener() {
             @Override
@@ -121,6 +154,7 @@ public class SearchActivity extends AppCompatActivity {
                 intent.putExtra("latitude", location.getLatitude());
                 intent.putExtra("longitude", location.getLongitude());
                 intent.putExtra("city", location.getCityName());
+                intent.putExtra("country", location.getCountryCode());
                 intent.putExtra("useDeviceLocation", false);
                 startActivity(intent);
                 finish();
@@ -155,6 +189,68 @@ public class SearchActivity extends AppCompatActivity {
 
         // Handle search button click
         binding.btnSearch.setOnClickListener(v -> performSearch(binding.etSearch.getText().toString()));
+
+        // Suggest places as the user types
+        binding.etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                onQueryChanged(s.toString());
+            }
+        });
+    }
+
+    private void loadSuggestionCandidates() {
+        weatherRepository.getSuggestionCandidates().observe(this, candidates -> {
+            suggester.clear();
+            suggester.addAll(candidates);
+            if (!currentQuery.isEmpty()) {
+                showLocalSuggestions();
+            }
+        });
+    }
+
+    /**
+     * Show the known places matching the query right away, and search the network
+     * once typing pauses. A new keystroke cancels the pending or running search.
+     */
+    private void onQueryChanged(String query) {
+        searchHandler.removeCallbacks(searchRunnable);
+        currentQuery = query.trim();
+        if (currentQuery.isEmpty()) {
+            requestTracker.cancel(SLOT_SEARCH);
+            showLoading(false);
+            showSuggestions(false);
+            return;
+        }
+
+        showLocalSuggestions();
+        if (currentQuery.length() >= MIN_NETWORK_QUERY_LENGTH) {
+            searchHandler.postDelayed(searchRunnable, SEARCH_DEBOUNCE_MS);
+        }
+    }
+
+    private void showLocalSuggestions() {
+        // Rank by distance only from a real position, otherwise keep the match order
+        localSuggestions = hasLocationFix
+                ? suggester.suggest(currentQuery, currentLat, currentLon, MAX_SUGGESTIONS)
+                : suggester.suggest(currentQuery, MAX_SUGGESTIONS);
+        suggestionAdapter.submitList(localSuggestions);
+        showSuggestions(true);
+    }
+
+    private void showSuggestions(boolean show) {
+        RecyclerView.Adapter<?> adapter = show ? suggestionAdapter : locationAdapter;
+        if (binding.rvLocations.getAdapter() != adapter) {
+            binding.rvLocations.setAdapter(adapter);
+        }
     }
 
     private void setupClickListeners() {
@@ -180,44 +276,50 @@ public class SearchActivity extends AppCompatActivity {
     }
 
     private void performSearch(String query) {
-        if (query.isEmpty()) {
+        searchHandler.removeCallbacks(searchRunnable);
+        currentQuery = query.trim();
+        if (currentQuery.isEmpty()) {
             return;
         }
 
+        showLocalSuggestions();
+        searchLocations(true);
+    }
+
+    /**
+     * Search the current query and merge the results with the local suggestions.
+     *
+     * @param submitted True if the user submitted the query: a single result is
+     *                  opened, and no result is reported
+     */
+    private void searchLocations(boolean submitted) {
+        String query = currentQuery;
         showLoading(true);
 
-        weatherRepository.searchLocationByName(query).observe(this,
+        requestTracker.track(SLOT_SEARCH, weatherRepository.searchLocationByName(query)).observe(this,
                 new Observer<List<LocationSearchResponse.LocationResult>>() {
                     @Override
                     public void onChanged(List<LocationSearchResponse.LocationResult> results) {
                         showLoading(false);
+                        if (!query.equals(currentQuery)) {
+                            return;
+                        }
 
-                        if (results != null && !results.isEmpty()) {
-                            // Process the first result
-                            LocationSearchResponse.LocationResult result = results.get(0);
-
-                            // Save location to database
-                            SavedLocation location = new SavedLocation();
-                            location.setCityName(result.name);
-                            location.setCountryCode(result.country);
-                            location.setLatitude(result.lat);
-                            location.setLongitude(result.lon);
-                            location.setLastAccessed(new java.util.Date());
-
-                            weatherRepository.saveLocation(location.getCityName(),
-                                    location.getCountryCode(),
-                                    location.getLatitude(),
-                                    location.getLongitude());
-
-                            // Start MainActivity with selected location
-                            Intent intent = new Intent(SearchActivity.this, MainActivity.class);
-                            intent.putExtra("latitude", result.lat);
-                            intent.putExtra("longitude", result.lon);
-                            intent.putExtra("city", result.name);
-                            intent.putExtra("useDeviceLocation", false);
-                            startActivity(intent);
-                            finish();
-                        } else {
+                        List<LocationSearchResponse.LocationResult> remote =
+                                results != null ? results : new ArrayList<>();
+                        suggester.addAll(remote);
+                        List<LocationSearchResponse.LocationResult> merged = hasLocationFix
+                                ? LocationSuggester.merge(localSuggestions, remote, currentLat, currentLon,
+                                        MAX_SUGGESTIONS)
+                                : LocationSuggester.merge(localSuggestions, remote, MAX_SUGGESTIONS);
+                        suggestionAdapter.submitList(merged);
+
+                        if (!submitted) {
+                            return;
+                        }
+                        if (merged.size() == 1) {
+                            openLocation(merged.get(0));
+                        } else if (merged.isEmpty()) {
                             // No results found
                             Toast.makeText(SearchActivity.this, R.string.search_no_results,
                                     Toast.LENGTH_SHORT).show();
@@ -226,10 +328,31 @@ public class SearchActivity extends AppCompatActivity {
                 });
     }
 
+    private void openLocation(LocationSearchResponse.LocationResult result) {
+        // Save location to database
+        weatherRepository.saveLocation(result.name, result.country, result.lat, result.lon);
+
+        // Start MainActivity with selected location
+        Intent intent = new Intent(SearchActivity.this, MainActivity.class);
+        intent.putExtra("latitude", result.lat);
+        intent.putExtra("longitude", result.lon);
+        intent.putExtra("city", result.name);
+        intent.putExtra("country", result.country);
+        intent.putExtra("useDeviceLocation", false);
+        startActivity(intent);
+        finish();
+    }
+
     private void showLoading(boolean isLoading) {
         binding.progressBar.setVisibility(isLoading ? View.VISIBLE : View.GONE);
     }
 
+    @Override
+    protected void onDestroy() {
+        searchHandler.removeCallbacks(searchRunnable);
+        super.onDestroy();
+    }
+
     @Override
     public boolean onSupportNavigateUp() {
         onBackPressed();
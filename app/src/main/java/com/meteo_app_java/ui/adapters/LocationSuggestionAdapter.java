@@ -0,0 +1,119 @@
+package com.meteo_app_java.ui.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.meteo_app_java.data.remote.response.LocationSearchResponse;
+import com.meteo_app_java.databinding.ItemLocationBinding;
+import com.meteo_app_java.utils.LocationUtils;
+
+import java.util.Locale;
+
+/**
+ * Adapter for the search suggestions, with each place's distance from the user.
+ */
+public class LocationSuggestionAdapter extends ListAdapter<LocationSearchResponse.LocationResult,
+        LocationSuggestionAdapter.SuggestionViewHolder> {
+
+    private OnItemClickListener listener;
+    private double originLatitude, originLongitude;
+    private boolean hasOrigin;
+
+    public interface OnItemClickListener {
+        void onItemClick(LocationSearchResponse.LocationResult location);
+    }
+
+    public LocationSuggestionAdapter() {
+        super(DIFF_CALLBACK);
+    }
+
+    public void setOnItemClickListener(OnItemClickListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Set the user's position, which distances are measured from. No distance is
+     * shown until it is set.
+     */
+    public void setOrigin(double latitude, double longitude) {
+        this.originLatitude = latitude;
+        this.originLongitude = longitude;
+        this.hasOrigin = true;
+        notifyItemRangeChanged(0, getItemCount());
+    }
+
+    private static final DiffUtil.ItemCallback<LocationSearchResponse.LocationResult> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<LocationSearchResponse.LocationResult>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull LocationSearchResponse.LocationResult oldItem,
+                        @NonNull LocationSearchResponse.LocationResult newItem) {
+                    return oldItem.lat == newItem.lat && oldItem.lon == newItem.lon;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull LocationSearchResponse.LocationResult oldItem,
+                        @NonNull LocationSearchResponse.LocationResult newItem) {
+                    return String.valueOf(oldItem.name).equals(String.valueOf(newItem.name))
+                            && String.valueOf(oldItem.country).equals(String.valueOf(newItem.country));
+                }
+            };
+
+    @NonNull
+    @Override
+    public SuggestionViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        ItemLocationBinding binding = ItemLocationBinding.inflate(
+                LayoutInflater.from(parent.getContext()), parent, false);
+        return new SuggestionViewHolder(binding);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull SuggestionViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
+
+    class SuggestionViewHolder extends RecyclerView.ViewHolder {
+        private final ItemLocationBinding binding;
+
+        public SuggestionViewHolder(@NonNull ItemLocationBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
+            binding.ivFavorite.setVisibility(View.GONE);
+
+            itemView.setOnClickListener(v -> {
+                int position = getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && listener != null) {
+                    listener.onItemClick(getItem(position));
+                }
+            });
+        }
+
+        public void bind(LocationSearchResponse.LocationResult location) {
+            // Set name, state and country
+            StringBuilder locationText = new StringBuilder(location.name);
+            if (location.state != null && !location.state.isEmpty()) {
+                locationText.append(", ").append(location.state);
+            }
+            if (location.country != null && !location.country.isEmpty()) {
+                locationText.append(", ").append(location.country);
+            }
+            binding.tvLocationName.setText(locationText);
+
+            // Set coordinates and distance
+            binding.tvLocationCoordinates.setText(String.format(Locale.getDefault(), "%.2f, %.2f",
+                    location.lat, location.lon));
+            if (hasOrigin) {
+                double distance = LocationUtils.calculateDistance(originLatitude, originLongitude,
+                        location.lat, location.lon);
+                binding.tvTemperature.setText(String.format(Locale.getDefault(), "%.0f km", distance));
+            } else {
+                binding.tvTemperature.setText("");
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.meteo_app_java.ui.viewmodels;
+
+import androidx.lifecycle.SavedStateHandle;
+
+/**
+ * State of the detailed forecast screen: the forecasts of the location passed in
+ * the intent, and the selected day.
+ */
+public class DetailedForecastViewModel extends ForecastViewModel {
+
+    private static final String KEY_SELECTED_DAY = "selected_day";
+
+    public DetailedForecastViewModel(SavedStateHandle savedState) {
+        super(savedState);
+    }
+
+    /**
+     * Position of the selected day in the daily forecasts.
+     */
+    public int getSelectedDay() {
+        Integer selectedDay = savedState.get(KEY_SELECTED_DAY);
+        return selectedDay != null ? selectedDay : 0;
+    }
+
+    public void setSelectedDay(int selectedDay) {
+        savedState.set(KEY_SELECTED_DAY, selectedDay);
+    }
+}
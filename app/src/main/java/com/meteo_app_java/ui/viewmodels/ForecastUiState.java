@@ -0,0 +1,104 @@
+package com.meteo_app_java.ui.viewmodels;
+
+import androidx.annotation.StringRes;
+
+import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.HourlyForecast;
+import com.meteo_app_java.models.Weather;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything a forecast screen shows: current weather, hourly and daily forecasts,
+ * whether a load is running, and the error to report if nothing could be loaded.
+ * The current weather may be a placeholder: the weather of a nearby location,
+ * shown until the location's own loads.
+ * Immutable; the with methods return a modified copy.
+ */
+public class ForecastUiState {
+
+    public static final ForecastUiState EMPTY = new ForecastUiState(null, false,
+            Collections.emptyList(), Collections.emptyList(), false, 0);
+
+    private final Weather weather;
+    private final boolean placeholder;
+    private final List<HourlyForecast> hourlyForecasts;
+    private final List<DailyForecast> dailyForecasts;
+    private final boolean loading;
+    @StringRes
+    private final int errorMessage;
+
+    private ForecastUiState(Weather weather, boolean placeholder,
+            List<HourlyForecast> hourlyForecasts, List<DailyForecast> dailyForecasts, boolean loading, @StringRes int errorMessage) {
+        this.weather = weather;
+        this.placeholder = placeholder;
+        this.hourlyForecasts = hourlyForecasts;
+        this.dailyForecasts = dailyForecasts;
+        this.loading = loading;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Current weather, or null if none has been loaded.
+     */
+    public Weather getWeather() {
+        return weather;
+    }
+
+    /**
+     * True if the current weather is that of a nearby location, whose name it
+     * carries, rather than of the location itself.
+     */
+    public boolean isPlaceholder() {
+        return placeholder;
+    }
+
+    public List<HourlyForecast> getHourlyForecasts() {
+        return hourlyForecasts;
+    }
+
+    public List<DailyForecast> getDailyForecasts() {
+        return dailyForecasts;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * String resource of the error to show, or 0 if there is none.
+     */
+    @StringRes
+    public int getErrorMessage() {
+        return errorMessage;
+    }
+
+    public boolean hasError() {
+        return errorMessage != 0;
+    }
+
+    public ForecastUiState withWeather(Weather weather) {
+        return new ForecastUiState(weather, false, hourlyForecasts, dailyForecasts, loading, errorMessage);
+    }
+
+    public ForecastUiState withPlaceholder(Weather weather) {
+        return new ForecastUiState(weather, true, hourlyForecasts, dailyForecasts, loading, errorMessage);
+    }
+
+    public ForecastUiState withHourlyForecasts(List<HourlyForecast> hourlyForecasts) {
+        return new ForecastUiState(weather, placeholder, hourlyForecasts, dailyForecasts, loading, errorMessage);
+    }
+
+    public ForecastUiState withDailyForecasts(List<DailyForecast> dailyForecasts) {
+        return new ForecastUiState(weather, placeholder, hourlyForecasts, dailyForecasts, loading, errorMessage);
+    }
+
+    public ForecastUiState withLoading(boolean loading) {
+        return new ForecastUiState(weather, placeholder, hourlyForecasts, dailyForecasts, loading, errorMessage);
+    }
+
+    public ForecastUiState withErrorMessage(@StringRes int errorMessage) {
+        return new ForecastUiState(weather, placeholder, hourlyForecasts, dailyForecasts, loading, errorMessage);
+    }
+}
@@ -0,0 +1,187 @@
+package com.meteo_app_java.ui.viewmodels;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.SavedStateHandle;
+import androidx.lifecycle.ViewModel;
+
+import com.meteo_app_java.R;
+import com.meteo_app_java.data.CancellableLiveData;
+import com.meteo_app_java.data.WeatherRepository;
+import com.meteo_app_java.models.DailyForecast;
+import com.meteo_app_java.models.HourlyForecast;
+import com.meteo_app_java.models.Weather;
+
+import java.util.List;
+
+/**
+ * Base of the forecast screens' ViewModels. Loads current weather, hourly and
+ * daily forecasts for one location into a single state LiveData, which survives
+ * configuration changes. The location is kept in the SavedStateHandle, so the
+ * data is reloaded after process death.
+ */
+public abstract class ForecastViewModel extends ViewModel {
+
+    // Same keys as the intent extras, which the SavedStateHandle starts with
+    public static final String KEY_LATITUDE = "latitude";
+    public static final String KEY_LONGITUDE = "longitude";
+    public static final String KEY_CITY = "city";
+    public static final String KEY_COUNTRY = "country";
+
+    protected final SavedStateHandle savedState;
+    protected final WeatherRepository weatherRepository;
+
+    private final MediatorLiveData<ForecastUiState> state = new MediatorLiveData<>();
+
+    // Sources of the load in progress, or of the last one
+    private CancellableLiveData<Weather> weatherSource;
+    private CancellableLiveData<List<HourlyForecast>> hourlySource;
+    private CancellableLiveData<List<DailyForecast>> dailySource;
+
+    protected ForecastViewModel(SavedStateHandle savedState) {
+        this.savedState = savedState;
+        this.weatherRepository = WeatherRepository.getInstance();
+        state.setValue(ForecastUiState.EMPTY);
+
+        // Location from the intent, or restored after process death
+        if (hasLocation()) {
+            load(false);
+        }
+    }
+
+    public LiveData<ForecastUiState> getState() {
+        return state;
+    }
+
+    public boolean hasLocation() {
+        return savedState.contains(KEY_LATITUDE) && savedState.contains(KEY_LONGITUDE);
+    }
+
+    public double getLatitude() {
+        Double latitude = savedState.get(KEY_LATITUDE);
+        return latitude != null ? latitude : 0.0;
+    }
+
+    public double getLongitude() {
+        Double longitude = savedState.get(KEY_LONGITUDE);
+        return longitude != null ? longitude : 0.0;
+    }
+
+    /**
+     * Name of the location, or null if it is not known yet.
+     */
+    public String getCityName() {
+        return savedState.get(KEY_CITY);
+    }
+
+    /**
+     * Country code of the location, or null if it is not known.
+     */
+    public String getCountryCode() {
+        return savedState.get(KEY_COUNTRY);
+    }
+
+    /**
+     * True while the API quota is exhausted, so the state holds cached data.
+     */
+    public LiveData<Boolean> getQuotaLimited() {
+        return weatherRepository.getQuotaLimited();
+    }
+
+    /**
+     * Clear the error once the screen has shown it, so it isn't shown again after
+     * a configuration change.
+     */
+    public void onErrorShown() {
+        state.setValue(state.getValue().withErrorMessage(0));
+    }
+
+    protected void setLocation(double latitude, double longitude, String cityName) {
+        savedState.set(KEY_LATITUDE, latitude);
+        savedState.set(KEY_LONGITUDE, longitude);
+        savedState.set(KEY_CITY, cityName);
+        savedState.set(KEY_COUNTRY, null);
+    }
+
+    /**
+     * Load all data for the saved location, cancelling the load in progress. Cached
+     * data is shown right away and replaced as fresher data arrives.
+     */
+    protected final void load(boolean forceRefresh) {
+        cancelLoad();
+
+        double latitude = getLatitude();
+        double longitude = getLongitude();
+        // OneCall data has no place name, so it is named after the location the caller gave
+        weatherRepository.setLocationName(latitude, longitude, getCityName(), getCountryCode());
+        weatherSource = weatherRepository.getCurrentWeatherByCoordinates(latitude, longitude, forceRefresh);
+        hourlySource = weatherRepository.getHourlyForecast(latitude, longitude, forceRefresh);
+        dailySource = weatherRepository.getDailyForecast(latitude, longitude, forceRefresh);
+
+        state.setValue(state.getValue().withLoading(true).withErrorMessage(0));
+
+        // Keep the previous data when a source ends without any
+        state.addSource(weatherSource, weather -> {
+            ForecastUiState current = state.getValue();
+            update(weather != null ? current.withWeather(weather) : current);
+        });
+        state.addSource(hourlySource, forecasts -> {
+            ForecastUiState current = state.getValue();
+            update(forecasts != null && !forecasts.isEmpty()
+                    ? current.withHourlyForecasts(forecasts) : current);
+        });
+        state.addSource(dailySource, forecasts -> {
+            ForecastUiState current = state.getValue();
+            update(forecasts != null && !forecasts.isEmpty()
+                    ? current.withDailyForecasts(forecasts) : current);
+        });
+    }
+
+    /**
+     * Show weather from another source, e.g. a nearby location, until the load in
+     * progress delivers its own. Ignored once the load has delivered weather.
+     */
+    protected final void showPlaceholder(LiveData<Weather> placeholder) {
+        CancellableLiveData<Weather> source = weatherSource;
+        state.addSource(placeholder, weather -> {
+            state.removeSource(placeholder);
+            if (weather != null && source == weatherSource && source.isLoading() && source.getValue() == null) {
+                update(state.getValue().withPlaceholder(weather));
+            }
+        });
+    }
+
+    /**
+     * Check if a load is still waiting for data.
+     */
+    protected boolean isLoading() {
+        return weatherSource != null && (weatherSource.isLoading()
+                || hourlySource.isLoading() || dailySource.isLoading());
+    }
+
+    private void update(ForecastUiState next) {
+        boolean loading = isLoading();
+        ForecastUiState updated = next.withLoading(loading);
+        if (!loading && updated.getWeather() == null) {
+            updated = updated.withErrorMessage(R.string.error_fetching_weather);
+        }
+        state.setValue(updated);
+    }
+
+    private void cancelLoad() {
+        if (weatherSource == null) {
+            return;
+        }
+        weatherSource.cancel();
+        hourlySource.cancel();
+        dailySource.cancel();
+        state.removeSource(weatherSource);
+        state.removeSource(hourlySource);
+        state.removeSource(dailySource);
+    }
+
+    @Override
+    protected void onCleared() {
+        cancelLoad();
+    }
+}
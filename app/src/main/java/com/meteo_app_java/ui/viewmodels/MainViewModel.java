@@ -0,0 +1,63 @@
+package com.meteo_app_java.ui.viewmodels;
+
+import androidx.lifecycle.SavedStateHandle;
+
+/**
+ * State of the main screen: the weather of the selected location.
+ */
+public class MainViewModel extends ForecastViewModel {
+
+    // Farthest stored location shown while the weather of a GPS fix loads
+    private static final double NEAREST_CACHED_MAX_KM = 25;
+
+    public MainViewModel(SavedStateHandle savedState) {
+        super(savedState);
+    }
+
+    /**
+     * Show the weather of a location. Nothing is loaded if the location is already
+     * shown, so recreating the screen doesn't refetch.
+     */
+    public void selectLocation(double latitude, double longitude, String cityName) {
+        if (hasLocation() && latitude == getLatitude() && longitude == getLongitude()) {
+            ForecastUiState current = getState().getValue();
+            if (current.isLoading() || current.getWeather() != null) {
+                return;
+            }
+        }
+        setLocation(latitude, longitude, cityName);
+        load(false);
+    }
+
+    /**
+     * Show the weather of a GPS fix. Until its own data loads, the stored weather
+     * of the nearest location is shown, if one is close enough.
+     */
+    public void selectCurrentLocation(double latitude, double longitude) {
+        selectLocation(latitude, longitude, null);
+        if (isLoading()) {
+            showPlaceholder(weatherRepository.getNearestCachedWeather(latitude, longitude,
+                    NEAREST_CACHED_MAX_KM));
+        }
+    }
+
+    /**
+     * Reload the selected location from the API, bypassing the cache.
+     */
+    public void refresh() {
+        if (hasLocation()) {
+            load(true);
+        }
+    }
+
+    /**
+     * Reload the selected location if the repository's freshness policy says its
+     * data is stale.
+     */
+    public void refreshIfStale() {
+        if (hasLocation() && !isLoading()
+                && weatherRepository.needsRefresh(getLatitude(), getLongitude())) {
+            load(false);
+        }
+    }
+}
@@ -10,6 +10,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * Utility class for file operations.
@@ -68,6 +71,79 @@ public class FileUtils {
         }
     }
 
+    /**
+     * Atomically replace a file in the app's internal storage. The data is written
+     * to a temporary file, synced to disk and renamed over the target, so readers
+     * see either the old or the new content, never a partial write.
+     *
+     * @param context  The application context
+     * @param fileName The name of the file
+     * @param data     The data to write
+     * @return true if write is successful, false otherwise
+     */
+    public static boolean writeAtomically(Context context, String fileName, byte[] data) {
+        return writeAtomically(new File(context.getFilesDir(), fileName), data);
+    }
+
+    /**
+     * Atomically replace a file, through a synced temporary file in the same directory.
+     *
+     * @param target The file to replace
+     * @param data   The data to write
+     * @return true if write is successful, false otherwise
+     */
+    public static boolean writeAtomically(File target, byte[] data) {
+        File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+        try {
+            FileOutputStream fos = new FileOutputStream(temp);
+            try {
+                fos.write(data);
+                fos.getFD().sync();
+            } finally {
+                fos.close();
+            }
+            if (!temp.renameTo(target)) {
+                throw new IOException("Could not rename " + temp + " to " + target);
+            }
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing to file: " + target, e);
+            temp.delete();
+            return false;
+        }
+    }
+
+    /**
+     * Map a file from the app's internal storage into memory, read-only.
+     *
+     * @param context  The application context
+     * @param fileName The name of the file
+     * @return The mapped content, or null if the file doesn't exist or can't be mapped
+     */
+    public static ByteBuffer mapFile(Context context, String fileName) {
+        return mapFile(new File(context.getFilesDir(), fileName));
+    }
+
+    /**
+     * Map a file into memory, read-only.
+     *
+     * @param file The file to map
+     * @return The mapped content, or null if the file doesn't exist or can't be mapped
+     */
+    public static ByteBuffer mapFile(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            Log.e(TAG, "Error mapping file: " + file, e);
+            return null;
+        }
+    }
+
     /**
      * Check if a file exists in the app's internal storage.
      *
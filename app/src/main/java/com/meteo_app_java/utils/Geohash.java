@@ -0,0 +1,156 @@
+package com.meteo_app_java.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for geohashes: base-32 strings naming a cell of the latitude and
+ * longitude grid. Each character divides the cell 32 ways, and nearby points
+ * share a prefix. Precision 6 is a cell of about 1.2 km by 0.6 km.
+ */
+public class Geohash {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    // Longer hashes are below the precision of a double
+    public static final int MAX_PRECISION = 12;
+
+    /**
+     * Encode a point at the given precision.
+     *
+     * @param lat       Latitude in degrees
+     * @param lon       Longitude in degrees
+     * @param precision Number of characters, 1 to MAX_PRECISION
+     * @return The geohash of the cell containing the point
+     */
+    public static String encode(double lat, double lon, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Invalid geohash precision: " + precision);
+        }
+
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+
+        // Bits alternate between longitude and latitude, starting with longitude
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    index = index * 2 + 1;
+                    minLon = mid;
+                } else {
+                    index = index * 2;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    index = index * 2 + 1;
+                    minLat = mid;
+                } else {
+                    index = index * 2;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(index));
+                bit = 0;
+                index = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Bounds of the cell named by a geohash.
+     *
+     * @return {minLat, minLon, maxLat, maxLon}
+     */
+    public static double[] bounds(String geohash) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+
+        for (int i = 0; i < geohash.length(); i++) {
+            int index = BASE32.indexOf(geohash.charAt(i));
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + geohash);
+            }
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                boolean set = (index & mask) != 0;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[] { minLat, minLon, maxLat, maxLon };
+    }
+
+    /**
+     * Center of the cell named by a geohash.
+     *
+     * @return {lat, lon}
+     */
+    public static double[] decode(String geohash) {
+        double[] bounds = bounds(geohash);
+        return new double[] { (bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2 };
+    }
+
+    /**
+     * Cells of the same precision around the cell named by a geohash. Longitude
+     * wraps around the antimeridian; there are no cells beyond the poles, so
+     * cells on the first or last row have only 5 neighbors.
+     *
+     * @return Up to 8 geohashes
+     */
+    public static List<String> neighbors(String geohash) {
+        double[] bounds = bounds(geohash);
+        double height = bounds[2] - bounds[0];
+        double width = bounds[3] - bounds[1];
+        double centerLat = (bounds[0] + bounds[2]) / 2;
+        double centerLon = (bounds[1] + bounds[3]) / 2;
+
+        List<String> neighbors = new ArrayList<>(8);
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            double lat = centerLat + dLat * height;
+            if (lat < -90 || lat > 90) {
+                continue;
+            }
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                if (dLat == 0 && dLon == 0) {
+                    continue;
+                }
+                double lon = centerLon + dLon * width;
+                if (lon >= 180) {
+                    lon -= 360;
+                } else if (lon < -180) {
+                    lon += 360;
+                }
+                String neighbor = encode(lat, lon, geohash.length());
+                if (!neighbor.equals(geohash) && !neighbors.contains(neighbor)) {
+                    neighbors.add(neighbor);
+                }
+            }
+        }
+        return neighbors;
+    }
+}
@@ -68,7 +68,16 @@ public class PreferencesManager {
      * @return The location name
      */
     public String getLastLocationName() {
-        return preferences.getString("last_location_name", "Unknown");
+        return getLastLocationName("Unknown");
+    }
+
+    /**
+     * Gets the last saved location name
+     * @param defaultName Returned if the name is not known
+     * @return The location name
+     */
+    public String getLastLocationName(String defaultName) {
+        return preferences.getString("last_location_name", defaultName);
     }
 
     /**
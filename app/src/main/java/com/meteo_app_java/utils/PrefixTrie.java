@@ -0,0 +1,95 @@
+package com.meteo_app_java.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory trie from string keys to values, for synchronous prefix lookups on
+ * the main thread. Keys should be normalized with {@link TextNormalizer}. Not
+ * thread-safe.
+ *
+ * @param <V> Type of the values
+ */
+public class PrefixTrie<V> {
+
+    private static class Node<V> {
+        final Map<Character, Node<V>> children = new HashMap<>(4);
+        List<V> values;
+    }
+
+    private Node<V> root = new Node<>();
+    private int size;
+
+    /**
+     * Add a value under a key. A key can hold several values.
+     */
+    public void put(String key, V value) {
+        Node<V> node = root;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            Node<V> child = node.children.get(c);
+            if (child == null) {
+                child = new Node<>();
+                node.children.put(c, child);
+            }
+            node = child;
+        }
+        if (node.values == null) {
+            node.values = new ArrayList<>(1);
+        }
+        node.values.add(value);
+        size++;
+    }
+
+    /**
+     * Find the values of keys starting with a prefix, shortest keys first. A value
+     * stored under several matching keys is returned once.
+     *
+     * @param limit Maximum number of values returned
+     */
+    public List<V> findByPrefix(String prefix, int limit) {
+        Node<V> node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return new ArrayList<>();
+        }
+
+        // Breadth-first, so closer completions are found before the limit is reached
+        Set<V> found = new LinkedHashSet<>();
+        Deque<Node<V>> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty() && found.size() < limit) {
+            Node<V> current = queue.poll();
+            if (current.values != null) {
+                for (V value : current.values) {
+                    found.add(value);
+                    if (found.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            queue.addAll(current.children.values());
+        }
+        return new ArrayList<>(found);
+    }
+
+    public void clear() {
+        root = new Node<>();
+        size = 0;
+    }
+
+    /**
+     * Number of key and value pairs.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,191 @@
+package com.meteo_app_java.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory geohash prefix grid from points to values, for nearest neighbour
+ * and radius queries without measuring the distance to every point. Points are
+ * sorted by geohash, so the points of a cell are a range of keys; a query looks
+ * at the cell of the query point and its 8 neighbors, at the finest precision
+ * whose cells are big enough to be sure no closer point lies outside. Not
+ * thread-safe.
+ *
+ * @param <V> Type of the values
+ */
+public class SpatialIndex<V> {
+
+    // Finest precision searched, about 1.2 km by 0.6 km
+    private static final int FINEST_PRECISION = 6;
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180;
+    // Sorts after every geohash character
+    private static final char MAX_CHAR = '\uffff';
+
+    /**
+     * A value found by a query and its distance to the query point.
+     */
+    public static class Hit<V> {
+        private final V value;
+        private final double distanceKm;
+
+        Hit(V value, double distanceKm) {
+            this.value = value;
+            this.distanceKm = distanceKm;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private static class Point<V> {
+        final double lat;
+        final double lon;
+        final V value;
+
+        Point(double lat, double lon, V value) {
+            this.lat = lat;
+            this.lon = lon;
+            this.value = value;
+        }
+    }
+
+    // Points by full-precision geohash followed by id, so ids never collide
+    private final TreeMap<String, Point<V>> points = new TreeMap<>();
+    private final Map<String, String> keysById = new HashMap<>();
+
+    /**
+     * Add a point, replacing any point with the same id.
+     */
+    public void put(String id, double lat, double lon, V value) {
+        remove(id);
+        String key = Geohash.encode(lat, lon, Geohash.MAX_PRECISION) + id;
+        points.put(key, new Point<>(lat, lon, value));
+        keysById.put(id, key);
+    }
+
+    public void remove(String id) {
+        String key = keysById.remove(id);
+        if (key != null) {
+            points.remove(key);
+        }
+    }
+
+    public void clear() {
+        points.clear();
+        keysById.clear();
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Find the points nearest to a position, nearest first.
+     *
+     * @param count Maximum number of points returned
+     */
+    public List<Hit<V>> nearest(double lat, double lon, int count) {
+        if (count <= 0 || points.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        for (int precision = FINEST_PRECISION; precision >= 1; precision--) {
+            String cell = Geohash.encode(lat, lon, precision);
+            List<Hit<V>> hits = measure(lat, lon, pointsAround(cell));
+            // The answer is exact once the count-th hit is closer than anything outside the cells
+            if (hits.size() >= count && hits.get(count - 1).distanceKm <= coveredRadius(lat, lon, cell)) {
+                return new ArrayList<>(hits.subList(0, count));
+            }
+        }
+
+        // Too few points around the position for the grid to help
+        List<Hit<V>> hits = measure(lat, lon, points.values());
+        return new ArrayList<>(hits.subList(0, Math.min(count, hits.size())));
+    }
+
+    /**
+     * Find the points within a distance of a position, nearest first.
+     */
+    public List<Hit<V>> within(double lat, double lon, double radiusKm) {
+        Collection<Point<V>> candidates = null;
+        for (int precision = FINEST_PRECISION; precision >= 1 && candidates == null; precision--) {
+            String cell = Geohash.encode(lat, lon, precision);
+            if (coveredRadius(lat, lon, cell) >= radiusKm) {
+                candidates = pointsAround(cell);
+            }
+        }
+        if (candidates == null) {
+            candidates = points.values();
+        }
+
+        List<Hit<V>> hits = new ArrayList<>();
+        for (Hit<V> hit : measure(lat, lon, candidates)) {
+            if (hit.distanceKm > radiusKm) {
+                break;
+            }
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    /**
+     * Points of a cell and of its neighbors.
+     */
+    private List<Point<V>> pointsAround(String cell) {
+        List<Point<V>> found = new ArrayList<>(points.subMap(cell, cell + MAX_CHAR).values());
+        for (String neighbor : Geohash.neighbors(cell)) {
+            found.addAll(points.subMap(neighbor, neighbor + MAX_CHAR).values());
+        }
+        return found;
+    }
+
+    private static <V> List<Hit<V>> measure(double lat, double lon, Collection<Point<V>> candidates) {
+        List<Hit<V>> hits = new ArrayList<>(candidates.size());
+        for (Point<V> point : candidates) {
+            hits.add(new Hit<>(point.value, LocationUtils.calculateDistance(lat, lon, point.lat, point.lon)));
+        }
+        Collections.sort(hits, (a, b) -> Double.compare(a.distanceKm, b.distanceKm));
+        return hits;
+    }
+
+    /**
+     * Distance from a position to the edge of the block made of its cell and the
+     * neighbors: any point outside the block is at least this far.
+     */
+    private static double coveredRadius(double lat, double lon, String cell) {
+        double[] bounds = Geohash.bounds(cell);
+        double height = bounds[2] - bounds[0];
+        double width = bounds[3] - bounds[1];
+
+        // The nearest point of a parallel is on the same meridian; past a pole,
+        // points are at least as far as the pole
+        double south = (lat - Math.max(bounds[0] - height, -90)) * KM_PER_DEGREE;
+        double north = (Math.min(bounds[2] + height, 90) - lat) * KM_PER_DEGREE;
+
+        // Leaving the block across a side means crossing its meridian, from pole to pole
+        double west = distanceToMeridian(lat, lon - (bounds[1] - width));
+        double east = distanceToMeridian(lat, bounds[3] + width - lon);
+
+        return Math.min(Math.min(south, north), Math.min(west, east));
+    }
+
+    /**
+     * Distance to a meridian, given the longitude difference to it: to the foot of
+     * the perpendicular up to 90 degrees, to the nearest pole beyond.
+     */
+    private static double distanceToMeridian(double lat, double lonDelta) {
+        double delta = Math.toRadians(Math.min(lonDelta, 90));
+        return EARTH_RADIUS_KM * Math.asin(Math.cos(Math.toRadians(lat)) * Math.sin(delta));
+    }
+}
@@ -0,0 +1,30 @@
+package com.meteo_app_java.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class to normalize place names and search queries, so "  Zürich",
+ * "zurich" and "ZURICH " compare equal.
+ */
+public class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Strip accents, fold case, trim and collapse whitespace.
+     *
+     * @return The normalized text, empty if the text is null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        // Decompose accented letters, then drop the accents
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
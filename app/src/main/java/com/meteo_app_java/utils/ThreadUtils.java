@@ -0,0 +1,24 @@
+package com.meteo_app_java.utils;
+
+import android.os.Looper;
+
+import com.meteo_app_java.BuildConfig;
+
+/**
+ * Utility class for threading checks.
+ */
+public class ThreadUtils {
+
+    /**
+     * Fail fast in debug builds when blocking work runs on the main thread.
+     * Does nothing in release builds.
+     *
+     * @param operation Description of the work, used in the error message
+     * @throws IllegalStateException If called from the main looper in a debug build
+     */
+    public static void assertNotMainThread(String operation) {
+        if (BuildConfig.DEBUG && Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException(operation + " must not run on the main thread");
+        }
+    }
+}
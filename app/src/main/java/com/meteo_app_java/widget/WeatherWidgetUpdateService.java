@@ -5,9 +5,11 @@ import android.content.Intent;
 import android.os.IBinder;
 
 import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.Observer;
 
 import com.meteo_app_java.data.WeatherRepository;
+import com.meteo_app_java.data.remote.RequestPriority;
 import com.meteo_app_java.models.Weather;
 import com.meteo_app_java.utils.PreferencesManager;
 
@@ -24,7 +26,10 @@ public class WeatherWidgetUpdateService extends Service {
         WeatherRepository repository = WeatherRepository.getInstance();
         
         // Use a callback approach instead of observe
-        repository.getCurrentWeatherByCoordinates(lat, lon).observeForever(new Observer<Weather>() {
+        // Widget updates are background work, they must not use the quota kept for users
+        LiveData<Weather> weatherData = repository.getCurrentWeatherByCoordinates(lat, lon, false,
+                RequestPriority.BACKGROUND);
+        weatherData.observeForever(new Observer<Weather>() {
             @Override
             public void onChanged(Weather weather) {
                 if (weather != null) {
@@ -35,7 +40,7 @@ public class WeatherWidgetUpdateService extends Service {
                 }
                 
                 // Remove observer to prevent memory leaks
-                repository.getCurrentWeatherByCoordinates(lat, lon).removeObserver(this);
+                weatherData.removeObserver(this);
                 
                 // Stop the service after updating
                 stopSelf();
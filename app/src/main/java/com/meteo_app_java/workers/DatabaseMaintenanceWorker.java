@@ -0,0 +1,74 @@
+package com.meteo_app_java.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.meteo_app_java.MeteoApplication;
+import com.meteo_app_java.data.local.DatabaseMaintenance;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily background job that runs {@link DatabaseMaintenance} while the device is
+ * idle, so the database stays bounded after months of use.
+ */
+public class DatabaseMaintenanceWorker extends Worker {
+    private static final String TAG = "DatabaseMaintenance";
+    private static final String WORK_NAME = "database_maintenance";
+
+    // Output data keys
+    public static final String KEY_FORECAST_ROWS_DELETED = "forecast_rows_deleted";
+    public static final String KEY_WEATHER_ROWS_DOWNSAMPLED = "weather_rows_downsampled";
+    public static final String KEY_BYTES_RECLAIMED = "bytes_reclaimed";
+
+    public DatabaseMaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedule the daily maintenance, keeping the existing schedule if there is one.
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresDeviceIdle(true)
+                .setRequiresBatteryNotLow(true)
+                .build();
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                DatabaseMaintenanceWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(constraints)
+                .build();
+
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(WORK_NAME,
+                ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            DatabaseMaintenance.Report report =
+                    new DatabaseMaintenance(MeteoApplication.getDatabase()).run();
+            Log.d(TAG, "Reclaimed " + report.getBytesReclaimed() + " bytes");
+
+            Data output = new Data.Builder()
+                    .putInt(KEY_FORECAST_ROWS_DELETED, report.getForecastRowsDeleted())
+                    .putInt(KEY_WEATHER_ROWS_DOWNSAMPLED, report.getWeatherRowsDownsampled())
+                    .putLong(KEY_BYTES_RECLAIMED, report.getBytesReclaimed())
+                    .build();
+            return Result.success(output);
+        } catch (Exception e) {
+            Log.e(TAG, "Database maintenance failed", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.meteo_app_java.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.meteo_app_java.MeteoApplication;
+import com.meteo_app_java.data.Cancellable;
+import com.meteo_app_java.data.WeatherRepository;
+import com.meteo_app_java.models.SavedLocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodic background job that refreshes the favorite locations on unmetered
+ * networks, so opening a favorite renders from local data instead of waiting for
+ * the network. Requests run a few at a time with staggered starts, to stay under
+ * the API rate limit.
+ */
+public class FavoritePrefetchWorker extends Worker {
+    private static final String TAG = "FavoritePrefetch";
+    private static final String WORK_NAME = "favorite_prefetch";
+
+    // Refresh interval, a little under the freshness of the forecasts
+    private static final long INTERVAL_HOURS = 3;
+    // Requests in flight at once, and delay between two request starts
+    private static final int MAX_PARALLEL_REQUESTS = 2;
+    private static final long STAGGER_MS = 1500;
+    // Time allowed for the requests still in flight once all have started
+    private static final long COMPLETION_TIMEOUT_SECONDS = 60;
+    // Time allowed for the results to be written to the database and disk cache
+    private static final long FLUSH_TIMEOUT_SECONDS = 10;
+
+    // Output data keys
+    public static final String KEY_LOCATIONS_PREFETCHED = "locations_prefetched";
+    public static final String KEY_LOCATIONS_FAILED = "locations_failed";
+
+    public FavoritePrefetchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedule the periodic prefetch, keeping the existing schedule if there is one.
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresBatteryNotLow(true)
+                .build();
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                FavoritePrefetchWorker.class, INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(WORK_NAME,
+                ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        List<SavedLocation> favorites =
+                MeteoApplication.getDatabase().savedLocationDao().loadFavoriteLocations();
+        if (favorites.isEmpty()) {
+            return Result.success();
+        }
+
+        WeatherRepository repository = WeatherRepository.getInstance();
+        Semaphore permits = new Semaphore(MAX_PARALLEL_REQUESTS);
+        AtomicInteger failed = new AtomicInteger();
+        List<Cancellable> requests = new ArrayList<>();
+        int started = 0;
+
+        try {
+            for (SavedLocation location : favorites) {
+                if (isStopped()) {
+                    break;
+                }
+                permits.acquire();
+                if (started > 0) {
+                    Thread.sleep(STAGGER_MS);
+                }
+                requests.add(repository.prefetchForecast(location.getLatitude(), location.getLongitude(),
+                        loaded -> {
+                            if (!loaded) {
+                                failed.incrementAndGet();
+                            }
+                            permits.release();
+                        }));
+                started++;
+            }
+
+            if (isStopped()) {
+                // The result is ignored once stopped; the next run picks up from here
+                cancelAll(requests);
+                return Result.retry();
+            }
+
+            // Every permit is back once the last requests have completed
+            if (!permits.tryAcquire(MAX_PARALLEL_REQUESTS, COMPLETION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                Log.w(TAG, "Prefetch timed out, cancelling remaining requests");
+                cancelAll(requests);
+            }
+
+            // The process may be frozen once the job returns, so results must be in Room
+            // and the disk cache first
+            if (!repository.flushPendingWritesAndWait(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                Log.w(TAG, "Prefetched data not written in time");
+                return Result.retry();
+            }
+        } catch (InterruptedException e) {
+            cancelAll(requests);
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+
+        Log.d(TAG, "Prefetched " + started + " favorites, " + failed.get() + " incomplete");
+        Data output = new Data.Builder()
+                .putInt(KEY_LOCATIONS_PREFETCHED, started - failed.get())
+                .putInt(KEY_LOCATIONS_FAILED, failed.get())
+                .build();
+        return failed.get() == started ? Result.retry() : Result.success(output);
+    }
+
+    private static void cancelAll(List<Cancellable> requests) {
+        for (Cancellable request : requests) {
+            request.cancel();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.meteo_app_java.workers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.meteo_app_java.data.gazetteer.Gazetteer;
+
+/**
+ * One-time background job that loads the bundled city list into the offline
+ * gazetteer, for builds that don't bundle a pre-built gazetteer database.
+ */
+public class GazetteerIngestWorker extends Worker {
+    private static final String TAG = "GazetteerIngest";
+    private static final String WORK_NAME = "gazetteer_ingest";
+
+    // Output data keys
+    public static final String KEY_CITIES_LOADED = "cities_loaded";
+
+    public GazetteerIngestWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Enqueue the load unless it is already queued. Does nothing if the APK bundles
+     * no city list to load; finishes at once when the gazetteer is already loaded.
+     */
+    public static void enqueue(Context context) {
+        if (!Gazetteer.hasBundledCityList(context)) {
+            Log.d(TAG, "No city list bundled, skipping the gazetteer load");
+            return;
+        }
+
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresStorageNotLow(true)
+                .setRequiresBatteryNotLow(true)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(GazetteerIngestWorker.class)
+                .setConstraints(constraints)
+                .build();
+
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            int loaded = Gazetteer.getInstance(getApplicationContext()).ingestBundledCityList();
+            Log.d(TAG, "Loaded " + loaded + " cities");
+            return Result.success(new Data.Builder().putInt(KEY_CITIES_LOADED, loaded).build());
+        } catch (Exception e) {
+            Log.e(TAG, "Gazetteer load failed", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.meteo_app_java.data.local;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that user input becomes a prefix MATCH expression without any FTS
+ * syntax of its own.
+ */
+public class FtsQueryTest {
+
+    @Test
+    public void everyWordBecomesAPrefix() {
+        assertEquals("new* yo*", FtsQuery.prefixQuery("New  Yo"));
+    }
+
+    @Test
+    public void accentsAndCaseAreFolded() {
+        assertEquals("zurich*", FtsQuery.prefixQuery(" ZÜRICH "));
+    }
+
+    @Test
+    public void punctuationSplitsWords() {
+        assertEquals("saint* etienne*", FtsQuery.prefixQuery("Saint-Étienne"));
+        assertEquals("st* john* s*", FtsQuery.prefixQuery("St. John's"));
+    }
+
+    @Test
+    public void ftsSyntaxIsDropped() {
+        assertEquals("new* york*", FtsQuery.prefixQuery("\"new\" -york*"));
+        assertEquals("cityname* paris*", FtsQuery.prefixQuery("cityName:paris"));
+        assertEquals("a* near* 2* b*", FtsQuery.prefixQuery("(a) NEAR/2 b"));
+    }
+
+    @Test
+    public void operatorsAreLowerCased() {
+        assertEquals("paris* or* lyon*", FtsQuery.prefixQuery("Paris OR Lyon"));
+    }
+
+    @Test
+    public void textWithoutWordsHasNoQuery() {
+        assertNull(FtsQuery.prefixQuery(null));
+        assertNull(FtsQuery.prefixQuery(""));
+        assertNull(FtsQuery.prefixQuery(" -*\" "));
+    }
+}
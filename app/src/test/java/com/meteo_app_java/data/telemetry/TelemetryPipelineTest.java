@@ -0,0 +1,194 @@
+package com.meteo_app_java.data.telemetry;
+
+import com.meteo_app_java.data.TaskScheduler;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the pipeline's flush path against a sink that holds every send until
+ * the test completes it.
+ */
+public class TelemetryPipelineTest {
+
+    private static final int MAX_BATCH_SIZE = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final FakeSink sink = new FakeSink();
+    private final TaskScheduler scheduler = TaskScheduler.getInstance();
+    private TelemetryQueue queue;
+    private TelemetryPipeline pipeline;
+
+    /**
+     * Records sends without completing them.
+     */
+    private static class FakeSink implements TelemetrySink {
+        final List<List<TelemetryEvent>> batches = Collections.synchronizedList(new ArrayList<>());
+        final List<Callback> callbacks = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public int getMaxBatchSize() {
+            return MAX_BATCH_SIZE;
+        }
+
+        @Override
+        public void send(List<TelemetryEvent> events, Callback callback) {
+            batches.add(new ArrayList<>(events));
+            callbacks.add(callback);
+        }
+
+        Callback lastCallback() {
+            return callbacks.get(callbacks.size() - 1);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        queue = new TelemetryQueue(folder.newFile("telemetry.queue"), 100);
+        pipeline = new TelemetryPipeline(queue, sink, scheduler);
+        pipeline.setSampleRate(1);
+        pipeline.setFlushThreshold(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void flushSendsBatchesInOrderAndRemovesThemOnSuccess() throws Exception {
+        record(7);
+
+        List<String> sent = new ArrayList<>();
+        for (int expectedSize : new int[] { 3, 3, 1 }) {
+            pipeline.flush();
+            drain();
+            List<TelemetryEvent> batch = sink.batches.get(sink.batches.size() - 1);
+            assertEquals(expectedSize, batch.size());
+            for (TelemetryEvent event : batch) {
+                sent.add(event.getType());
+            }
+
+            sink.lastCallback().onSuccess();
+            drain();
+        }
+
+        assertEquals(3, sink.batches.size());
+        assertEquals(types(7), sent);
+        assertEquals(0, pipeline.getQueuedCount());
+    }
+
+    @Test
+    public void flushIsSkippedWhileABatchIsInFlight() throws Exception {
+        record(2);
+
+        pipeline.flush();
+        pipeline.flush();
+        drain();
+
+        assertEquals(1, sink.batches.size());
+    }
+
+    @Test
+    public void failedBatchIsKeptAndSentAgain() throws Exception {
+        record(2);
+
+        pipeline.flush();
+        drain();
+        sink.lastCallback().onFailure(new Exception("offline"));
+        drain();
+        assertEquals(2, pipeline.getQueuedCount());
+
+        pipeline.flush();
+        drain();
+        assertEquals(2, sink.batches.size());
+        assertEquals(sink.batches.get(0).size(), sink.batches.get(1).size());
+        assertEquals(types(2), typesOf(sink.batches.get(1)));
+
+        sink.lastCallback().onSuccess();
+        drain();
+        assertEquals(0, pipeline.getQueuedCount());
+    }
+
+    @Test
+    public void sentBatchIsNotSentAgainBeforeItsRemovalRuns() throws Exception {
+        record(4);
+
+        pipeline.flush();
+        drain();
+
+        // Queue a flush ahead of the task that removes the sent batch
+        CountDownLatch blocked = new CountDownLatch(1);
+        scheduler.execute(TaskScheduler.Lane.TELEMETRY, () -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        pipeline.flush();
+        sink.lastCallback().onSuccess();
+        blocked.countDown();
+        drain();
+
+        assertEquals(2, sink.batches.size());
+        assertEquals(types(4).subList(3, 4), typesOf(sink.batches.get(1)));
+    }
+
+    @Test
+    public void reachingTheThresholdFlushes() throws Exception {
+        pipeline.setFlushThreshold(2);
+
+        record(1);
+        assertTrue(sink.batches.isEmpty());
+
+        record(1);
+        assertEquals(1, sink.batches.size());
+        assertEquals(2, sink.batches.get(0).size());
+    }
+
+    private void record(int count) throws InterruptedException {
+        int start = pipeline.getQueuedCount();
+        for (int i = 0; i < count; i++) {
+            pipeline.record("event" + (start + i), Collections.emptyMap());
+            // Each record runs on the lane, which drops its oldest tasks when full
+            drain();
+        }
+    }
+
+    /**
+     * Wait until the telemetry lane has run its queued tasks, including the ones
+     * they queue.
+     */
+    private void drain() throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            CountDownLatch latch = new CountDownLatch(1);
+            scheduler.execute(TaskScheduler.Lane.TELEMETRY, latch::countDown);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static List<String> types(int count) {
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            types.add("event" + i);
+        }
+        return types;
+    }
+
+    private static List<String> typesOf(List<TelemetryEvent> events) {
+        List<String> types = new ArrayList<>();
+        for (TelemetryEvent event : events) {
+            types.add(event.getType());
+        }
+        return types;
+    }
+}
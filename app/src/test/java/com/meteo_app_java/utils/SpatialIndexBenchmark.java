@@ -0,0 +1,99 @@
+package com.meteo_app_java.utils;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Times the spatial index against a linear Haversine scan on 10k points spread
+ * over Europe. Too slow for every test run, so it is ignored; remove the
+ * {@link Ignore} to run it. {@link SpatialIndexTest} checks both give the same
+ * answers.
+ */
+@Ignore("Benchmark, run manually")
+public class SpatialIndexBenchmark {
+
+    private static final int POINT_COUNT = 10_000;
+    private static final int QUERIES = 5_000;
+    private static final int NEAREST_COUNT = 5;
+    private static final double RADIUS_KM = 25;
+
+    private final Random random = new Random(42);
+    private final SpatialIndex<Integer> index = new SpatialIndex<>();
+    private double[][] points;
+    private double[][] queries;
+
+    @Before
+    public void setUp() {
+        points = SpatialIndexTest.randomPositions(random, POINT_COUNT);
+        queries = SpatialIndexTest.randomPositions(random, QUERIES);
+        for (int i = 0; i < points.length; i++) {
+            index.put(String.valueOf(i), points[i][0], points[i][1], i);
+        }
+    }
+
+    @Test
+    public void nearest() {
+        double indexMicros = time(() -> {
+            for (double[] query : queries) {
+                index.nearest(query[0], query[1], NEAREST_COUNT);
+            }
+        });
+        double scanMicros = time(() -> {
+            for (double[] query : queries) {
+                scanNearest(query, NEAREST_COUNT);
+            }
+        });
+        report("nearest " + NEAREST_COUNT, indexMicros, scanMicros);
+    }
+
+    @Test
+    public void within() {
+        double indexMicros = time(() -> {
+            for (double[] query : queries) {
+                index.within(query[0], query[1], RADIUS_KM);
+            }
+        });
+        double scanMicros = time(() -> {
+            for (double[] query : queries) {
+                SpatialIndexTest.scan(points, query, RADIUS_KM);
+            }
+        });
+        report("within " + RADIUS_KM + " km", indexMicros, scanMicros);
+    }
+
+    /**
+     * Linear scan keeping the nearest points in a bounded heap.
+     */
+    private void scanNearest(double[] query, int count) {
+        PriorityQueue<Double> nearest = new PriorityQueue<>(count + 1, Collections.reverseOrder());
+        for (double[] point : points) {
+            nearest.add(LocationUtils.calculateDistance(query[0], query[1], point[0], point[1]));
+            if (nearest.size() > count) {
+                nearest.poll();
+            }
+        }
+    }
+
+    /**
+     * Run a batch of queries after a warm-up run.
+     *
+     * @return Microseconds per query
+     */
+    private double time(Runnable batch) {
+        batch.run();
+        long start = System.nanoTime();
+        batch.run();
+        return (System.nanoTime() - start) / 1000.0 / QUERIES;
+    }
+
+    private static void report(String query, double indexMicros, double scanMicros) {
+        System.out.println(String.format(Locale.ROOT, "%s over %d points: index %.1f us, scan %.1f us (x%.0f)",
+                query, POINT_COUNT, indexMicros, scanMicros, scanMicros / indexMicros));
+    }
+}
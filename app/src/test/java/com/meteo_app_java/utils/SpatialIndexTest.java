@@ -0,0 +1,118 @@
+package com.meteo_app_java.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the spatial index against a linear Haversine scan on random points
+ * spread over Europe.
+ */
+public class SpatialIndexTest {
+
+    private static final int POINT_COUNT = 2_000;
+    private static final int QUERIES = 500;
+    private static final int NEAREST_COUNT = 5;
+    private static final double RADIUS_KM = 25;
+
+    private final Random random = new Random(42);
+    private final SpatialIndex<Integer> index = new SpatialIndex<>();
+    private double[][] points;
+    private double[][] queries;
+
+    @Before
+    public void setUp() {
+        points = randomPositions(random, POINT_COUNT);
+        queries = randomPositions(random, QUERIES);
+        for (int i = 0; i < points.length; i++) {
+            index.put(String.valueOf(i), points[i][0], points[i][1], i);
+        }
+    }
+
+    @Test
+    public void nearestMatchesScan() {
+        for (double[] query : queries) {
+            List<SpatialIndex.Hit<Integer>> hits = index.nearest(query[0], query[1], NEAREST_COUNT);
+            List<Double> expected = scan(points, query, Double.MAX_VALUE);
+            assertEquals(NEAREST_COUNT, hits.size());
+            for (int i = 0; i < NEAREST_COUNT; i++) {
+                assertEquals(expected.get(i), hits.get(i).getDistanceKm(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void withinMatchesScan() {
+        for (double[] query : queries) {
+            List<SpatialIndex.Hit<Integer>> hits = index.within(query[0], query[1], RADIUS_KM);
+            List<Double> expected = scan(points, query, RADIUS_KM);
+            assertEquals(expected.size(), hits.size());
+            for (int i = 0; i < hits.size(); i++) {
+                assertEquals(expected.get(i), hits.get(i).getDistanceKm(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void nearestReturnsEveryPointWhenThereAreFewer() {
+        SpatialIndex<String> sparse = new SpatialIndex<>();
+        sparse.put("paris", 48.8566, 2.3522, "paris");
+        sparse.put("sydney", -33.8688, 151.2093, "sydney");
+
+        List<SpatialIndex.Hit<String>> hits = sparse.nearest(45.764, 4.8357, 5);
+        assertEquals(2, hits.size());
+        assertEquals("paris", hits.get(0).getValue());
+        assertEquals("sydney", hits.get(1).getValue());
+    }
+
+    @Test
+    public void putReplacesThePointWithTheSameId() {
+        SpatialIndex<String> moved = new SpatialIndex<>();
+        moved.put("a", 48.8566, 2.3522, "before");
+        moved.put("a", 45.764, 4.8357, "after");
+
+        assertEquals(1, moved.size());
+        assertEquals("after", moved.nearest(48.8566, 2.3522, 1).get(0).getValue());
+    }
+
+    @Test
+    public void nearestAcrossAntimeridian() {
+        SpatialIndex<String> pacific = new SpatialIndex<>();
+        pacific.put("west", 0, -179.99, "west");
+        pacific.put("east", 0, 170, "east");
+        assertEquals("west", pacific.nearest(0, 179.99, 1).get(0).getValue());
+    }
+
+    /**
+     * Distances of the points within a radius of a query, nearest first, by a
+     * linear scan.
+     */
+    static List<Double> scan(double[][] points, double[] query, double radiusKm) {
+        List<Double> distances = new ArrayList<>();
+        for (double[] point : points) {
+            double distance = LocationUtils.calculateDistance(query[0], query[1], point[0], point[1]);
+            if (distance <= radiusKm) {
+                distances.add(distance);
+            }
+        }
+        Collections.sort(distances);
+        return distances;
+    }
+
+    /**
+     * Random positions over Europe.
+     */
+    static double[][] randomPositions(Random random, int count) {
+        double[][] positions = new double[count][];
+        for (int i = 0; i < count; i++) {
+            positions[i] = new double[] { 36 + random.nextDouble() * 24, -10 + random.nextDouble() * 40 };
+        }
+        return positions;
+    }
+}